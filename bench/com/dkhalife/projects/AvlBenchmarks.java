@@ -0,0 +1,133 @@
+package com.dkhalife.projects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class runs the JMH benchmarks by group, java.util.TreeSet or another
+ * set of the JDK being the baseline of every workload.
+ * 
+ * Usage: AvlBenchmarks [core] [unboxed] [recursion] [setops] [concurrent]
+ * [--sizes=1000,100000,1000000] [--warmup=3] [--iterations=5] [--forks=1]
+ * 
+ * The groups are:
+ * core - sequential, random and adversarial inserts, mixed inserts and
+ * removals, lookups, bulk loading and painting the panel
+ * unboxed - the boxed tree against the int and pooled trees
+ * recursion - a single insertion or removal, iterative against recursive
+ * setops - unions, intersections and differences on 1 to all the cores
+ * concurrent - 10%, 50% and 100% updates on 1 to 64 threads, past the
+ * number of cores so the contention shows
+ * 
+ * Any single benchmark can also be run through org.openjdk.jmh.Main.
+ * 
+ * @author Dany Khalife
+ */
+public final class AvlBenchmarks {
+	// The most threads the concurrent group runs on
+	private static final int MAX_THREADS = 64;
+
+	/**
+	 * This class only holds static methods
+	 */
+	private AvlBenchmarks() {
+	}
+
+	/**
+	 * This method runs the benchmarks
+	 * 
+	 * @param args The groups to run and the options
+	 * @throws RunnerException If a benchmark fails
+	 */
+	public static void main(String[] args) throws RunnerException {
+		String[] sizes = { "1000", "100000", "1000000" };
+		int warmup = 3;
+		int iterations = 5;
+		int forks = 1;
+		List<String> groups = new ArrayList<String>();
+
+		// Lets read the options
+		for (String arg : args) {
+			if (arg.startsWith("--sizes=")) {
+				sizes = arg.substring(8).split(",");
+			}
+			else if (arg.startsWith("--warmup=")) {
+				warmup = Integer.parseInt(arg.substring(9));
+			}
+			else if (arg.startsWith("--iterations=")) {
+				iterations = Integer.parseInt(arg.substring(13));
+			}
+			else if (arg.startsWith("--forks=")) {
+				forks = Integer.parseInt(arg.substring(8));
+			}
+			else {
+				groups.add(arg);
+			}
+		}
+
+		// Run everything unless told otherwise
+		if (groups.isEmpty()) {
+			groups.addAll(Arrays.asList("core", "unboxed", "recursion", "setops", "concurrent"));
+		}
+
+		for (String group : groups) {
+			ChainedOptionsBuilder options = new OptionsBuilder().warmupIterations(warmup).measurementIterations(iterations).forks(forks).param("n", sizes);
+
+			switch (group) {
+			case "core":
+				run(options.include("SetBenchmarks\\.").param("impl", "TreeSet", "AvlTree", "AvlSet").include("BulkLoadBenchmarks\\.").include("PaintBenchmarks\\."));
+				break;
+			case "unboxed":
+				run(options.include("SetBenchmarks\\.(randomInsert|mixed|lookup)$").param("impl", "TreeSet", "AvlTree", "IntAvlTree", "PooledHeap", "PooledDirect"));
+				break;
+			case "recursion":
+				run(options.include("RecursionBenchmarks\\."));
+				break;
+			case "setops":
+				run(options.include("SetOperationBenchmarks\\.").param("cores", powersOfTwo(Runtime.getRuntime().availableProcessors())));
+				break;
+			case "concurrent":
+				// One run per number of threads, they are shared by the whole
+				// run
+				for (String threads : powersOfTwo(MAX_THREADS)) {
+					run(new OptionsBuilder().parent(options.build()).include("ConcurrentBenchmarks\\.").threads(Integer.parseInt(threads)));
+				}
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown group: " + group);
+			}
+		}
+	}
+
+	/**
+	 * This method runs the benchmarks of a group
+	 * 
+	 * @param options What to run and how
+	 * @throws RunnerException If a benchmark fails
+	 */
+	private static void run(ChainedOptionsBuilder options) throws RunnerException {
+		new Runner(options.build()).run();
+	}
+
+	/**
+	 * This method lists the powers of two up to a limit
+	 * 
+	 * @param max The limit
+	 * @return The powers of two from 1, as parameters
+	 */
+	private static String[] powersOfTwo(int max) {
+		List<String> values = new ArrayList<String>();
+
+		for (int i = 1; i <= max; i *= 2) {
+			values.add(String.valueOf(i));
+		}
+
+		return values.toArray(new String[0]);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.dkhalife.projects;
+
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class times building a whole tree from sorted keys, against TreeSet
+ * which builds in linear time from a sorted set too.
+ * 
+ * @author Dany Khalife
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkLoadBenchmarks {
+	// The number of keys
+	@Param({ "1000", "100000", "1000000" })
+	public int n;
+
+	// The keys in order
+	private int[] keys;
+	// The same keys in a set
+	private TreeSet<Integer> source;
+
+	/**
+	 * This method generates the keys
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.keys = Workloads.sequential(this.n);
+
+		this.source = new TreeSet<Integer>();
+		for (int k : this.keys) {
+			this.source.add(Integer.valueOf(k));
+		}
+	}
+
+	/**
+	 * This method copies a sorted set, the baseline
+	 * 
+	 * @return The copy
+	 */
+	@Benchmark
+	public TreeSet<Integer> treeSet() {
+		return new TreeSet<Integer>(this.source);
+	}
+
+	/**
+	 * This method builds a tree from the sorted keys
+	 * 
+	 * @return The tree
+	 */
+	@Benchmark
+	public AvlTree fromSorted() {
+		return AvlTree.fromSorted(this.keys);
+	}
+}
\ No newline at end of file
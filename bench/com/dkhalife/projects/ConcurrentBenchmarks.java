@@ -0,0 +1,154 @@
+package com.dkhalife.projects;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * This class times a set shared by every benchmark thread against
+ * ConcurrentSkipListSet, from mostly lookups up to nothing but updates. The
+ * write heavy mixes are where the writers of ConcurrentAvlTree race each
+ * other for the root.
+ * 
+ * The number of threads is given to JMH, AvlBenchmarks sweeps it.
+ * 
+ * @author Dany Khalife
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentBenchmarks {
+	// The implementation being timed
+	@Param({ "ConcurrentSkipListSet", "synchronized AvlTree", "ConcurrentAvlTree" })
+	public String impl;
+
+	// The number of keys, the set holds about half of them
+	@Param({ "1000", "100000", "1000000" })
+	public int n;
+
+	// The percentage of the operations that are updates, a multiple of 10
+	@Param({ "10", "50", "100" })
+	public int updates;
+
+	// The baseline
+	private ConcurrentSkipListSet<Integer> skipList;
+	// The tree behind a lock
+	private AvlTree locked;
+	// The lock free tree
+	private ConcurrentAvlTree concurrent;
+
+	/**
+	 * This method fills the set being shared
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		int[] initial = Workloads.randomSubset(this.n, new Random(Workloads.SEED));
+
+		switch (this.impl) {
+		case "ConcurrentSkipListSet":
+			this.skipList = new ConcurrentSkipListSet<Integer>();
+			for (int k : initial) {
+				this.skipList.add(Integer.valueOf(k));
+			}
+			break;
+		case "synchronized AvlTree":
+			this.locked = AvlTree.fromSorted(initial);
+			break;
+		case "ConcurrentAvlTree":
+			this.concurrent = new ConcurrentAvlTree();
+			for (int k : initial) {
+				this.concurrent.insert(k);
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown implementation: " + this.impl);
+		}
+	}
+
+	/**
+	 * This class holds the keys of a thread
+	 */
+	@State(Scope.Thread)
+	public static class Keys {
+		// The keys, as many as a power of two
+		private int[] keys;
+		// The number of operations so far
+		private int next = 0;
+
+		/**
+		 * This method gives every thread keys of its own
+		 * 
+		 * @param shared The benchmark
+		 * @param thread Which thread this is
+		 */
+		@Setup(Level.Trial)
+		public void setUp(ConcurrentBenchmarks shared, ThreadParams thread) {
+			Random rnd = new Random(Workloads.SEED + thread.getThreadIndex());
+			this.keys = Workloads.random(1 << 16, shared.n, rnd);
+		}
+	}
+
+	/**
+	 * This method runs an operation, updates come up as often as the mix
+	 * asks
+	 * 
+	 * @param k The keys of the thread
+	 * @return Anything computed from the work
+	 */
+	@Benchmark
+	public boolean operation(Keys k) {
+		int i = k.next++;
+		int key = k.keys[i & (k.keys.length - 1)];
+		boolean update = (i % 10) < (this.updates / 10);
+
+		switch (this.impl) {
+		case "ConcurrentSkipListSet":
+			Integer e = Integer.valueOf(key);
+
+			if (update) {
+				return this.skipList.add(e) || this.skipList.remove(e);
+			}
+
+			return this.skipList.contains(e);
+		case "synchronized AvlTree":
+			Integer boxed = Integer.valueOf(key);
+
+			synchronized (this.locked) {
+				if (update) {
+					if (this.locked.find(boxed) == null) {
+						this.locked.insert(boxed);
+						return true;
+					}
+
+					this.locked.remove(boxed);
+					return false;
+				}
+
+				return this.locked.find(boxed) != null;
+			}
+		default:
+			if (update) {
+				return this.concurrent.insert(key) || this.concurrent.remove(key);
+			}
+
+			return this.concurrent.contains(key);
+		}
+	}
+}
\ No newline at end of file
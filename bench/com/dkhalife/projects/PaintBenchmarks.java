@@ -0,0 +1,142 @@
+package com.dkhalife.projects;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class times painting the panel into an image, against the least work
+ * needed to visit every element.
+ * 
+ * @author Dany Khalife
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmarks {
+	// The number of elements
+	@Param({ "1000", "100000", "1000000" })
+	public int n;
+
+	// The baseline
+	private TreeSet<Integer> source;
+
+	// The tree being painted
+	private AvlTree tree;
+	// The panel painting it
+	private Panel panel;
+
+	// Where the panel is painted
+	private BufferedImage image;
+	// What paints on it
+	private Graphics2D g;
+
+	// The number of frames of the drag so far
+	private int frame = 0;
+
+	/**
+	 * This method lays the tree out in the panel
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		int[] keys = Workloads.sequential(this.n);
+
+		this.source = new TreeSet<Integer>();
+		for (int k : keys) {
+			this.source.add(Integer.valueOf(k));
+		}
+
+		this.tree = AvlTree.fromSorted(keys);
+
+		this.panel = new Panel(50, 20);
+		this.panel.setSize(this.panel.getPreferredSize());
+		this.panel.setTree(this.tree);
+		this.panel.sync();
+
+		this.image = new BufferedImage(this.panel.getWidth(), this.panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+		this.g = this.image.createGraphics();
+	}
+
+	/**
+	 * This method lets go of the graphics and stops the panel
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.g.dispose();
+		this.panel.close();
+	}
+
+	/**
+	 * This method visits every element, the baseline
+	 * 
+	 * @return The sum of the elements
+	 */
+	@Benchmark
+	public long iterate() {
+		long sum = 0;
+		for (Integer k : this.source) {
+			sum += k.intValue();
+		}
+
+		return sum;
+	}
+
+	/**
+	 * This method paints the panel as it is
+	 * 
+	 * @return A pixel of the image
+	 */
+	@Benchmark
+	public int paint() {
+		this.panel.paintComponent(this.g);
+		return this.image.getRGB(0, 0);
+	}
+
+	/**
+	 * This method paints the panel while it is dragged back and forth, a cell
+	 * per frame
+	 * 
+	 * @return A pixel of the image
+	 */
+	@Benchmark
+	public int drag() {
+		int x = this.frame++ % 80;
+		this.panel.setOffset((x < 40) ? x - 20 : 60 - x, 0);
+
+		this.panel.paintComponent(this.g);
+		return this.image.getRGB(0, 0);
+	}
+
+	/**
+	 * This method gives the tree to the panel again and paints it once it is
+	 * laid out
+	 * 
+	 * @return A pixel of the image
+	 */
+	@Benchmark
+	public int treeChanged() {
+		this.panel.setTree(this.tree);
+		this.panel.sync();
+
+		this.panel.paintComponent(this.g);
+		return this.image.getRGB(0, 0);
+	}
+}
\ No newline at end of file
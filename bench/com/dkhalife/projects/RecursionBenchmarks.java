@@ -0,0 +1,197 @@
+package com.dkhalife.projects;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class times a single insertion or removal in the boxed tree, walked
+ * iteratively as it is now, against the recursive walk it replaced.
+ * 
+ * The tree holds the even keys below 2n. An invocation inserts, or removes, a
+ * batch of random odd keys and the report divides by the batch. The setup in
+ * between takes them out again, or puts them back, so the tree keeps its size.
+ * 
+ * @author Dany Khalife
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecursionBenchmarks {
+	// The number of keys changed per invocation
+	static final int BATCH = 1000;
+
+	/**
+	 * A tree of either kind along with the batch of keys being changed
+	 */
+	@State(Scope.Thread)
+	public static class Tree {
+		// How the tree is walked
+		@Param({ "iterative", "recursive" })
+		public String impl;
+
+		// The number of elements in the tree
+		@Param({ "1000", "100000", "1000000" })
+		public int n;
+
+		// The tree walked iteratively, null when the other one is timed
+		private AvlTree iterative;
+		// The tree walked recursively, null when the other one is timed
+		private RecursiveAvlTree recursive;
+
+		// Where the batches are picked from
+		private Random rnd;
+		// The keys of the batch, boxed beforehand
+		final Integer[] batch = new Integer[BATCH];
+
+		/**
+		 * This method fills the tree with the even keys
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			this.rnd = new Random(Workloads.SEED);
+
+			if ("recursive".equals(this.impl)) {
+				this.recursive = new RecursiveAvlTree();
+			}
+			else {
+				this.iterative = new AvlTree();
+			}
+
+			for (int k : Workloads.shuffled(this.n, this.rnd)) {
+				insert(Integer.valueOf(2 * k));
+			}
+
+			pick();
+		}
+
+		/**
+		 * This method picks random odd keys for the next batch
+		 */
+		void pick() {
+			for (int i = 0; i < BATCH; i++) {
+				this.batch[i] = Integer.valueOf(2 * this.rnd.nextInt(this.n) + 1);
+			}
+		}
+
+		/**
+		 * This method inserts a key
+		 * 
+		 * @param e The key
+		 */
+		void insert(Integer e) {
+			if (this.recursive != null) {
+				this.recursive.insert(e);
+			}
+			else {
+				this.iterative.insert(e);
+			}
+		}
+
+		/**
+		 * This method removes a key
+		 * 
+		 * @param e The key
+		 */
+		void remove(Integer e) {
+			if (this.recursive != null) {
+				this.recursive.remove(e);
+			}
+			else {
+				this.iterative.remove(e);
+			}
+		}
+
+		/**
+		 * Getter for the root
+		 * 
+		 * @return The root of the tree
+		 */
+		AvlNode getRoot() {
+			return (this.recursive != null) ? this.recursive.getRoot() : this.iterative.getRoot();
+		}
+	}
+
+	/**
+	 * The tree the insertions are timed on
+	 */
+	@State(Scope.Thread)
+	public static class Insertions extends Tree {
+		/**
+		 * This method takes the last batch back out, then picks the next one
+		 */
+		@Setup(Level.Invocation)
+		public void prepare() {
+			for (Integer e : this.batch) {
+				remove(e);
+			}
+
+			pick();
+		}
+	}
+
+	/**
+	 * The tree the removals are timed on
+	 */
+	@State(Scope.Thread)
+	public static class Removals extends Tree {
+		/**
+		 * This method picks the next batch, then puts it in the tree
+		 */
+		@Setup(Level.Invocation)
+		public void prepare() {
+			pick();
+
+			for (Integer e : this.batch) {
+				insert(e);
+			}
+		}
+	}
+
+	/**
+	 * This method inserts the batch
+	 * 
+	 * @param tree The tree
+	 * @return The root of the tree
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public AvlNode insert(Insertions tree) {
+		for (Integer e : tree.batch) {
+			tree.insert(e);
+		}
+
+		return tree.getRoot();
+	}
+
+	/**
+	 * This method removes the batch
+	 * 
+	 * @param tree The tree
+	 * @return The root of the tree
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public AvlNode remove(Removals tree) {
+		for (Integer e : tree.batch) {
+			tree.remove(e);
+		}
+
+		return tree.getRoot();
+	}
+}
\ No newline at end of file
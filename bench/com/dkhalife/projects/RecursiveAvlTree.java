@@ -0,0 +1,376 @@
+package com.dkhalife.projects;
+
+/**
+ * This class is the boxed tree as it was before its insertions and removals
+ * became iterative, they walk down and balance back up by recursion. It keeps
+ * the heights and sizes of its nodes the same way, so both can be compared
+ * 
+ * @author Dany Khalife
+ */
+final class RecursiveAvlTree {
+	// The root of the tree
+	private AvlNode root = null;
+
+	/**
+	 * This method inserts an integer into the tree
+	 * 
+	 * @param e The integer to insert
+	 */
+	void insert(Integer e) {
+		// If we don't have a root, we'll make one
+		if (this.root == null) {
+			this.root = new AvlNode(e);
+			return;
+		}
+
+		// Otherwise we'll insert it recursively
+		insert(this.root, e);
+	}
+
+	/**
+	 * This method inserts an integer into the tree with respect to a given node
+	 * 
+	 * @param n The referenced node
+	 * @param e The integer to insert
+	 */
+	private void insert(AvlNode n, Integer e) {
+		// We'll get the current element
+		Integer current = n.getElem();
+
+		// Should we go left
+		if (e.intValue() < current.intValue()) {
+			// Is this a leaf?
+			if (n.getLeft() != null) {
+				insert(n.getLeft(), e);
+			}
+			else {
+				AvlNode newNode = new AvlNode(e);
+				newNode.setParent(n);
+				n.setLeft(newNode);
+
+				balance(newNode.getParent());
+			}
+		}
+		// Or right?
+		else if (e.intValue() > current.intValue()) {
+			// Is this a leaf?
+			if (n.getRight() != null) {
+				insert(n.getRight(), e);
+			}
+			else {
+				AvlNode newNode = new AvlNode(e);
+				newNode.setParent(n);
+				n.setRight(newNode);
+
+				balance(newNode.getParent());
+			}
+		}
+	}
+
+	/**
+	 * This method balances the tree in order to respect the AVL propperties
+	 * 
+	 * @param p The node for which to consider balancing
+	 */
+	private void balance(AvlNode p) {
+		// Remember the height this subtree had before the update
+		int oldHeight = p.height();
+
+		// Refresh it now that the children are up to date
+		p.update();
+
+		// The height difference
+		int heightDiff = p.getHeightDiff();
+
+		// Do we have a lean towords the right?
+		if (heightDiff == -2) {
+			// Is it a zig zag?
+			if (p.getRight().getHeightDiff() > 0) {
+				rotateRight(p.getRight());
+			}
+
+			rotateLeft(p);
+
+			// The subtree is now rooted at the former child
+			p = p.getParent();
+		}
+		// Do we have a lean towards the left?
+		else if (heightDiff == 2) {
+			// Is it a zig zag?
+			if (p.getLeft().getHeightDiff() < 0) {
+				rotateLeft(p.getLeft());
+			}
+
+			rotateRight(p);
+
+			// The subtree is now rooted at the former child
+			p = p.getParent();
+		}
+
+		// Is this the root?
+		if (p.getParent() == null) {
+			return;
+		}
+
+		// If the height didn't change, the ancestors only need their size
+		// refreshed
+		if (p.height() == oldHeight) {
+			updateSizes(p.getParent());
+		}
+		// Lets bubble up
+		else {
+			balance(p.getParent());
+		}
+	}
+
+	/**
+	 * This method refreshes the sizes from a node up to the root
+	 * 
+	 * @param p The first node to refresh
+	 */
+	private void updateSizes(AvlNode p) {
+		p.updateSize();
+
+		if (p.getParent() != null) {
+			updateSizes(p.getParent());
+		}
+	}
+
+	/**
+	 * This method rotates the tree around the given node
+	 * 
+	 * @param top The node on which to perform the rotation
+	 */
+	private void rotateLeft(AvlNode top) {
+		// Lets get the ancestor
+		AvlNode ancestor = top.getParent();
+
+		// Are we its left or right child?
+		boolean position = false;
+		if (ancestor != null) {
+			position = ancestor.getRight() == top;
+		}
+
+		// Adjust the links
+		top.setParent(top.getRight());
+		top.setRight(top.getParent().getLeft());
+		top.getParent().setLeft(top);
+		top.getParent().setParent(ancestor);
+
+		// The inner subtree changed hands
+		if (top.getRight() != null) {
+			top.getRight().setParent(top);
+		}
+
+		// Did we affect the root?
+		if (this.root == top) {
+			this.root = top.getParent();
+		}
+
+		// Adjust the ancestor's links
+		if (ancestor != null) {
+			if (position) {
+				ancestor.setRight(top.getParent());
+			}
+			else
+				ancestor.setLeft(top.getParent());
+		}
+
+		// Only the two rotated nodes changed, bottom up
+		top.update();
+		top.getParent().update();
+	}
+
+	/**
+	 * This method rotates the tree to the right on the given node
+	 * 
+	 * @param top The node on which to perform the rotation
+	 */
+	private void rotateRight(AvlNode top) {
+		// Lets get the ancestor
+		AvlNode ancestor = top.getParent();
+
+		// Are we its left or right child?
+		boolean direction = false;
+		if (ancestor != null) {
+			direction = ancestor.getRight() == top;
+		}
+
+		// Adjust links
+		top.setParent(top.getLeft());
+		top.setLeft(top.getParent().getRight());
+		top.getParent().setRight(top);
+		top.getParent().setParent(ancestor);
+
+		// The inner subtree changed hands
+		if (top.getLeft() != null) {
+			top.getLeft().setParent(top);
+		}
+
+		// Did we affect the root?
+		if (this.root == top) {
+			this.root = top.getParent();
+		}
+
+		// Adjust the ancestor's links
+		if (ancestor != null) {
+			if (direction) {
+				ancestor.setRight(top.getParent());
+			}
+			else
+				ancestor.setLeft(top.getParent());
+		}
+
+		// Only the two rotated nodes changed, bottom up
+		top.update();
+		top.getParent().update();
+	}
+
+	/**
+	 * Getter for the root
+	 * 
+	 * @return The root of the tree
+	 */
+	AvlNode getRoot() {
+		return this.root;
+	}
+
+	/**
+	 * This method removes an element from the tree
+	 * 
+	 * @param e The integer to remove
+	 */
+	void remove(Integer e) {
+		// Is there anything to remove?
+		if (this.root == null) {
+			return;
+		}
+
+		remove(this.root, e);
+	}
+
+	/**
+	 * This method removes an element from the tree according to the given node
+	 * 
+	 * @param n The referenced node
+	 * @param e The integer to remove
+	 */
+	private void remove(AvlNode n, Integer e) {
+		// Lets get the current element
+		Integer current = n.getElem();
+
+		// Should we go left
+		if ((e.intValue() < current.intValue()) && (n.getLeft() != null)) {
+			remove(n.getLeft(), e);
+		}
+		// Or right?
+		else if ((e.intValue() > current.intValue()) && (n.getRight() != null)) {
+			remove(n.getRight(), e);
+		}
+		// Are we there yet?
+		else if (e.intValue() == current.intValue()) {
+			unlink(n);
+		}
+	}
+
+	/**
+	 * This method takes a node out of the tree
+	 * 
+	 * @param n The node to remove
+	 */
+	private void unlink(AvlNode n) {
+		// Great lets get the parent
+		AvlNode parent = n.getParent();
+
+		// Are we at the root?
+		boolean isRoot = n == this.root;
+
+		// Is this a left child?
+		boolean isLeftChild = (!isRoot) && (parent.getLeft() == n);
+
+		// Is this a leaf?
+		if ((n.getLeft() == null) && (n.getRight() == null)) {
+			// Cleanup the ongoing link to this node then
+			if (isRoot) {
+				this.root = null;
+			}
+			else if (isLeftChild) {
+				parent.setLeft(null);
+			}
+			else {
+				parent.setRight(null);
+			}
+		}
+		// Is this a half leaf?
+		else if ((n.getLeft() == null) || (n.getRight() == null)) {
+			AvlNode child = (n.getLeft() != null) ? n.getLeft() : n.getRight();
+
+			// Adjust the incoming link
+			if (isRoot) {
+				this.root = child;
+			}
+			else if (isLeftChild) {
+				parent.setLeft(child);
+			}
+			else {
+				parent.setRight(child);
+			}
+
+			// Adjust the outgoing link
+			child.setParent(parent);
+		}
+		else {
+			// Lets get the maximum
+			AvlNode m = n.getLeft();
+			while (m.getRight() != null) {
+				m = m.getRight();
+			}
+
+			// The deepest node whose subtree changes
+			AvlNode start = m;
+
+			// Adjust its links
+			if (m.getParent() != n) {
+				start = m.getParent();
+				m.getParent().setRight(m.getLeft());
+
+				// Its left subtree moves up
+				if (m.getLeft() != null) {
+					m.getLeft().setParent(m.getParent());
+				}
+
+				// Then it takes over the other side
+				m.setLeft(n.getLeft());
+				n.getLeft().setParent(m);
+			}
+
+			// Adjust the incoming link
+			if (isRoot) {
+				this.root = m;
+			}
+			else if (isLeftChild) {
+				parent.setLeft(m);
+			}
+			else {
+				parent.setRight(m);
+			}
+
+			// Adjust the outgoing links
+			m.setRight(n.getRight());
+			n.getRight().setParent(m);
+			m.setParent(parent);
+
+			// It stands where the removed node stood
+			m.setHeight(n.height());
+
+			// Now we need to rebalance from where the tree changed
+			balance(start);
+			return;
+		}
+
+		// Now we need to rebalance the tree
+		if (!isRoot) {
+			balance(parent);
+		}
+	}
+}
\ No newline at end of file
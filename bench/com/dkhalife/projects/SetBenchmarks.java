@@ -0,0 +1,130 @@
+package com.dkhalife.projects;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class times the sets on the same workloads, java.util.TreeSet being the
+ * baseline. Every invocation runs a whole batch of n operations.
+ * 
+ * @author Dany Khalife
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetBenchmarks {
+	// The implementation being timed
+	@Param({ "TreeSet", "AvlTree", "AvlSet", "IntAvlTree", "PooledHeap", "PooledDirect" })
+	public String impl;
+
+	// The number of operations per invocation
+	@Param({ "1000", "100000", "1000000" })
+	public int n;
+
+	// The keys from 0 up
+	private int[] sequential;
+	// The same keys shuffled
+	private int[] shuffled;
+	// The same keys going back and forth between both ends
+	private int[] zigZag;
+
+	// A set that is about half full, for the updates
+	private Subject mixedSet;
+	// The keys toggled in it
+	private int[] mixedKeys;
+
+	// A set that is about half full, for the lookups
+	private Subject lookupSet;
+	// The keys looked for in it
+	private int[] lookupKeys;
+
+	/**
+	 * This method generates the keys and fills the sets the operations start
+	 * from
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random rnd = new Random(Workloads.SEED);
+
+		this.sequential = Workloads.sequential(this.n);
+		this.shuffled = Workloads.shuffled(this.n, rnd);
+		this.zigZag = Workloads.zigZag(this.n);
+
+		this.mixedSet = Subject.of(this.impl);
+		this.mixedSet.insertAll(Workloads.randomSubset(2 * this.n, rnd));
+		this.mixedKeys = Workloads.random(this.n, 2 * this.n, rnd);
+
+		// The lookups don't change the set, it is filled once
+		this.lookupSet = Subject.of(this.impl);
+		this.lookupSet.insertAll(Workloads.randomSubset(2 * this.n, rnd));
+		this.lookupKeys = Workloads.random(this.n, 2 * this.n, rnd);
+	}
+
+	/**
+	 * This method inserts the keys in order into an empty set
+	 * 
+	 * @return Anything computed from the work
+	 */
+	@Benchmark
+	public long sequentialInsert() {
+		return Subject.of(this.impl).insertAll(this.sequential);
+	}
+
+	/**
+	 * This method inserts the keys shuffled into an empty set
+	 * 
+	 * @return Anything computed from the work
+	 */
+	@Benchmark
+	public long randomInsert() {
+		return Subject.of(this.impl).insertAll(this.shuffled);
+	}
+
+	/**
+	 * This method inserts the keys from both ends into an empty set, which
+	 * keeps rotating in both directions
+	 * 
+	 * @return Anything computed from the work
+	 */
+	@Benchmark
+	public long adversarialInsert() {
+		return Subject.of(this.impl).insertAll(this.zigZag);
+	}
+
+	/**
+	 * This method removes the random keys that are there and inserts the
+	 * others, the set stays about half full
+	 * 
+	 * @return Anything computed from the work
+	 */
+	@Benchmark
+	public long mixed() {
+		return this.mixedSet.mixed(this.mixedKeys);
+	}
+
+	/**
+	 * This method looks for random keys
+	 * 
+	 * @return The number of keys found
+	 */
+	@Benchmark
+	public long lookup() {
+		return this.lookupSet.lookupAll(this.lookupKeys);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.dkhalife.projects;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class times unions, intersections and differences of two sets of
+ * about n elements each on a number of cores, against the bulk methods of a
+ * copy of the first set.
+ * 
+ * The operations take both trees apart, so they are built again before every
+ * invocation.
+ * 
+ * @author Dany Khalife
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetOperationBenchmarks {
+	// The number of elements in each set
+	@Param({ "1000", "100000", "1000000" })
+	public int n;
+
+	// The number of cores the union runs on
+	@Param({ "1" })
+	public int cores;
+
+	// The keys of both sets
+	private int[] a;
+	private int[] b;
+
+	// The same keys in sets, for the baseline
+	private TreeSet<Integer> setA;
+	private TreeSet<Integer> setB;
+
+	// The threads of the operations
+	private ForkJoinPool pool;
+
+	// The copy of the first set, for the baseline
+	private TreeSet<Integer> copy;
+	// The trees consumed by the operations
+	private AvlTree left;
+	private AvlTree right;
+
+	/**
+	 * This method generates both sets
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random rnd = new Random(Workloads.SEED);
+
+		this.a = Workloads.randomSubset(2 * this.n, rnd);
+		this.b = Workloads.randomSubset(2 * this.n, rnd);
+
+		this.setA = new TreeSet<Integer>();
+		this.setB = new TreeSet<Integer>();
+		for (int k : this.a) {
+			this.setA.add(Integer.valueOf(k));
+		}
+		for (int k : this.b) {
+			this.setB.add(Integer.valueOf(k));
+		}
+
+		this.pool = new ForkJoinPool(this.cores);
+	}
+
+	/**
+	 * This method builds what the next operation consumes
+	 */
+	@Setup(Level.Invocation)
+	public void prepare() {
+		this.copy = new TreeSet<Integer>(this.setA);
+		this.left = AvlTree.fromSorted(this.a);
+		this.right = AvlTree.fromSorted(this.b);
+	}
+
+	/**
+	 * This method stops the threads of the operations
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.pool.shutdown();
+	}
+
+	/**
+	 * This method adds the second set into a copy of the first one, the
+	 * baseline
+	 * 
+	 * @return The union
+	 */
+	@Benchmark
+	public TreeSet<Integer> treeSetAddAll() {
+		this.copy.addAll(this.setB);
+		return this.copy;
+	}
+
+	/**
+	 * This method joins both trees
+	 * 
+	 * @return The union
+	 */
+	@Benchmark
+	public AvlTree union() {
+		return AvlSetOperations.union(this.left, this.right, this.pool);
+	}
+
+	/**
+	 * This method keeps the elements of a copy of the first set that are in
+	 * the second one, the baseline
+	 * 
+	 * @return The intersection
+	 */
+	@Benchmark
+	public TreeSet<Integer> treeSetRetainAll() {
+		this.copy.retainAll(this.setB);
+		return this.copy;
+	}
+
+	/**
+	 * This method intersects both trees
+	 * 
+	 * @return The intersection
+	 */
+	@Benchmark
+	public AvlTree intersection() {
+		return AvlSetOperations.intersection(this.left, this.right, this.pool);
+	}
+
+	/**
+	 * This method removes the second set from a copy of the first one, the
+	 * baseline
+	 * 
+	 * @return The difference
+	 */
+	@Benchmark
+	public TreeSet<Integer> treeSetRemoveAll() {
+		this.copy.removeAll(this.setB);
+		return this.copy;
+	}
+
+	/**
+	 * This method removes the second tree from the first one
+	 * 
+	 * @return The difference
+	 */
+	@Benchmark
+	public AvlTree difference() {
+		return AvlSetOperations.difference(this.left, this.right, this.pool);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,378 @@
+package com.dkhalife.projects;
+
+import java.util.TreeSet;
+
+/**
+ * This class is a set of integers being benchmarked. Every loop is written out
+ * in each implementation, so the timed calls aren't shared between them
+ * 
+ * @author Dany Khalife
+ */
+abstract class Subject {
+	/**
+	 * This method creates the set an implementation is known by
+	 * 
+	 * @param impl The name of the implementation
+	 * @return An empty set
+	 */
+	static Subject of(String impl) {
+		Subject s;
+
+		switch (impl) {
+		case "TreeSet":
+			s = new TreeSetSubject();
+			break;
+		case "AvlTree":
+			s = new AvlTreeSubject();
+			break;
+		case "AvlSet":
+			s = new AvlSetSubject();
+			break;
+		case "IntAvlTree":
+			s = new IntAvlTreeSubject();
+			break;
+		case "PooledHeap":
+			s = new PooledSubject(false);
+			break;
+		case "PooledDirect":
+			s = new PooledSubject(true);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown implementation: " + impl);
+		}
+
+		s.reset();
+		return s;
+	}
+
+	/**
+	 * This method empties the set
+	 */
+	abstract void reset();
+
+	/**
+	 * This method inserts keys
+	 * 
+	 * @param keys The keys to insert
+	 * @return Anything computed from the work
+	 */
+	abstract long insertAll(int[] keys);
+
+	/**
+	 * This method removes the keys that are there and inserts the others
+	 * 
+	 * @param keys The keys to toggle
+	 * @return Anything computed from the work
+	 */
+	abstract long mixed(int[] keys);
+
+	/**
+	 * This method looks for keys
+	 * 
+	 * @param keys The keys to look for
+	 * @return The number of keys found
+	 */
+	abstract long lookupAll(int[] keys);
+
+	/**
+	 * The baseline
+	 */
+	static final class TreeSetSubject extends Subject {
+		// The set
+		private TreeSet<Integer> set;
+
+		/**
+		 * This method overrides the super method in order to start from an
+		 * empty set
+		 */
+		void reset() {
+			this.set = new TreeSet<Integer>();
+		}
+
+		/**
+		 * This method overrides the super method in order to insert the keys
+		 */
+		long insertAll(int[] keys) {
+			for (int k : keys) {
+				this.set.add(Integer.valueOf(k));
+			}
+
+			return this.set.size();
+		}
+
+		/**
+		 * This method overrides the super method in order to toggle the keys
+		 */
+		long mixed(int[] keys) {
+			for (int k : keys) {
+				Integer e = Integer.valueOf(k);
+
+				if (!this.set.remove(e)) {
+					this.set.add(e);
+				}
+			}
+
+			return this.set.size();
+		}
+
+		/**
+		 * This method overrides the super method in order to look for the keys
+		 */
+		long lookupAll(int[] keys) {
+			long hits = 0;
+
+			for (int k : keys) {
+				if (this.set.contains(Integer.valueOf(k))) {
+					hits++;
+				}
+			}
+
+			return hits;
+		}
+	}
+
+	/**
+	 * The boxed tree
+	 */
+	static final class AvlTreeSubject extends Subject {
+		// The tree
+		private AvlTree tree;
+
+		/**
+		 * This method overrides the super method in order to start from an
+		 * empty set
+		 */
+		void reset() {
+			this.tree = new AvlTree();
+		}
+
+		/**
+		 * This method overrides the super method in order to insert the keys
+		 */
+		long insertAll(int[] keys) {
+			for (int k : keys) {
+				this.tree.insert(Integer.valueOf(k));
+			}
+
+			return this.tree.size();
+		}
+
+		/**
+		 * This method overrides the super method in order to toggle the keys
+		 */
+		long mixed(int[] keys) {
+			for (int k : keys) {
+				Integer e = Integer.valueOf(k);
+
+				if (this.tree.find(e) != null) {
+					this.tree.remove(e);
+				}
+				else {
+					this.tree.insert(e);
+				}
+			}
+
+			return this.tree.size();
+		}
+
+		/**
+		 * This method overrides the super method in order to look for the keys
+		 */
+		long lookupAll(int[] keys) {
+			long hits = 0;
+
+			for (int k : keys) {
+				if (this.tree.find(Integer.valueOf(k)) != null) {
+					hits++;
+				}
+			}
+
+			return hits;
+		}
+	}
+
+	/**
+	 * The generic set, using its Integer fast path
+	 */
+	static final class AvlSetSubject extends Subject {
+		// The set
+		private AvlSet<Integer> set;
+
+		/**
+		 * This method overrides the super method in order to start from an
+		 * empty set
+		 */
+		void reset() {
+			this.set = new AvlSet<Integer>();
+		}
+
+		/**
+		 * This method overrides the super method in order to insert the keys
+		 */
+		long insertAll(int[] keys) {
+			for (int k : keys) {
+				this.set.add(Integer.valueOf(k));
+			}
+
+			return this.set.size();
+		}
+
+		/**
+		 * This method overrides the super method in order to toggle the keys
+		 */
+		long mixed(int[] keys) {
+			for (int k : keys) {
+				Integer e = Integer.valueOf(k);
+
+				if (!this.set.remove(e)) {
+					this.set.add(e);
+				}
+			}
+
+			return this.set.size();
+		}
+
+		/**
+		 * This method overrides the super method in order to look for the keys
+		 */
+		long lookupAll(int[] keys) {
+			long hits = 0;
+
+			for (int k : keys) {
+				if (this.set.contains(Integer.valueOf(k))) {
+					hits++;
+				}
+			}
+
+			return hits;
+		}
+	}
+
+	/**
+	 * The unboxed tree
+	 */
+	static final class IntAvlTreeSubject extends Subject {
+		// The tree
+		private IntAvlTree tree;
+
+		/**
+		 * This method overrides the super method in order to start from an
+		 * empty set
+		 */
+		void reset() {
+			this.tree = new IntAvlTree();
+		}
+
+		/**
+		 * This method overrides the super method in order to insert the keys
+		 */
+		long insertAll(int[] keys) {
+			for (int k : keys) {
+				this.tree.insert(k);
+			}
+
+			return keys.length;
+		}
+
+		/**
+		 * This method overrides the super method in order to toggle the keys
+		 */
+		long mixed(int[] keys) {
+			for (int k : keys) {
+				if (this.tree.find(k) != null) {
+					this.tree.remove(k);
+				}
+				else {
+					this.tree.insert(k);
+				}
+			}
+
+			return keys.length;
+		}
+
+		/**
+		 * This method overrides the super method in order to look for the keys
+		 */
+		long lookupAll(int[] keys) {
+			long hits = 0;
+
+			for (int k : keys) {
+				if (this.tree.find(k) != null) {
+					hits++;
+				}
+			}
+
+			return hits;
+		}
+	}
+
+	/**
+	 * The pooled tree, on the heap or off it
+	 */
+	static final class PooledSubject extends Subject {
+		// Are the nodes stored off the heap?
+		private final boolean direct;
+
+		// The tree
+		private PooledAvlTree tree;
+
+		/**
+		 * A subject is created by specifying where to store the nodes
+		 * 
+		 * @param direct Should the nodes be stored off the heap?
+		 */
+		PooledSubject(boolean direct) {
+			this.direct = direct;
+		}
+
+		/**
+		 * This method overrides the super method in order to start from an
+		 * empty set
+		 */
+		void reset() {
+			this.tree = new PooledAvlTree(this.direct ? new DirectNodePool() : new HeapNodePool());
+		}
+
+		/**
+		 * This method overrides the super method in order to insert the keys
+		 */
+		long insertAll(int[] keys) {
+			for (int k : keys) {
+				this.tree.insert(k);
+			}
+
+			return this.tree.size();
+		}
+
+		/**
+		 * This method overrides the super method in order to toggle the keys
+		 */
+		long mixed(int[] keys) {
+			for (int k : keys) {
+				if (this.tree.contains(k)) {
+					this.tree.remove(k);
+				}
+				else {
+					this.tree.insert(k);
+				}
+			}
+
+			return this.tree.size();
+		}
+
+		/**
+		 * This method overrides the super method in order to look for the keys
+		 */
+		long lookupAll(int[] keys) {
+			long hits = 0;
+
+			for (int k : keys) {
+				if (this.tree.contains(k)) {
+					hits++;
+				}
+			}
+
+			return hits;
+		}
+	}
+}
\ No newline at end of file
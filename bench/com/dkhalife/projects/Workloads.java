@@ -0,0 +1,94 @@
+package com.dkhalife.projects;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * This class generates the keys of the benchmarks. Every generator is seeded
+ * the same way, so runs can be compared
+ * 
+ * @author Dany Khalife
+ */
+final class Workloads {
+	// The seed of every generated workload
+	static final long SEED = 42;
+
+	/**
+	 * This class only holds static methods
+	 */
+	private Workloads() {
+	}
+
+	/**
+	 * This method makes the keys from 0 up
+	 * 
+	 * @param n The number of keys
+	 * @return The keys in order
+	 */
+	static int[] sequential(int n) {
+		return IntStream.range(0, n).toArray();
+	}
+
+	/**
+	 * This method makes the keys from 0 up in a random order
+	 * 
+	 * @param n The number of keys
+	 * @param rnd The source of randomness
+	 * @return The shuffled keys
+	 */
+	static int[] shuffled(int n, Random rnd) {
+		int[] keys = sequential(n);
+
+		for (int i = keys.length - 1; i > 0; i--) {
+			int j = rnd.nextInt(i + 1);
+
+			int tmp = keys[i];
+			keys[i] = keys[j];
+			keys[j] = tmp;
+		}
+
+		return keys;
+	}
+
+	/**
+	 * This method makes keys that alternate between both ends of the range and
+	 * close in on the middle, every other insertion is a zig zag
+	 * 
+	 * @param n The number of keys
+	 * @return The keys
+	 */
+	static int[] zigZag(int n) {
+		int[] keys = new int[n];
+		int lo = 0;
+		int hi = n - 1;
+
+		for (int i = 0; i < n; i++) {
+			keys[i] = (i % 2 == 0) ? lo++ : hi--;
+		}
+
+		return keys;
+	}
+
+	/**
+	 * This method picks about half of a range of keys, in order
+	 * 
+	 * @param range The number of keys to pick from
+	 * @param rnd The source of randomness
+	 * @return The sorted keys
+	 */
+	static int[] randomSubset(int range, Random rnd) {
+		return IntStream.range(0, range).filter(k -> rnd.nextBoolean()).toArray();
+	}
+
+	/**
+	 * This method picks random keys in a range
+	 * 
+	 * @param n The number of keys
+	 * @param range The number of keys to pick from
+	 * @param rnd The source of randomness
+	 * @return The keys, in no particular order
+	 */
+	static int[] random(int n, int range, Random rnd) {
+		return rnd.ints(n, 0, range).toArray();
+	}
+}
\ No newline at end of file
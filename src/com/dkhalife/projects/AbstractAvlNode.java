@@ -0,0 +1,46 @@
+package com.dkhalife.projects;
+
+/**
+ * This class holds what every linked node of an AVL Tree has, its links and
+ * the height of its subtree, so the trees can share their balancing
+ * 
+ * @author Dany Khalife
+ * 
+ * @param <N> The type of the nodes
+ */
+abstract class AbstractAvlNode<N extends AbstractAvlNode<N>> {
+	// The node on the left of this node
+	N left = null;
+	// The node on the right of this node
+	N right = null;
+	// The parent of this node
+	N parent = null;
+
+	// The height of the subtree rooted at this node, a leaf has a height of 1
+	int height = 1;
+
+	/**
+	 * This method recalculates the cached height of this node from its
+	 * children, which must already be up to date
+	 */
+	final void updateHeight() {
+		this.height = 1 + Math.max(height(this.left), height(this.right));
+	}
+
+	/**
+	 * This method recalculates the cached size of this node from its
+	 * children, only the nodes that keep one do anything
+	 */
+	void updateSize() {
+	}
+
+	/**
+	 * This method determines the height of a possibly empty subtree
+	 * 
+	 * @param n The root of the subtree
+	 * @return The height of the subtree, 0 if it is empty
+	 */
+	static int height(AbstractAvlNode<?> n) {
+		return n == null ? 0 : n.height;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,273 @@
+package com.dkhalife.projects;
+
+/**
+ * This class balances the linked AVL Trees after an insertion or a removal.
+ * The trees hand it their root and get back the root it ends up with, which
+ * changes when a rotation happens at the top.
+ * 
+ * The nodes that cache the size of their subtree have it refreshed up to the
+ * root when asked to, the others stop climbing as soon as a height stays the
+ * same.
+ * 
+ * @author Dany Khalife
+ */
+final class AvlBalancer {
+	/**
+	 * This class only holds static methods
+	 */
+	private AvlBalancer() {
+	}
+
+	/**
+	 * This method balances the tree in order to respect the AVL propperties,
+	 * climbing from the deepest node whose subtree changed
+	 * 
+	 * @param root The root of the tree
+	 * @param p The node for which to consider balancing, can be null
+	 * @param sized Do the nodes cache the size of their subtree?
+	 * @param metrics Where to count the rotations and the climb, can be null
+	 * @return The root of the tree
+	 */
+	static <N extends AbstractAvlNode<N>> N balance(N root, N p, boolean sized, AvlTreeMetrics metrics) {
+		// The number of nodes we climb through
+		int length = 0;
+
+		while (p != null) {
+			length++;
+
+			// Remember the height this subtree had before the update
+			int oldHeight = p.height;
+
+			// Refresh it now that the children are up to date
+			p.updateHeight();
+			if (sized) {
+				p.updateSize();
+			}
+
+			// The height difference
+			int heightDiff = AbstractAvlNode.height(p.left) - AbstractAvlNode.height(p.right);
+
+			// Do we have a lean towords the right?
+			if (heightDiff == -2) {
+				// Is it a zig zag?
+				boolean zigZag = AbstractAvlNode.height(p.right.left) > AbstractAvlNode.height(p.right.right);
+				if (zigZag) {
+					root = rotateRight(root, p.right, sized);
+				}
+
+				root = rotateLeft(root, p, sized);
+
+				if (metrics != null) {
+					metrics.rotated(zigZag);
+				}
+
+				// The subtree is now rooted at the former child
+				p = p.parent;
+			}
+			// Do we have a lean towards the left?
+			else if (heightDiff == 2) {
+				// Is it a zig zag?
+				boolean zigZag = AbstractAvlNode.height(p.left.right) > AbstractAvlNode.height(p.left.left);
+				if (zigZag) {
+					root = rotateLeft(root, p.left, sized);
+				}
+
+				root = rotateRight(root, p, sized);
+
+				if (metrics != null) {
+					metrics.rotated(zigZag);
+				}
+
+				// The subtree is now rooted at the former child
+				p = p.parent;
+			}
+
+			// If the height didn't change, the ancestors are balanced
+			if (p.height == oldHeight) {
+				break;
+			}
+
+			// Lets bubble up
+			p = p.parent;
+		}
+
+		if ((metrics != null) && (length > 0)) {
+			metrics.rebalanced(length);
+		}
+
+		// The ancestors left only need their size refreshed
+		if (sized && (p != null)) {
+			for (p = p.parent; p != null; p = p.parent) {
+				p.updateSize();
+			}
+		}
+
+		return root;
+	}
+
+	/**
+	 * This method removes a node from the tree then balances it
+	 * 
+	 * @param root The root of the tree
+	 * @param n The node to remove
+	 * @param sized Do the nodes cache the size of their subtree?
+	 * @param metrics Where to count the rotations and the climb, can be null
+	 * @return The root of the tree, null if it is now empty
+	 */
+	static <N extends AbstractAvlNode<N>> N remove(N root, N n, boolean sized, AvlTreeMetrics metrics) {
+		// Great lets get the parent
+		N parent = n.parent;
+
+		// Is this a leaf or a half leaf?
+		if ((n.left == null) || (n.right == null)) {
+			// The child taking its place, if any
+			N child = (n.left != null) ? n.left : n.right;
+
+			root = replace(root, n, child);
+
+			if (child != null) {
+				child.parent = parent;
+			}
+
+			// Now we need to rebalance the tree
+			return balance(root, parent, sized, metrics);
+		}
+
+		// Lets get the maximum on the left
+		N m = n.left;
+		while (m.right != null) {
+			m = m.right;
+		}
+
+		// The deepest node whose subtree changes
+		N start = m;
+
+		// Adjust its links
+		if (m.parent != n) {
+			start = m.parent;
+
+			// Its left subtree moves up
+			m.parent.right = m.left;
+			if (m.left != null) {
+				m.left.parent = m.parent;
+			}
+
+			// Then it takes over the other side
+			m.left = n.left;
+			n.left.parent = m;
+		}
+
+		root = replace(root, n, m);
+
+		// Adjust the outgoing link
+		m.right = n.right;
+		n.right.parent = m;
+		m.parent = parent;
+
+		// It stands where the removed node stood
+		m.height = n.height;
+
+		// Now we need to rebalance from where the tree changed
+		return balance(root, start, sized, metrics);
+	}
+
+	/**
+	 * This method rotates the tree to the left on the given node
+	 * 
+	 * @param root The root of the tree
+	 * @param top The node on which to perform the rotation
+	 * @param sized Do the nodes cache the size of their subtree?
+	 * @return The root of the tree
+	 */
+	private static <N extends AbstractAvlNode<N>> N rotateLeft(N root, N top, boolean sized) {
+		N r = top.right;
+
+		// Adjust the links
+		root = replace(root, top, r);
+		r.parent = top.parent;
+
+		// The inner subtree changes hands
+		top.right = r.left;
+		if (r.left != null) {
+			r.left.parent = top;
+		}
+
+		r.left = top;
+		top.parent = r;
+
+		// Only the two rotated nodes changed, bottom up
+		update(top, sized);
+		update(r, sized);
+
+		return root;
+	}
+
+	/**
+	 * This method rotates the tree to the right on the given node
+	 * 
+	 * @param root The root of the tree
+	 * @param top The node on which to perform the rotation
+	 * @param sized Do the nodes cache the size of their subtree?
+	 * @return The root of the tree
+	 */
+	private static <N extends AbstractAvlNode<N>> N rotateRight(N root, N top, boolean sized) {
+		N l = top.left;
+
+		// Adjust the links
+		root = replace(root, top, l);
+		l.parent = top.parent;
+
+		// The inner subtree changes hands
+		top.left = l.right;
+		if (l.right != null) {
+			l.right.parent = top;
+		}
+
+		l.right = top;
+		top.parent = l;
+
+		// Only the two rotated nodes changed, bottom up
+		update(top, sized);
+		update(l, sized);
+
+		return root;
+	}
+
+	/**
+	 * This method replaces a node by another in its parent
+	 * 
+	 * @param root The root of the tree
+	 * @param n The node to replace
+	 * @param by The node taking its place, can be null
+	 * @return The root of the tree
+	 */
+	private static <N extends AbstractAvlNode<N>> N replace(N root, N n, N by) {
+		// Did we affect the root?
+		if (n.parent == null) {
+			return by;
+		}
+
+		if (n.parent.left == n) {
+			n.parent.left = by;
+		}
+		else {
+			n.parent.right = by;
+		}
+
+		return root;
+	}
+
+	/**
+	 * This method refreshes what a node caches about its subtree
+	 * 
+	 * @param n The node
+	 * @param sized Does it cache its size?
+	 */
+	private static void update(AbstractAvlNode<?> n, boolean sized) {
+		n.updateHeight();
+
+		if (sized) {
+			n.updateSize();
+		}
+	}
+}
\ No newline at end of file
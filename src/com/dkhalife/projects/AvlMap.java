@@ -0,0 +1,1359 @@
+package com.dkhalife.projects;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * This class represents an AVL Tree mapping sorted keys to values. Keys are
+ * sorted by the given comparator or by their natural order.
+ * 
+ * When Integer or Long keys are sorted by their natural order, they are
+ * compared as primitives instead of going through compareTo.
+ * 
+ * @author Dany Khalife
+ * 
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+public class AvlMap<K, V> extends AbstractMap<K, V> {
+	// The keys are compared with the comparator
+	private static final int COMPARATOR = 0;
+	// The keys are compared with compareTo
+	private static final int COMPARABLE = 1;
+	// The keys are Integers compared as ints
+	private static final int INTEGER = 2;
+	// The keys are Longs compared as longs
+	private static final int LONG = 3;
+
+	// The root of the tree
+	private Entry<K, V> root = null;
+
+	// The number of entries
+	private int size = 0;
+
+	// The number of structural changes, so iterators can notice them
+	private int modCount = 0;
+
+	// The comparator, null for the natural order
+	private final Comparator<? super K> comparator;
+
+	// How the keys are compared, decided by the first key of a natural order
+	private int kind;
+
+	// The view over the keys
+	private KeySet<K> keySet = null;
+
+	/**
+	 * A map can be created with keys in their natural order
+	 */
+	public AvlMap() {
+		this(null);
+	}
+
+	/**
+	 * A map can be created by specifying how to sort the keys
+	 * 
+	 * @param comparator The comparator for the keys, null for their natural
+	 *        order
+	 */
+	public AvlMap(Comparator<? super K> comparator) {
+		this.comparator = comparator;
+		this.kind = (comparator != null) ? COMPARATOR : COMPARABLE;
+	}
+
+	/**
+	 * Getter for the comparator
+	 * 
+	 * @return The comparator for the keys, null for their natural order
+	 */
+	public Comparator<? super K> comparator() {
+		return this.comparator;
+	}
+
+	/**
+	 * This method overrides the super method with the tracked size
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * This method overrides the super method in order to search the tree
+	 */
+	public boolean containsKey(Object key) {
+		return getEntry(key) != null;
+	}
+
+	/**
+	 * This method overrides the super method in order to search the tree
+	 */
+	public V get(Object key) {
+		Entry<K, V> e = getEntry(key);
+
+		return (e == null) ? null : e.value;
+	}
+
+	/**
+	 * This method overrides the super method in order to insert the entry
+	 * into the tree
+	 */
+	public V put(K key, V value) {
+		// If we don't have a root, we'll make one
+		if (this.root == null) {
+			// Lets see how to compare the keys
+			if (this.comparator == null) {
+				this.kind = (key.getClass() == Integer.class) ? INTEGER : (key.getClass() == Long.class) ? LONG : COMPARABLE;
+			}
+
+			// This makes sure the key can be compared at all
+			compare(key, key);
+
+			this.root = new Entry<K, V>(key, value, null);
+			this.size++;
+			this.modCount++;
+			return null;
+		}
+
+		// Otherwise we'll walk down to the leaf where it belongs
+		Entry<K, V> n = this.root;
+
+		while (true) {
+			int c = compare(key, n.key);
+
+			// Should we go left
+			if (c < 0) {
+				// Is this a leaf?
+				if (n.left == null) {
+					n.left = new Entry<K, V>(key, value, n);
+					break;
+				}
+
+				n = n.left;
+			}
+			// Or right?
+			else if (c > 0) {
+				// Is this a leaf?
+				if (n.right == null) {
+					n.right = new Entry<K, V>(key, value, n);
+					break;
+				}
+
+				n = n.right;
+			}
+			// Or is it already there?
+			else {
+				return n.setValue(value);
+			}
+		}
+
+		this.size++;
+		this.modCount++;
+
+		this.root = AvlBalancer.balance(this.root, n, false, null);
+		return null;
+	}
+
+	/**
+	 * This method overrides the super method in order to remove the entry
+	 * from the tree
+	 */
+	public V remove(Object key) {
+		Entry<K, V> e = getEntry(key);
+
+		// Is there anything to remove?
+		if (e == null) {
+			return null;
+		}
+
+		V old = e.value;
+		deleteEntry(e);
+
+		return old;
+	}
+
+	/**
+	 * This method overrides the super method in order to drop the whole tree
+	 */
+	public void clear() {
+		this.root = null;
+		this.size = 0;
+		this.modCount++;
+	}
+
+	/**
+	 * This method finds the smallest key
+	 * 
+	 * @return The smallest key
+	 */
+	public K firstKey() {
+		return key(firstEntry());
+	}
+
+	/**
+	 * This method finds the largest key
+	 * 
+	 * @return The largest key
+	 */
+	public K lastKey() {
+		return key(lastEntry());
+	}
+
+	/**
+	 * This method finds the largest key smaller than or equal to the given
+	 * key
+	 * 
+	 * @param key The key to compare to
+	 * @return The floor key, null if there is none
+	 */
+	public K floorKey(K key) {
+		Entry<K, V> e = floorEntry(key);
+
+		return (e == null) ? null : e.key;
+	}
+
+	/**
+	 * This method finds the smallest key larger than or equal to the given
+	 * key
+	 * 
+	 * @param key The key to compare to
+	 * @return The ceiling key, null if there is none
+	 */
+	public K ceilingKey(K key) {
+		Entry<K, V> e = ceilingEntry(key);
+
+		return (e == null) ? null : e.key;
+	}
+
+	/**
+	 * This method finds the entry with the smallest key
+	 * 
+	 * @return The first entry, null if the map is empty
+	 */
+	public Map.Entry<K, V> firstEntry() {
+		return findMin(this.root);
+	}
+
+	/**
+	 * This method finds the entry with the largest key
+	 * 
+	 * @return The last entry, null if the map is empty
+	 */
+	public Map.Entry<K, V> lastEntry() {
+		return findMax(this.root);
+	}
+
+	/**
+	 * This method finds the entry with the largest key smaller than or equal
+	 * to the given key
+	 * 
+	 * @param key The key to compare to
+	 * @return The floor entry, null if there is none
+	 */
+	public Map.Entry<K, V> floor(K key) {
+		return floorEntry(key);
+	}
+
+	/**
+	 * This method finds the entry with the smallest key larger than or equal
+	 * to the given key
+	 * 
+	 * @param key The key to compare to
+	 * @return The ceiling entry, null if there is none
+	 */
+	public Map.Entry<K, V> ceiling(K key) {
+		return ceilingEntry(key);
+	}
+
+	/**
+	 * This method overrides the super method with a sorted view over the keys
+	 */
+	public Set<K> keySet() {
+		return navigableKeySet();
+	}
+
+	/**
+	 * This method returns a view over the keys, in order. Removing a key from
+	 * the view removes it from the map
+	 * 
+	 * @return The sorted keys
+	 */
+	public NavigableSet<K> navigableKeySet() {
+		// Do we have a view yet?
+		if (this.keySet == null) {
+			this.keySet = new KeySet<K>(this, null, true, null, true, true, null, true, false);
+		}
+
+		return this.keySet;
+	}
+
+	/**
+	 * This method returns a view over the keys, in order, through which keys
+	 * can also be added. The views over its ranges only take the keys within
+	 * their range
+	 * 
+	 * @param value The value every added key maps to, it can't be null
+	 * @return The sorted keys
+	 */
+	NavigableSet<K> navigableKeySet(V value) {
+		return new KeySet<K>(this, value, true, null, true, true, null, true, false);
+	}
+
+	/**
+	 * This method overrides the super method with a view over the entries, in
+	 * the order of their keys
+	 */
+	public Set<Map.Entry<K, V>> entrySet() {
+		return new AbstractSet<Map.Entry<K, V>>() {
+			/**
+			 * This method overrides the super method in order to walk through
+			 * the entries in order
+			 */
+			public Iterator<Map.Entry<K, V>> iterator() {
+				return new EntryIterator<Map.Entry<K, V>>(findMin(AvlMap.this.root), false) {
+					Map.Entry<K, V> get(Entry<K, V> e) {
+						return e;
+					}
+				};
+			}
+
+			/**
+			 * This method overrides the super method with the number of
+			 * entries
+			 */
+			public int size() {
+				return AvlMap.this.size;
+			}
+
+			/**
+			 * This method overrides the super method in order to search the
+			 * tree
+			 */
+			public boolean contains(Object o) {
+				// Is it an entry at all?
+				if (!(o instanceof Map.Entry)) {
+					return false;
+				}
+
+				Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+				Entry<K, V> e = getEntry(entry.getKey());
+
+				return (e != null) && eq(e.value, entry.getValue());
+			}
+
+			/**
+			 * This method overrides the super method in order to remove the
+			 * entry from the tree
+			 */
+			public boolean remove(Object o) {
+				// Is it in the map?
+				if (!contains(o)) {
+					return false;
+				}
+
+				deleteEntry(getEntry(((Map.Entry<?, ?>) o).getKey()));
+				return true;
+			}
+
+			/**
+			 * This method overrides the super method in order to drop the
+			 * whole tree
+			 */
+			public void clear() {
+				AvlMap.this.clear();
+			}
+		};
+	}
+
+	/**
+	 * This method compares two keys, primitive keys in their natural order
+	 * are compared directly
+	 * 
+	 * @param a The first key
+	 * @param b The second key
+	 * @return A negative number, zero or a positive number if the first key
+	 *         is smaller, equal or larger
+	 */
+	@SuppressWarnings("unchecked")
+	int compare(Object a, Object b) {
+		switch (this.kind) {
+		case INTEGER:
+			return Integer.compare(((Integer) a).intValue(), ((Integer) b).intValue());
+		case LONG:
+			return Long.compare(((Long) a).longValue(), ((Long) b).longValue());
+		case COMPARABLE:
+			return ((Comparable<Object>) a).compareTo(b);
+		default:
+			return this.comparator.compare((K) a, (K) b);
+		}
+	}
+
+	/**
+	 * This method looks for the entry of a key
+	 * 
+	 * @param key The key to look for
+	 * @return The entry, null if the key isn't in the map
+	 */
+	Entry<K, V> getEntry(Object key) {
+		// Natural orders don't allow null keys
+		if ((key == null) && (this.comparator == null)) {
+			throw new NullPointerException();
+		}
+
+		Entry<K, V> n = this.root;
+
+		while (n != null) {
+			int c = compare(key, n.key);
+
+			// Should we go left
+			if (c < 0) {
+				n = n.left;
+			}
+			// Or right?
+			else if (c > 0) {
+				n = n.right;
+			}
+			else {
+				return n;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * This method finds the entry with the smallest key larger than or equal
+	 * to the given key
+	 * 
+	 * @param key The key to compare to
+	 * @return The entry, null if there is none
+	 */
+	Entry<K, V> ceilingEntry(Object key) {
+		return search(key, true, true);
+	}
+
+	/**
+	 * This method finds the entry with the smallest key larger than the given
+	 * key
+	 * 
+	 * @param key The key to compare to
+	 * @return The entry, null if there is none
+	 */
+	Entry<K, V> higherEntry(Object key) {
+		return search(key, true, false);
+	}
+
+	/**
+	 * This method finds the entry with the largest key smaller than or equal
+	 * to the given key
+	 * 
+	 * @param key The key to compare to
+	 * @return The entry, null if there is none
+	 */
+	Entry<K, V> floorEntry(Object key) {
+		return search(key, false, true);
+	}
+
+	/**
+	 * This method finds the entry with the largest key smaller than the given
+	 * key
+	 * 
+	 * @param key The key to compare to
+	 * @return The entry, null if there is none
+	 */
+	Entry<K, V> lowerEntry(Object key) {
+		return search(key, false, false);
+	}
+
+	/**
+	 * This method finds the closest entry to a key in one direction
+	 * 
+	 * @param key The key to compare to
+	 * @param above Are we looking above the key?
+	 * @param inclusive Does the key itself count?
+	 * @return The entry, null if there is none
+	 */
+	private Entry<K, V> search(Object key, boolean above, boolean inclusive) {
+		Entry<K, V> best = null;
+		Entry<K, V> n = this.root;
+
+		while (n != null) {
+			int c = compare(key, n.key);
+
+			// Is this the key itself?
+			if ((c == 0) && inclusive) {
+				return n;
+			}
+
+			// Is it a candidate?
+			if (above ? (c < 0) : (c > 0)) {
+				best = n;
+				n = above ? n.left : n.right;
+			}
+			else {
+				n = above ? n.right : n.left;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * This method removes an entry from the tree
+	 * 
+	 * @param n The entry to remove
+	 */
+	void deleteEntry(Entry<K, V> n) {
+		this.size--;
+		this.modCount++;
+
+		this.root = AvlBalancer.remove(this.root, n, false, null);
+	}
+
+	/**
+	 * This method finds the minimum of a subtree starting at the given entry
+	 * 
+	 * @param n The entry from which to start the search
+	 * @return The minimum entry
+	 */
+	static <K, V> Entry<K, V> findMin(Entry<K, V> n) {
+		// Did we find anything?
+		if (n == null) {
+			return null;
+		}
+
+		while (n.left != null) {
+			n = n.left;
+		}
+
+		return n;
+	}
+
+	/**
+	 * This method finds the maximum of a subtree starting at the given entry
+	 * 
+	 * @param n The entry from which to start the search
+	 * @return The maximum entry
+	 */
+	static <K, V> Entry<K, V> findMax(Entry<K, V> n) {
+		// Did we find anything?
+		if (n == null) {
+			return null;
+		}
+
+		while (n.right != null) {
+			n = n.right;
+		}
+
+		return n;
+	}
+
+	/**
+	 * This method finds the entry that follows the given entry in order
+	 * 
+	 * @param n The entry from which to start the search
+	 * @return The next entry, null if it is the maximum
+	 */
+	static <K, V> Entry<K, V> successor(Entry<K, V> n) {
+		// Is it in the right subtree?
+		if (n.right != null) {
+			return findMin(n.right);
+		}
+
+		// Otherwise climb until we come from the left
+		while ((n.parent != null) && (n.parent.right == n)) {
+			n = n.parent;
+		}
+
+		return n.parent;
+	}
+
+	/**
+	 * This method finds the entry that precedes the given entry in order
+	 * 
+	 * @param n The entry from which to start the search
+	 * @return The previous entry, null if it is the minimum
+	 */
+	static <K, V> Entry<K, V> predecessor(Entry<K, V> n) {
+		// Is it in the left subtree?
+		if (n.left != null) {
+			return findMax(n.left);
+		}
+
+		// Otherwise climb until we come from the right
+		while ((n.parent != null) && (n.parent.left == n)) {
+			n = n.parent;
+		}
+
+		return n.parent;
+	}
+
+	/**
+	 * This method gets the key of an entry that must exist
+	 * 
+	 * @param e The entry
+	 * @return Its key
+	 */
+	static <K> K key(Map.Entry<K, ?> e) {
+		// Did we find anything?
+		if (e == null) {
+			throw new NoSuchElementException();
+		}
+
+		return e.getKey();
+	}
+
+	/**
+	 * This method compares two values that can be null
+	 * 
+	 * @param a The first value
+	 * @param b The second value
+	 * @return True if they are equal
+	 */
+	static boolean eq(Object a, Object b) {
+		return (a == null) ? (b == null) : a.equals(b);
+	}
+
+	/**
+	 * This class identifies an entry of the map, which is also a node in the
+	 * tree
+	 */
+	static final class Entry<K, V> extends AbstractAvlNode<Entry<K, V>> implements Map.Entry<K, V> {
+		// The key of this entry
+		final K key;
+		// The value of this entry
+		V value;
+
+		/**
+		 * An entry is created as a leaf
+		 * 
+		 * @param key The key of the entry
+		 * @param value The value of the entry
+		 * @param parent The parent of the entry
+		 */
+		Entry(K key, V value, Entry<K, V> parent) {
+			this.key = key;
+			this.value = value;
+			this.parent = parent;
+		}
+
+		/**
+		 * This method overrides the super method with the key of this entry
+		 */
+		public K getKey() {
+			return this.key;
+		}
+
+		/**
+		 * This method overrides the super method with the value of this entry
+		 */
+		public V getValue() {
+			return this.value;
+		}
+
+		/**
+		 * This method overrides the super method in order to replace the value
+		 * of this entry
+		 */
+		public V setValue(V value) {
+			V old = this.value;
+			this.value = value;
+			return old;
+		}
+
+		/**
+		 * This method overrides the super method in order to compare the key
+		 * and the value
+		 */
+		public boolean equals(Object o) {
+			// Is it an entry at all?
+			if (!(o instanceof Map.Entry)) {
+				return false;
+			}
+
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			return eq(this.key, e.getKey()) && eq(this.value, e.getValue());
+		}
+
+		/**
+		 * This method overrides the super method in order to combine the key
+		 * and the value
+		 */
+		public int hashCode() {
+			return ((this.key == null) ? 0 : this.key.hashCode()) ^ ((this.value == null) ? 0 : this.value.hashCode());
+		}
+
+		/**
+		 * This method overrides the super method in order to show the key and
+		 * the value
+		 */
+		public String toString() {
+			return this.key + "=" + this.value;
+		}
+	}
+
+	/**
+	 * This class walks through the entries of the map in either direction,
+	 * optionally stopping at a bound. Removing through it is supported
+	 * 
+	 * @param <T> The type of what is returned for each entry
+	 */
+	abstract class EntryIterator<T> implements Iterator<T> {
+		// The entry to return next
+		private Entry<K, V> next;
+		// The entry returned last
+		private Entry<K, V> last = null;
+
+		// Are we walking from the maximum to the minimum?
+		private final boolean descending;
+
+		// The number of changes we know of
+		private int expectedModCount = AvlMap.this.modCount;
+
+		/**
+		 * An iterator is created by specifying where to start
+		 * 
+		 * @param first The first entry to return
+		 * @param descending Should we walk from the maximum to the minimum?
+		 */
+		EntryIterator(Entry<K, V> first, boolean descending) {
+			this.next = first;
+			this.descending = descending;
+		}
+
+		/**
+		 * This method converts an entry into what the iterator returns
+		 * 
+		 * @param e The entry
+		 * @return What to return for it
+		 */
+		abstract T get(Entry<K, V> e);
+
+		/**
+		 * This method determines if the walk must stop before an entry
+		 * 
+		 * @param e The entry
+		 * @return True if it is beyond the bound
+		 */
+		boolean isPastEnd(Entry<K, V> e) {
+			return false;
+		}
+
+		/**
+		 * This method overrides the super method in order to check for a next
+		 * entry
+		 */
+		public boolean hasNext() {
+			return (this.next != null) && !isPastEnd(this.next);
+		}
+
+		/**
+		 * This method overrides the super method in order to step to the next
+		 * entry
+		 */
+		public T next() {
+			// Are we done?
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			// Did anyone change the map behind our back?
+			if (AvlMap.this.modCount != this.expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			this.last = this.next;
+			this.next = this.descending ? predecessor(this.next) : successor(this.next);
+
+			return get(this.last);
+		}
+
+		/**
+		 * This method overrides the super method in order to remove the last
+		 * entry returned
+		 */
+		public void remove() {
+			// Did we return anything yet?
+			if (this.last == null) {
+				throw new IllegalStateException();
+			}
+
+			// Did anyone change the map behind our back?
+			if (AvlMap.this.modCount != this.expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			// Entries are relinked rather than copied, so the next one stays
+			// valid
+			deleteEntry(this.last);
+			this.last = null;
+			this.expectedModCount = AvlMap.this.modCount;
+		}
+	}
+
+	/**
+	 * This class is a view over the keys of a map within a range, in either
+	 * direction
+	 * 
+	 * @param <E> The type of the keys
+	 */
+	static final class KeySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+		// The map holding the keys
+		private final AvlMap<E, ?> map;
+
+		// The value of the keys added through the view, null if it can't add
+		private final Object value;
+
+		// Is the range open at the bottom?
+		private final boolean fromStart;
+		// The smallest key of the range
+		private final E lo;
+		// Is the smallest key part of the range?
+		private final boolean loInclusive;
+
+		// Is the range open at the top?
+		private final boolean toEnd;
+		// The largest key of the range
+		private final E hi;
+		// Is the largest key part of the range?
+		private final boolean hiInclusive;
+
+		// Are the keys seen from the largest to the smallest?
+		private final boolean descending;
+
+		/**
+		 * A view is created by specifying its map and range
+		 * 
+		 * @param map The map holding the keys
+		 * @param value The value of the keys added through the view, null if
+		 *        it can't add
+		 * @param fromStart Is the range open at the bottom?
+		 * @param lo The smallest key of the range
+		 * @param loInclusive Is the smallest key part of the range?
+		 * @param toEnd Is the range open at the top?
+		 * @param hi The largest key of the range
+		 * @param hiInclusive Is the largest key part of the range?
+		 * @param descending Are the keys seen from the largest to the
+		 *        smallest?
+		 */
+		KeySet(AvlMap<E, ?> map, Object value, boolean fromStart, E lo, boolean loInclusive, boolean toEnd, E hi, boolean hiInclusive, boolean descending) {
+			// Is the range valid at all?
+			if (!fromStart && !toEnd && (map.compare(lo, hi) > 0)) {
+				throw new IllegalArgumentException("The range starts after it ends");
+			}
+
+			this.map = map;
+			this.value = value;
+			this.fromStart = fromStart;
+			this.lo = lo;
+			this.loInclusive = loInclusive;
+			this.toEnd = toEnd;
+			this.hi = hi;
+			this.hiInclusive = hiInclusive;
+			this.descending = descending;
+		}
+
+		/**
+		 * This method overrides the super method with the number of keys in the
+		 * range
+		 */
+		public int size() {
+			// Is it the whole map?
+			if (this.fromStart && this.toEnd) {
+				return this.map.size();
+			}
+
+			int size = 0;
+			for (Iterator<E> it = iterator(); it.hasNext(); it.next()) {
+				size++;
+			}
+
+			return size;
+		}
+
+		/**
+		 * This method overrides the super method in order to search the map
+		 * within the range
+		 */
+		public boolean contains(Object o) {
+			return inRange(o) && this.map.containsKey(o);
+		}
+
+		/**
+		 * This method overrides the super method in order to put the key in the
+		 * map, if the view can add
+		 * 
+		 * @throws UnsupportedOperationException If the view can't add
+		 * @throws IllegalArgumentException If the key is out of the range
+		 */
+		@SuppressWarnings("unchecked")
+		public boolean add(E key) {
+			// Can it add at all?
+			if (this.value == null) {
+				throw new UnsupportedOperationException();
+			}
+
+			// Is it in the view?
+			if (!inRange(key)) {
+				throw new IllegalArgumentException("The key is out of the range of the view: " + key);
+			}
+
+			return ((AvlMap<E, Object>) this.map).put(key, this.value) == null;
+		}
+
+		/**
+		 * This method overrides the super method in order to remove the key
+		 * from the map
+		 */
+		public boolean remove(Object o) {
+			// Is it in the view?
+			if (!inRange(o)) {
+				return false;
+			}
+
+			AvlMap.Entry<E, ?> e = this.map.getEntry(o);
+			if (e == null) {
+				return false;
+			}
+
+			deleteFromMap(e);
+			return true;
+		}
+
+		/**
+		 * This method overrides the super method in order to remove the keys of
+		 * the range from the map
+		 */
+		public void clear() {
+			// Is it the whole map?
+			if (this.fromStart && this.toEnd) {
+				this.map.clear();
+				return;
+			}
+
+			super.clear();
+		}
+
+		/**
+		 * This method overrides the super method in order to walk through the
+		 * keys in order
+		 */
+		public Iterator<E> iterator() {
+			return keyIterator(this.descending);
+		}
+
+		/**
+		 * This method overrides the super method in order to walk through the
+		 * keys in reverse order
+		 */
+		public Iterator<E> descendingIterator() {
+			return keyIterator(!this.descending);
+		}
+
+		/**
+		 * This method overrides the super method with the order of the view
+		 */
+		public Comparator<? super E> comparator() {
+			// Is it seen in the map's order?
+			if (!this.descending) {
+				return this.map.comparator();
+			}
+
+			return (this.map.comparator() == null) ? Collections.<E> reverseOrder() : Collections.reverseOrder(this.map.comparator());
+		}
+
+		/**
+		 * This method overrides the super method with the first key of the view
+		 */
+		public E first() {
+			return key(this.descending ? absHighest() : absLowest());
+		}
+
+		/**
+		 * This method overrides the super method with the last key of the view
+		 */
+		public E last() {
+			return key(this.descending ? absLowest() : absHighest());
+		}
+
+		/**
+		 * This method overrides the super method with the closest key before
+		 * the given key
+		 */
+		public E lower(E e) {
+			return keyOrNull(this.descending ? absHigher(e) : absLower(e));
+		}
+
+		/**
+		 * This method overrides the super method with the closest key at or
+		 * before the given key
+		 */
+		public E floor(E e) {
+			return keyOrNull(this.descending ? absCeiling(e) : absFloor(e));
+		}
+
+		/**
+		 * This method overrides the super method with the closest key at or
+		 * after the given key
+		 */
+		public E ceiling(E e) {
+			return keyOrNull(this.descending ? absFloor(e) : absCeiling(e));
+		}
+
+		/**
+		 * This method overrides the super method with the closest key after the
+		 * given key
+		 */
+		public E higher(E e) {
+			return keyOrNull(this.descending ? absLower(e) : absHigher(e));
+		}
+
+		/**
+		 * This method overrides the super method in order to remove the first
+		 * key of the view
+		 */
+		public E pollFirst() {
+			return poll(this.descending ? absHighest() : absLowest());
+		}
+
+		/**
+		 * This method overrides the super method in order to remove the last
+		 * key of the view
+		 */
+		public E pollLast() {
+			return poll(this.descending ? absLowest() : absHighest());
+		}
+
+		/**
+		 * This method overrides the super method with the same range in reverse
+		 * order
+		 */
+		public NavigableSet<E> descendingSet() {
+			return new KeySet<E>(this.map, this.value, this.fromStart, this.lo, this.loInclusive, this.toEnd, this.hi, this.hiInclusive, !this.descending);
+		}
+
+		/**
+		 * This method overrides the super method with a view over a narrower
+		 * range
+		 */
+		public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+			// Bounds are given in the order of the view
+			if (this.descending) {
+				return range(false, toElement, toInclusive, false, fromElement, fromInclusive);
+			}
+
+			return range(false, fromElement, fromInclusive, false, toElement, toInclusive);
+		}
+
+		/**
+		 * This method overrides the super method with a view over the keys
+		 * before the given key
+		 */
+		public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+			// Bounds are given in the order of the view
+			if (this.descending) {
+				return range(false, toElement, inclusive, true, null, false);
+			}
+
+			return range(true, null, false, false, toElement, inclusive);
+		}
+
+		/**
+		 * This method overrides the super method with a view over the keys
+		 * after the given key
+		 */
+		public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+			// Bounds are given in the order of the view
+			if (this.descending) {
+				return range(true, null, false, false, fromElement, inclusive);
+			}
+
+			return range(false, fromElement, inclusive, true, null, false);
+		}
+
+		/**
+		 * This method overrides the super method with a view over a narrower
+		 * range
+		 */
+		public SortedSet<E> subSet(E fromElement, E toElement) {
+			return subSet(fromElement, true, toElement, false);
+		}
+
+		/**
+		 * This method overrides the super method with a view over the keys
+		 * before the given key
+		 */
+		public SortedSet<E> headSet(E toElement) {
+			return headSet(toElement, false);
+		}
+
+		/**
+		 * This method overrides the super method with a view over the keys
+		 * after the given key
+		 */
+		public SortedSet<E> tailSet(E fromElement) {
+			return tailSet(fromElement, true);
+		}
+
+		/**
+		 * This method creates a view over a narrower range
+		 * 
+		 * @param fromStart Is the range open at the bottom?
+		 * @param lo The smallest key of the range
+		 * @param loInclusive Is the smallest key part of the range?
+		 * @param toEnd Is the range open at the top?
+		 * @param hi The largest key of the range
+		 * @param hiInclusive Is the largest key part of the range?
+		 * @return The new view
+		 */
+		private NavigableSet<E> range(boolean fromStart, E lo, boolean loInclusive, boolean toEnd, E hi, boolean hiInclusive) {
+			// It has to fit in this range
+			if (!fromStart && !inRange(lo, loInclusive)) {
+				throw new IllegalArgumentException("The start of the range is out of bounds");
+			}
+
+			if (!toEnd && !inRange(hi, hiInclusive)) {
+				throw new IllegalArgumentException("The end of the range is out of bounds");
+			}
+
+			// Open ends inherit the bounds of this range
+			if (fromStart) {
+				fromStart = this.fromStart;
+				lo = this.lo;
+				loInclusive = this.loInclusive;
+			}
+
+			if (toEnd) {
+				toEnd = this.toEnd;
+				hi = this.hi;
+				hiInclusive = this.hiInclusive;
+			}
+
+			return new KeySet<E>(this.map, this.value, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, this.descending);
+		}
+
+		/**
+		 * This method walks through the keys of the range
+		 * 
+		 * @param descending Should we walk from the largest to the smallest?
+		 * @return The iterator
+		 */
+		private Iterator<E> keyIterator(final boolean descending) {
+			return this.map.keyIterator(descending ? absHighest() : absLowest(), descending, this);
+		}
+
+		/**
+		 * This method determines if a key is below the range
+		 * 
+		 * @param key The key
+		 * @return True if it is too small
+		 */
+		boolean tooLow(Object key) {
+			// Is the range open at the bottom?
+			if (this.fromStart) {
+				return false;
+			}
+
+			int c = this.map.compare(key, this.lo);
+			return (c < 0) || ((c == 0) && !this.loInclusive);
+		}
+
+		/**
+		 * This method determines if a key is above the range
+		 * 
+		 * @param key The key
+		 * @return True if it is too large
+		 */
+		boolean tooHigh(Object key) {
+			// Is the range open at the top?
+			if (this.toEnd) {
+				return false;
+			}
+
+			int c = this.map.compare(key, this.hi);
+			return (c > 0) || ((c == 0) && !this.hiInclusive);
+		}
+
+		/**
+		 * This method determines if a key is within the range
+		 * 
+		 * @param key The key
+		 * @return True if it is part of the range
+		 */
+		private boolean inRange(Object key) {
+			return !tooLow(key) && !tooHigh(key);
+		}
+
+		/**
+		 * This method determines if a key can bound a narrower range
+		 * 
+		 * @param key The key
+		 * @param inclusive Is the key part of the narrower range?
+		 * @return True if it is allowed
+		 */
+		private boolean inRange(Object key, boolean inclusive) {
+			// An inclusive bound must be in the range
+			if (inclusive) {
+				return inRange(key);
+			}
+
+			// An exclusive bound can be on the bounds themselves
+			return (this.fromStart || (this.map.compare(key, this.lo) >= 0)) && (this.toEnd || (this.map.compare(key, this.hi) <= 0));
+		}
+
+		/**
+		 * This method finds the smallest entry of the range
+		 * 
+		 * @return The entry, null if there is none
+		 */
+		private AvlMap.Entry<E, ?> absLowest() {
+			AvlMap.Entry<E, ?> e = this.fromStart ? AvlMap.findMin(this.map.root) : this.loInclusive ? this.map.ceilingEntry(this.lo) : this.map.higherEntry(this.lo);
+
+			return ((e == null) || tooHigh(e.key)) ? null : e;
+		}
+
+		/**
+		 * This method finds the largest entry of the range
+		 * 
+		 * @return The entry, null if there is none
+		 */
+		private AvlMap.Entry<E, ?> absHighest() {
+			AvlMap.Entry<E, ?> e = this.toEnd ? AvlMap.findMax(this.map.root) : this.hiInclusive ? this.map.floorEntry(this.hi) : this.map.lowerEntry(this.hi);
+
+			return ((e == null) || tooLow(e.key)) ? null : e;
+		}
+
+		/**
+		 * This method finds the smallest entry of the range larger than or
+		 * equal to a key
+		 * 
+		 * @param key The key
+		 * @return The entry, null if there is none
+		 */
+		private AvlMap.Entry<E, ?> absCeiling(E key) {
+			// Is it below the range?
+			if (tooLow(key)) {
+				return absLowest();
+			}
+
+			AvlMap.Entry<E, ?> e = this.map.ceilingEntry(key);
+			return ((e == null) || tooHigh(e.key)) ? null : e;
+		}
+
+		/**
+		 * This method finds the smallest entry of the range larger than a key
+		 * 
+		 * @param key The key
+		 * @return The entry, null if there is none
+		 */
+		private AvlMap.Entry<E, ?> absHigher(E key) {
+			// Is it below the range?
+			if (tooLow(key)) {
+				return absLowest();
+			}
+
+			AvlMap.Entry<E, ?> e = this.map.higherEntry(key);
+			return ((e == null) || tooHigh(e.key)) ? null : e;
+		}
+
+		/**
+		 * This method finds the largest entry of the range smaller than or
+		 * equal to a key
+		 * 
+		 * @param key The key
+		 * @return The entry, null if there is none
+		 */
+		private AvlMap.Entry<E, ?> absFloor(E key) {
+			// Is it above the range?
+			if (tooHigh(key)) {
+				return absHighest();
+			}
+
+			AvlMap.Entry<E, ?> e = this.map.floorEntry(key);
+			return ((e == null) || tooLow(e.key)) ? null : e;
+		}
+
+		/**
+		 * This method finds the largest entry of the range smaller than a key
+		 * 
+		 * @param key The key
+		 * @return The entry, null if there is none
+		 */
+		private AvlMap.Entry<E, ?> absLower(E key) {
+			// Is it above the range?
+			if (tooHigh(key)) {
+				return absHighest();
+			}
+
+			AvlMap.Entry<E, ?> e = this.map.lowerEntry(key);
+			return ((e == null) || tooLow(e.key)) ? null : e;
+		}
+
+		/**
+		 * This method removes an entry and returns its key
+		 * 
+		 * @param e The entry, can be null
+		 * @return Its key, null if there is none
+		 */
+		private E poll(AvlMap.Entry<E, ?> e) {
+			// Is there anything to remove?
+			if (e == null) {
+				return null;
+			}
+
+			deleteFromMap(e);
+			return e.key;
+		}
+
+		/**
+		 * This method removes an entry from the map of this view
+		 * 
+		 * @param e The entry to remove
+		 */
+		@SuppressWarnings("unchecked")
+		private void deleteFromMap(AvlMap.Entry<E, ?> e) {
+			((AvlMap<E, Object>) this.map).deleteEntry((AvlMap.Entry<E, Object>) e);
+		}
+
+		/**
+		 * This method gets the key of an entry that can be missing
+		 * 
+		 * @param e The entry
+		 * @return Its key, null if there is none
+		 */
+		private static <E> E keyOrNull(AvlMap.Entry<E, ?> e) {
+			return (e == null) ? null : e.key;
+		}
+	}
+
+	/**
+	 * This method walks through the keys of a view
+	 * 
+	 * @param first The first entry to return
+	 * @param descending Should we walk from the largest to the smallest?
+	 * @param view The view bounding the walk
+	 * @return The iterator
+	 */
+	Iterator<K> keyIterator(Entry<K, ?> first, final boolean descending, final KeySet<K> view) {
+		@SuppressWarnings("unchecked")
+		Entry<K, V> start = (Entry<K, V>) first;
+
+		return new EntryIterator<K>(start, descending) {
+			K get(Entry<K, V> e) {
+				return e.key;
+			}
+
+			boolean isPastEnd(Entry<K, V> e) {
+				return descending ? view.tooLow(e.key) : view.tooHigh(e.key);
+			}
+		};
+	}
+}
\ No newline at end of file
@@ -5,17 +5,13 @@ package com.dkhalife.projects;
  * 
  * @author Dany Khalife
  */
-public class AvlNode {
-	// The node on the left of this node
-	private AvlNode left = null;
-	// The node on the right of this node
-	private AvlNode right = null;
-	// The parent of this node
-	private AvlNode parent = null;
-
+public class AvlNode extends AbstractAvlNode<AvlNode> {
 	// The value this node holds
 	private Integer elem;
 
+	// The number of nodes in the subtree rooted at this node
+	private int size = 1;
+
 	/**
 	 * An AVLNode can be created by specifying the integer it holds
 	 * 
@@ -98,27 +94,12 @@ public class AvlNode {
 	}
 
 	/**
-	 * This method determines the height of this node
+	 * Getter for the height of this node
 	 * 
 	 * @return The height for this node
 	 */
-	public Integer height() {
-		// Initialise both sides to 0
-		int left = 0;
-		int right = 0;
-
-		// Recurse to the left leafs
-		if (getLeft() != null) {
-			left = getLeft().height().intValue();
-		}
-
-		// Recurse to the right leafs
-		if (getRight() != null) {
-			right = getRight().height().intValue();
-		}
-
-		// Add this node to the total height
-		return Integer.valueOf(1 + Math.max(left, right));
+	public int height() {
+		return this.height;
 	}
 
 	/**
@@ -127,19 +108,52 @@ public class AvlNode {
 	 * @return The height difference between the left and right subtrees
 	 */
 	public int getHeightDiff() {
-		// Start at 0
-		int d = 0;
+		return height(getLeft()) - height(getRight());
+	}
 
-		// Recurse to the left
-		if (getLeft() != null) {
-			d = getLeft().height().intValue();
-		}
+	/**
+	 * Getter for the number of nodes in the subtree rooted at this node
+	 * 
+	 * @return The size of the subtree
+	 */
+	public int size() {
+		return this.size;
+	}
 
-		// Recurse to the right
-		if (getRight() != null) {
-			d -= getRight().height().intValue();
-		}
+	/**
+	 * This method recalculates the cached height and size of this node from
+	 * its children, which must already be up to date
+	 */
+	void update() {
+		updateHeight();
+		updateSize();
+	}
 
-		return d;
+	/**
+	 * This method overrides the super method in order to recalculate the
+	 * cached size of this node from its children, for when its height can't
+	 * have changed
+	 */
+	void updateSize() {
+		this.size = 1 + size(getLeft()) + size(getRight());
+	}
+
+	/**
+	 * Setter for the cached height of this node
+	 * 
+	 * @param height The new height of this node
+	 */
+	void setHeight(int height) {
+		this.height = height;
+	}
+
+	/**
+	 * This method determines the size of a possibly empty subtree
+	 * 
+	 * @param n The root of the subtree
+	 * @return The number of nodes in the subtree, 0 if it is empty
+	 */
+	static int size(AvlNode n) {
+		return n == null ? 0 : n.size;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,178 @@
+package com.dkhalife.projects;
+
+/**
+ * This class represents the storage for the nodes of a {@link PooledAvlTree}.
+ * Nodes are identified by an int index instead of a reference, and slots that
+ * are freed are recycled through a free list
+ * 
+ * @author Dany Khalife
+ */
+public abstract class AvlNodePool {
+	// The index used for a missing node
+	public static final int NIL = -1;
+
+	// The number of bits used to index a node within a chunk
+	protected static final int CHUNK_BITS = 12;
+	// The number of nodes in a chunk
+	protected static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	// The mask to get the position of a node within its chunk
+	protected static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	// The first slot of the free list
+	private int free = NIL;
+	// The number of slots handed out so far, freed or not
+	private int used = 0;
+	// The number of slots currently holding a node
+	private int size = 0;
+
+	/**
+	 * This method allocates a leaf holding the given key
+	 * 
+	 * @param key The key to store in the node
+	 * @return The index of the new node
+	 */
+	public int allocate(int key) {
+		int n;
+
+		// Can we recycle a slot?
+		if (this.free != NIL) {
+			n = this.free;
+			this.free = getLeft(n);
+		}
+		else {
+			// Do we need another chunk?
+			if ((this.used & CHUNK_MASK) == 0) {
+				grow(this.used >>> CHUNK_BITS);
+			}
+
+			n = this.used++;
+		}
+
+		setKey(n, key);
+		setLeft(n, NIL);
+		setRight(n, NIL);
+		setHeight(n, 1);
+
+		this.size++;
+		return n;
+	}
+
+	/**
+	 * This method releases a node so that its slot can be reused
+	 * 
+	 * @param n The index of the node to release
+	 */
+	public void free(int n) {
+		// Chain it through its left link
+		setLeft(n, this.free);
+		this.free = n;
+
+		this.size--;
+	}
+
+	/**
+	 * Getter for the number of nodes held by the pool
+	 * 
+	 * @return The number of live nodes
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * This method determines the number of slots reserved by the pool
+	 * 
+	 * @return The capacity of the pool in nodes
+	 */
+	public int capacity() {
+		return ((this.used + CHUNK_MASK) >>> CHUNK_BITS) << CHUNK_BITS;
+	}
+
+	/**
+	 * This method determines the height of a possibly missing node
+	 * 
+	 * @param n The index of the node
+	 * @return The height of the subtree, 0 if it is empty
+	 */
+	public int height(int n) {
+		return n == NIL ? 0 : getHeight(n);
+	}
+
+	/**
+	 * This method reports the memory used to store a single node
+	 * 
+	 * @return The number of bytes per node
+	 */
+	public abstract int bytesPerNode();
+
+	/**
+	 * This method adds storage for another chunk of nodes
+	 * 
+	 * @param chunk The index of the chunk to create
+	 */
+	protected abstract void grow(int chunk);
+
+	/**
+	 * Getter for the key of a node
+	 * 
+	 * @param n The index of the node
+	 * @return The key it holds
+	 */
+	public abstract int getKey(int n);
+
+	/**
+	 * Setter for the key of a node
+	 * 
+	 * @param n The index of the node
+	 * @param key The new key
+	 */
+	public abstract void setKey(int n, int key);
+
+	/**
+	 * Getter for the left child of a node
+	 * 
+	 * @param n The index of the node
+	 * @return The index of its left child
+	 */
+	public abstract int getLeft(int n);
+
+	/**
+	 * Setter for the left child of a node
+	 * 
+	 * @param n The index of the node
+	 * @param left The index of the new left child
+	 */
+	public abstract void setLeft(int n, int left);
+
+	/**
+	 * Getter for the right child of a node
+	 * 
+	 * @param n The index of the node
+	 * @return The index of its right child
+	 */
+	public abstract int getRight(int n);
+
+	/**
+	 * Setter for the right child of a node
+	 * 
+	 * @param n The index of the node
+	 * @param right The index of the new right child
+	 */
+	public abstract void setRight(int n, int right);
+
+	/**
+	 * Getter for the height of a node
+	 * 
+	 * @param n The index of the node
+	 * @return The height of its subtree
+	 */
+	public abstract int getHeight(int n);
+
+	/**
+	 * Setter for the height of a node
+	 * 
+	 * @param n The index of the node
+	 * @param height The new height of its subtree
+	 */
+	public abstract void setHeight(int n, int height);
+}
\ No newline at end of file
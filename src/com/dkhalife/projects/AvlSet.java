@@ -0,0 +1,220 @@
+package com.dkhalife.projects;
+
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+
+/**
+ * This class represents an AVL Tree of sorted keys. It is backed by an
+ * {@link AvlMap} whose values are ignored.
+ * 
+ * @author Dany Khalife
+ * 
+ * @param <K> The type of the keys
+ */
+public class AvlSet<K> extends AbstractSet<K> implements NavigableSet<K> {
+	// The value stored for every key
+	private static final Object PRESENT = new Object();
+
+	// The map holding the keys
+	private final AvlMap<K, Object> map;
+
+	// The view over the keys of the map, its views over ranges add to the
+	// map too
+	private final NavigableSet<K> keys;
+
+	/**
+	 * A set can be created with keys in their natural order
+	 */
+	public AvlSet() {
+		this(null);
+	}
+
+	/**
+	 * A set can be created by specifying how to sort the keys
+	 * 
+	 * @param comparator The comparator for the keys, null for their natural
+	 *        order
+	 */
+	public AvlSet(Comparator<? super K> comparator) {
+		this.map = new AvlMap<K, Object>(comparator);
+		this.keys = this.map.navigableKeySet(PRESENT);
+	}
+
+	/**
+	 * This method overrides the super method in order to insert the key into
+	 * the tree
+	 */
+	public boolean add(K key) {
+		return this.map.put(key, PRESENT) == null;
+	}
+
+	/**
+	 * This method overrides the super method in order to remove the key from
+	 * the tree
+	 */
+	public boolean remove(Object key) {
+		return this.map.remove(key) != null;
+	}
+
+	/**
+	 * This method overrides the super method in order to search the tree
+	 */
+	public boolean contains(Object key) {
+		return this.map.containsKey(key);
+	}
+
+	/**
+	 * This method overrides the super method with the tracked size
+	 */
+	public int size() {
+		return this.map.size();
+	}
+
+	/**
+	 * This method overrides the super method in order to drop the whole tree
+	 */
+	public void clear() {
+		this.map.clear();
+	}
+
+	/**
+	 * This method overrides the super method in order to walk through the
+	 * keys in order
+	 */
+	public Iterator<K> iterator() {
+		return this.keys.iterator();
+	}
+
+	/**
+	 * This method overrides the super method in order to walk through the
+	 * keys in reverse order
+	 */
+	public Iterator<K> descendingIterator() {
+		return this.keys.descendingIterator();
+	}
+
+	/**
+	 * This method overrides the super method with the order of the keys
+	 */
+	public Comparator<? super K> comparator() {
+		return this.map.comparator();
+	}
+
+	/**
+	 * This method overrides the super method with the smallest key
+	 */
+	public K first() {
+		return this.map.firstKey();
+	}
+
+	/**
+	 * This method overrides the super method with the largest key
+	 */
+	public K last() {
+		return this.map.lastKey();
+	}
+
+	/**
+	 * This method overrides the super method with the closest key before the
+	 * given key
+	 */
+	public K lower(K key) {
+		return this.keys.lower(key);
+	}
+
+	/**
+	 * This method overrides the super method with the closest key at or
+	 * before the given key
+	 */
+	public K floor(K key) {
+		return this.map.floorKey(key);
+	}
+
+	/**
+	 * This method overrides the super method with the closest key at or after
+	 * the given key
+	 */
+	public K ceiling(K key) {
+		return this.map.ceilingKey(key);
+	}
+
+	/**
+	 * This method overrides the super method with the closest key after the
+	 * given key
+	 */
+	public K higher(K key) {
+		return this.keys.higher(key);
+	}
+
+	/**
+	 * This method overrides the super method in order to remove the smallest
+	 * key
+	 */
+	public K pollFirst() {
+		return this.keys.pollFirst();
+	}
+
+	/**
+	 * This method overrides the super method in order to remove the largest
+	 * key
+	 */
+	public K pollLast() {
+		return this.keys.pollLast();
+	}
+
+	/**
+	 * This method overrides the super method with the keys in reverse order
+	 */
+	public NavigableSet<K> descendingSet() {
+		return this.keys.descendingSet();
+	}
+
+	/**
+	 * This method overrides the super method with a view over a range of keys
+	 */
+	public NavigableSet<K> subSet(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+		return this.keys.subSet(fromKey, fromInclusive, toKey, toInclusive);
+	}
+
+	/**
+	 * This method overrides the super method with a view over the keys before
+	 * the given key
+	 */
+	public NavigableSet<K> headSet(K toKey, boolean inclusive) {
+		return this.keys.headSet(toKey, inclusive);
+	}
+
+	/**
+	 * This method overrides the super method with a view over the keys after
+	 * the given key
+	 */
+	public NavigableSet<K> tailSet(K fromKey, boolean inclusive) {
+		return this.keys.tailSet(fromKey, inclusive);
+	}
+
+	/**
+	 * This method overrides the super method with a view over a range of keys
+	 */
+	public SortedSet<K> subSet(K fromKey, K toKey) {
+		return subSet(fromKey, true, toKey, false);
+	}
+
+	/**
+	 * This method overrides the super method with a view over the keys before
+	 * the given key
+	 */
+	public SortedSet<K> headSet(K toKey) {
+		return headSet(toKey, false);
+	}
+
+	/**
+	 * This method overrides the super method with a view over the keys after
+	 * the given key
+	 */
+	public SortedSet<K> tailSet(K fromKey) {
+		return tailSet(fromKey, true);
+	}
+}
\ No newline at end of file
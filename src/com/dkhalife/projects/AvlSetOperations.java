@@ -0,0 +1,249 @@
+package com.dkhalife.projects;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class combines whole trees using joins and splits instead of one
+ * insertion per element. Combining a tree of m elements with a tree of n
+ * elements costs O(m log(n/m + 1)), and both halves of a large combination are
+ * computed in parallel.
+ * 
+ * The trees given to an operation are consumed, they are left empty and their
+ * nodes end up in the result.
+ * 
+ * @author Dany Khalife
+ */
+public final class AvlSetOperations {
+	// Subtrees at least this high are combined in parallel, roughly 2^10 nodes
+	private static final int PARALLEL_HEIGHT = 10;
+
+	/**
+	 * This class only holds static methods
+	 */
+	private AvlSetOperations() {
+	}
+
+	/**
+	 * This method computes the elements found in either tree
+	 * 
+	 * @param a The first tree
+	 * @param b The second tree
+	 * @return The union of both trees
+	 */
+	public static AvlTree union(AvlTree a, AvlTree b) {
+		return union(a, b, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * This method computes the elements found in either tree using the given
+	 * pool
+	 * 
+	 * @param a The first tree
+	 * @param b The second tree
+	 * @param pool The pool running the parallel halves
+	 * @return The union of both trees
+	 */
+	public static AvlTree union(AvlTree a, AvlTree b, ForkJoinPool pool) {
+		return combine(Operation.UNION, a, b, pool);
+	}
+
+	/**
+	 * This method computes the elements found in both trees
+	 * 
+	 * @param a The first tree
+	 * @param b The second tree
+	 * @return The intersection of both trees
+	 */
+	public static AvlTree intersection(AvlTree a, AvlTree b) {
+		return intersection(a, b, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * This method computes the elements found in both trees using the given
+	 * pool
+	 * 
+	 * @param a The first tree
+	 * @param b The second tree
+	 * @param pool The pool running the parallel halves
+	 * @return The intersection of both trees
+	 */
+	public static AvlTree intersection(AvlTree a, AvlTree b, ForkJoinPool pool) {
+		return combine(Operation.INTERSECTION, a, b, pool);
+	}
+
+	/**
+	 * This method computes the elements of the first tree that aren't in the
+	 * second one
+	 * 
+	 * @param a The first tree
+	 * @param b The second tree
+	 * @return The difference of both trees
+	 */
+	public static AvlTree difference(AvlTree a, AvlTree b) {
+		return difference(a, b, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * This method computes the elements of the first tree that aren't in the
+	 * second one using the given pool
+	 * 
+	 * @param a The first tree
+	 * @param b The second tree
+	 * @param pool The pool running the parallel halves
+	 * @return The difference of both trees
+	 */
+	public static AvlTree difference(AvlTree a, AvlTree b, ForkJoinPool pool) {
+		return combine(Operation.DIFFERENCE, a, b, pool);
+	}
+
+	/**
+	 * This method combines two trees into a new one
+	 * 
+	 * @param operation The operation to perform
+	 * @param a The first tree
+	 * @param b The second tree
+	 * @param pool The pool running the parallel halves
+	 * @return The resulting tree
+	 */
+	private static AvlTree combine(Operation operation, AvlTree a, AvlTree b, ForkJoinPool pool) {
+		AvlNode root = pool.invoke(new CombineTask(operation, a.getRoot(), b.getRoot()));
+
+		// Both trees gave away their nodes
+		a.setRoot(null);
+		b.setRoot(null);
+
+		AvlTree result = new AvlTree();
+		result.setRoot(root);
+
+		return result;
+	}
+
+	/**
+	 * The operations that can be performed
+	 */
+	private enum Operation {
+		UNION, INTERSECTION, DIFFERENCE
+	}
+
+	/**
+	 * This class combines two subtrees, splitting the work in two halves that
+	 * can run in parallel
+	 */
+	private static class CombineTask extends RecursiveTask<AvlNode> {
+		/**
+		 * Eclipse generated serial UID
+		 */
+		private static final long serialVersionUID = 2967148203846227107L;
+
+		// The operation to perform
+		private final Operation operation;
+
+		// The first subtree
+		private final AvlNode a;
+		// The second subtree
+		private final AvlNode b;
+
+		/**
+		 * A task is created by specifying the operation and both subtrees
+		 * 
+		 * @param operation The operation to perform
+		 * @param a The first subtree
+		 * @param b The second subtree
+		 */
+		CombineTask(Operation operation, AvlNode a, AvlNode b) {
+			this.operation = operation;
+			this.a = a;
+			this.b = b;
+		}
+
+		/**
+		 * This method overrides the super method in order to combine the
+		 * subtrees
+		 */
+		protected AvlNode compute() {
+			return combine(this.a, this.b);
+		}
+
+		/**
+		 * This method combines two subtrees
+		 * 
+		 * @param a The first subtree
+		 * @param b The second subtree
+		 * @return The root of the resulting subtree
+		 */
+		private AvlNode combine(AvlNode a, AvlNode b) {
+			// Is one of them empty?
+			if ((a == null) || (b == null)) {
+				if (this.operation == Operation.INTERSECTION) {
+					return null;
+				}
+
+				if (this.operation == Operation.DIFFERENCE) {
+					return a;
+				}
+
+				return (a == null) ? b : a;
+			}
+
+			// One of the roots becomes the pivot which the other subtree is
+			// split around, the difference always drops the pivot so it takes
+			// the root of the second subtree
+			AvlNode pivot;
+			AvlNode aLeft;
+			AvlNode aRight;
+			AvlNode bLeft;
+			AvlNode bRight;
+			AvlNode[] s;
+
+			// Are they big enough to be worth a parallel task? The split is
+			// about to change their heights
+			boolean parallel = Math.min(a.height(), b.height()) >= PARALLEL_HEIGHT;
+
+			if (this.operation == Operation.DIFFERENCE) {
+				pivot = b;
+				bLeft = b.getLeft();
+				bRight = b.getRight();
+
+				s = AvlTree.split(a, pivot.getElem().intValue());
+				aLeft = s[0];
+				aRight = s[2];
+			}
+			else {
+				pivot = a;
+				aLeft = a.getLeft();
+				aRight = a.getRight();
+
+				s = AvlTree.split(b, pivot.getElem().intValue());
+				bLeft = s[0];
+				bRight = s[2];
+			}
+
+			AvlNode l;
+			AvlNode r;
+
+			// Should the left half run in parallel?
+			if (parallel) {
+				CombineTask left = new CombineTask(this.operation, aLeft, bLeft);
+				left.fork();
+
+				r = combine(aRight, bRight);
+				l = left.join();
+			}
+			else {
+				l = combine(aLeft, bLeft);
+				r = combine(aRight, bRight);
+			}
+
+			// Do we keep the pivot?
+			switch (this.operation) {
+			case UNION:
+				return AvlTree.join(l, pivot, r);
+			case INTERSECTION:
+				return (s[1] != null) ? AvlTree.join(l, pivot, r) : AvlTree.join(l, r);
+			default:
+				return AvlTree.join(l, r);
+			}
+		}
+	}
+}
\ No newline at end of file
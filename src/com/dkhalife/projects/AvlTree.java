@@ -1,5 +1,11 @@
 package com.dkhalife.projects;
 
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /**
  * This class represents an AVL Tree
  * 
@@ -9,6 +15,9 @@ public class AvlTree {
 	// The root of the tree
 	private AvlNode root = null;
 
+	// What the hot paths count, null while disabled
+	private AvlTreeMetrics metrics = null;
+
 	/**
 	 * This method inserts an integer into the tree
 	 * 
@@ -18,330 +27,630 @@ public class AvlTree {
 		// If we don't have a root, we'll make one
 		if (this.root == null) {
 			this.root = new AvlNode(e);
+
+			if (this.metrics != null) {
+				this.metrics.inserted(0);
+			}
+
 			return;
 		}
 
-		// Otherwise we'll insert it recursively
-		insert(this.root, e);
+		// Otherwise we'll walk down to the leaf where it belongs
+		AvlNode n = this.root;
+
+		// The number of nodes we visit
+		int depth = 0;
+
+		while (true) {
+			depth++;
+
+			// We'll get the current element
+			int current = n.getElem().intValue();
+
+			// Should we go left
+			if (e.intValue() < current) {
+				// Is this a leaf?
+				if (n.getLeft() == null) {
+					AvlNode newNode = new AvlNode(e);
+					newNode.setParent(n);
+					n.setLeft(newNode);
+					break;
+				}
+
+				n = n.getLeft();
+			}
+			// Or right?
+			else if (e.intValue() > current) {
+				// Is this a leaf?
+				if (n.getRight() == null) {
+					AvlNode newNode = new AvlNode(e);
+					newNode.setParent(n);
+					n.setRight(newNode);
+					break;
+				}
+
+				n = n.getRight();
+			}
+			// Or is it already there?
+			else {
+				return;
+			}
+		}
+
+		if (this.metrics != null) {
+			this.metrics.inserted(depth);
+		}
+
+		this.root = AvlBalancer.balance(this.root, n, true, this.metrics);
 	}
 
 	/**
-	 * This method inserts an integer into the tree with respect to a given node
+	 * Getter for the root
+	 * 
+	 * @return The root of the tree
 	 */
-	private void insert(AvlNode n, Integer e) {
-		// We'll get the current element
-		Integer current = n.getElem();
+	public AvlNode getRoot() {
+		return this.root;
+	}
 
-		// Should we go left
-		if (e.intValue() < current.intValue()) {
-			// Is this a leaf?
-			if (n.getLeft() != null) {
-				insert(n.getLeft(), e);
-			}
-			else {
-				AvlNode newNode = new AvlNode(e);
-				newNode.setParent(n);
-				n.setLeft(newNode);
+	/**
+	 * This method starts counting what the hot paths do, the metrics are kept
+	 * if they are already enabled
+	 * 
+	 * @return The metrics of the tree
+	 */
+	public AvlTreeMetrics enableMetrics() {
+		if (this.metrics == null) {
+			this.metrics = new AvlTreeMetrics(this);
+		}
 
-				balance(newNode.getParent());
-			}
+		return this.metrics;
+	}
+
+	/**
+	 * This method stops counting what the hot paths do
+	 */
+	public void disableMetrics() {
+		this.metrics = null;
+	}
+
+	/**
+	 * Getter for the metrics
+	 * 
+	 * @return The metrics of the tree, null if they are disabled
+	 */
+	public AvlTreeMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * Setter for the root
+	 * 
+	 * @param root The new root of the tree
+	 */
+	void setRoot(AvlNode root) {
+		// The root has no parent
+		if (root != null) {
+			root.setParent(null);
 		}
-		// Or right?
-		else if (e.intValue() > current.intValue())
-			// Is this a leaf?
-			if (n.getRight() != null) {
-				insert(n.getRight(), e);
-			}
-			else {
-				AvlNode newNode = new AvlNode(e);
-				newNode.setParent(n);
-				n.setRight(newNode);
 
-				balance(newNode.getParent());
-			}
+		this.root = root;
 	}
 
 	/**
-	 * This method balances the tree in order to respect the AVL propperties
+	 * This method removes an element from the tree
 	 * 
-	 * @param p The node for which to consider balancing
+	 * @param e The integer to remove
 	 */
-	private void balance(AvlNode p) {
-		// The right subtree
-		AvlNode r = p.getRight();
-		// The left subtree
-		AvlNode l = p.getLeft();
+	public void remove(Integer e) {
+		// Lets find it first, without counting it as a search
+		AvlNode n = lookup(e.intValue());
 
-		// The height difference
-		int heightDiff = p.getHeightDiff();
+		// Is there anything to remove?
+		if (n == null) {
+			return;
+		}
 
-		// Do we have a lean towords the right?
-		if (heightDiff == -2) {
-			// Is it straight?
-			if (r.getHeightDiff() == -1) {
-				rotateLeft(p);
-			}
+		if (this.metrics != null) {
+			this.metrics.removed(depth(n));
+		}
 
-			// Or zig zag
-			if (r.getHeightDiff() == 1) {
-				rotateRight(r);
+		remove(n);
+	}
 
-				rotateLeft(p);
-			}
+	/**
+	 * This method counts the nodes from the root down to a node
+	 * 
+	 * @param n The node
+	 * @return The number of nodes a search for it visits
+	 */
+	private static int depth(AvlNode n) {
+		int depth = 0;
+
+		for (; n != null; n = n.getParent()) {
+			depth++;
 		}
 
-		// Do we have a lean towards the left?
-		if (heightDiff == 2) {
-			// Is it straight?
-			if (l.getHeightDiff() == 1) {
-				rotateRight(p);
-			}
+		return depth;
+	}
 
-			// Or zig zag
-			if (l.getHeightDiff() == -1) {
-				rotateLeft(l);
+	/**
+	 * This method removes a node from the tree
+	 * 
+	 * @param n The node to remove
+	 */
+	private void remove(AvlNode n) {
+		this.root = AvlBalancer.remove(this.root, n, true, this.metrics);
+	}
 
-				rotateRight(p);
+	/**
+	 * This method builds a perfectly balanced tree from sorted integers in
+	 * linear time
+	 * 
+	 * @param keys The integers in strictly increasing order
+	 * @return The new tree
+	 */
+	public static AvlTree fromSorted(int[] keys) {
+		// Are they in order?
+		for (int i = 1; i < keys.length; i++) {
+			if (keys[i] <= keys[i - 1]) {
+				throw new IllegalArgumentException("The keys are not in strictly increasing order: " + keys[i] + " after " + keys[i - 1]);
 			}
+		}
 
+		AvlTree tree = new AvlTree();
+		tree.root = build(keys, 0, keys.length);
+
+		return tree;
+	}
+
+	/**
+	 * This method builds a perfectly balanced subtree straight out of a range
+	 * of sorted integers, the recursion is only as deep as the subtree
+	 * 
+	 * @param keys The integers in strictly increasing order
+	 * @param lo The first integer of the range
+	 * @param hi The end of the range, exclusive
+	 * @return The root of the subtree
+	 */
+	private static AvlNode build(int[] keys, int lo, int hi) {
+		// Did we arrive at the end
+		if (lo == hi) {
+			return null;
+		}
+
+		// The smaller half goes to the left
+		int mid = lo + (hi - lo - 1) / 2;
+
+		AvlNode n = new AvlNode(Integer.valueOf(keys[mid]));
+		AvlNode left = build(keys, lo, mid);
+		AvlNode right = build(keys, mid + 1, hi);
+
+		// Adjust the links
+		n.setLeft(left);
+		n.setRight(right);
+
+		if (left != null) {
+			left.setParent(n);
+		}
+
+		if (right != null) {
+			right.setParent(n);
 		}
 
-		// Lets bubble up
-		if (p != this.root)
-			balance(p.getParent());
+		n.update();
+		return n;
 	}
 
 	/**
-	 * This method rotates the tree around the given node
+	 * This method builds a perfectly balanced tree from a stream of sorted
+	 * integers in linear time, without ever holding them all in memory
 	 * 
-	 * @param top The node on which to perform the rotation
+	 * @param keys The integers in strictly increasing order
+	 * @param size The number of integers in the stream
+	 * @return The new tree
 	 */
-	private void rotateLeft(AvlNode top) {
-		// Lets get the ancestor
-		AvlNode ancestor = top.getParent();
+	public static AvlTree fromSortedStream(IntStream keys, int size) {
+		return fromSorted(keys.iterator(), size);
+	}
 
-		// Are we its left or right child?
-		boolean position = false;
-		if (ancestor != null) {
-			position = ancestor.getRight() == top;
+	/**
+	 * This method builds a perfectly balanced tree from an iterator over
+	 * sorted integers in linear time
+	 * 
+	 * @param keys The integers in strictly increasing order
+	 * @param size The number of integers left in the iterator
+	 * @return The new tree
+	 */
+	static AvlTree fromSorted(PrimitiveIterator.OfInt keys, int size) {
+		SortedBuilder builder = new SortedBuilder(keys);
+
+		AvlTree tree = new AvlTree();
+		tree.root = builder.build(size);
+
+		// Did we get more than we were told?
+		if (builder.keys.hasNext()) {
+			throw new IllegalArgumentException("The stream holds more than " + size + " keys");
 		}
 
-		// Adjust the links
-		top.setParent(top.getRight());
-		top.setRight(top.getParent().getLeft());
-		top.getParent().setLeft(top);
-		top.getParent().setParent(ancestor);
+		return tree;
+	}
 
-		// Did we affect the root?
-		if (this.root == top) {
-			this.root = top.getParent();
+	/**
+	 * This method inserts many integers at once by merging them with the ones
+	 * already in the tree, which is then rebuilt in linear time
+	 * 
+	 * @param keys The integers to insert, in any order
+	 */
+	public void addAll(int[] keys) {
+		// Sort a copy, the caller's array is left alone
+		int[] added = keys.clone();
+		Arrays.sort(added);
+
+		// Then merge both sorted sequences, dropping duplicates
+		int[] existing = toArray();
+		int[] merged = new int[existing.length + added.length];
+		int size = 0;
+		int i = 0;
+		int j = 0;
+
+		while ((i < existing.length) || (j < added.length)) {
+			int next;
+
+			// Take the smallest of both heads
+			if ((j == added.length) || ((i < existing.length) && (existing[i] <= added[j]))) {
+				next = existing[i++];
+			}
+			else {
+				next = added[j++];
+			}
+
+			// Is it a duplicate?
+			if ((size == 0) || (merged[size - 1] != next)) {
+				merged[size++] = next;
+			}
 		}
 
-		// Adjust the ancestor's links
-		if (ancestor != null) {
-			if (position) {
-				ancestor.setRight(top.getParent());
+		this.root = build(merged, 0, size);
+	}
+
+	/**
+	 * This method removes many integers at once by filtering them out of the
+	 * ones already in the tree, which is then rebuilt in linear time
+	 * 
+	 * @param keys The integers to remove, in any order
+	 */
+	public void removeAll(int[] keys) {
+		// Sort a copy, the caller's array is left alone
+		int[] removed = keys.clone();
+		Arrays.sort(removed);
+
+		// Then walk both sorted sequences, keeping what isn't removed
+		int[] existing = toArray();
+		int size = 0;
+		int j = 0;
+
+		for (int i = 0; i < existing.length; i++) {
+			// Skip the removed integers that are smaller
+			while ((j < removed.length) && (removed[j] < existing[i])) {
+				j++;
 			}
-			else
-				ancestor.setLeft(top.getParent());
+
+			// Is it removed?
+			if ((j < removed.length) && (removed[j] == existing[i])) {
+				continue;
+			}
+
+			existing[size++] = existing[i];
 		}
+
+		this.root = build(existing, 0, size);
 	}
 
 	/**
-	 * This method rotates the tree to the right on the given node
+	 * This method splits the tree around an integer in logarithmic time, the
+	 * tree is left empty
 	 * 
-	 * @param top The node on which to perform the rotation
+	 * @param e The integer to split around
+	 * @return The tree of the elements smaller than the integer, then the tree
+	 *         of the integer and the larger elements
+	 */
+	public AvlTree[] split(int e) {
+		AvlNode[] s = split(this.root, e);
+		this.root = null;
+
+		AvlTree smaller = new AvlTree();
+		smaller.setRoot(s[0]);
+
+		// The integer itself goes with the larger ones
+		AvlTree larger = new AvlTree();
+		larger.setRoot((s[1] != null) ? join(null, s[1], s[2]) : s[2]);
+
+		return new AvlTree[] { smaller, larger };
+	}
+
+	/**
+	 * This method joins two trees with an integer in between, in time
+	 * proportional to the difference of their heights. Both trees are left
+	 * empty
+	 * 
+	 * @param left The tree of the elements smaller than the integer
+	 * @param e The integer joining them
+	 * @param right The tree of the elements larger than the integer
+	 * @return The joined tree
 	 */
-	private void rotateRight(AvlNode top) {
-		// Lets get the ancestor
-		AvlNode ancestor = top.getParent();
+	public static AvlTree join(AvlTree left, int e, AvlTree right) {
+		AvlNode max = left.findMax(left.root);
+		AvlNode min = right.findMin(right.root);
 
-		// Are we its left or right child?
-		boolean direction = false;
-		if (ancestor != null) {
-			direction = ancestor.getRight() == top;
+		// Are they in order?
+		if (((max != null) && (max.getElem().intValue() >= e)) || ((min != null) && (min.getElem().intValue() <= e))) {
+			throw new IllegalArgumentException("The trees must be on either side of " + e);
 		}
 
-		// Adjust links
-		top.setParent(top.getLeft());
-		top.setLeft(top.getParent().getRight());
-		top.getParent().setRight(top);
-		top.getParent().setParent(ancestor);
+		AvlTree tree = new AvlTree();
+		tree.setRoot(join(left.root, new AvlNode(Integer.valueOf(e)), right.root));
+
+		// Both trees gave away their nodes
+		left.root = null;
+		right.root = null;
+
+		return tree;
+	}
 
-		// Did we affect the root?
-		if (this.root == top) {
-			this.root = top.getParent();
+	/**
+	 * This method removes every element within a range in logarithmic time
+	 * 
+	 * @param lo The smallest integer to remove
+	 * @param hi The largest integer to remove
+	 */
+	public void removeRange(int lo, int hi) {
+		// Is there anything to remove?
+		if ((this.root == null) || (lo > hi)) {
+			return;
 		}
 
-		// Adjust the ancestor's links
-		if (ancestor != null) {
-			if (direction) {
-				ancestor.setRight(top.getParent());
-			}
-			else
-				ancestor.setLeft(top.getParent());
+		// Cut the range out of the tree
+		AvlNode[] below = split(this.root, lo);
+		AvlNode[] above = split(below[2], hi);
+
+		// Then join what's left on either side of it
+		setRoot(join(below[0], above[2]));
+	}
+
+	/**
+	 * This method lists the elements of the tree
+	 * 
+	 * @return The integers in the tree, in increasing order
+	 */
+	public int[] toArray() {
+		int[] keys = new int[size()];
+		int i = 0;
+
+		for (AvlNode n = findMin(this.root); n != null; n = successor(n)) {
+			keys[i++] = n.getElem().intValue();
 		}
+
+		return keys;
 	}
 
 	/**
-	 * Getter for the root
+	 * Getter for the number of elements
 	 * 
-	 * @return The root of the tree
+	 * @return The number of elements in the tree
 	 */
-	public AvlNode getRoot() {
-		return this.root;
+	public int size() {
+		return AvlNode.size(this.root);
 	}
 
 	/**
-	 * This method removes an element from the tree
+	 * This method determines the rank of an integer, which is also its
+	 * position in the tree if it is there
 	 * 
-	 * @param e The integer to remove
+	 * @param e The integer to rank
+	 * @return The number of elements smaller than the integer
 	 */
-	public void remove(Integer e) {
-		remove(this.root, e);
+	public int rank(int e) {
+		return countBelow(e, false);
 	}
 
 	/**
-	 * This method removes an element from the tree according to the given node
+	 * This method finds the element at a given position
 	 * 
-	 * @param n The referenced node
-	 * @param e The integer to remove
+	 * @param k The position of the element, 0 being the minimum
+	 * @return The node holding the element, null if the position is out of
+	 *         bounds
 	 */
-	private void remove(AvlNode n, Integer e) {
-		// Lets get the current element
-		Integer current = n.getElem();
+	public AvlNode select(int k) {
+		AvlNode n = this.root;
 
-		// Should we go left
-		if ((e.intValue() < current.intValue()) && (n.getLeft() != null)) {
-			remove(n.getLeft(), e);
+		while (n != null) {
+			int leftSize = AvlNode.size(n.getLeft());
+
+			// Should we go left
+			if (k < leftSize) {
+				n = n.getLeft();
+			}
+			// Or right?
+			else if (k > leftSize) {
+				k -= leftSize + 1;
+				n = n.getRight();
+			}
+			else {
+				return n;
+			}
 		}
-		// Or right?
-		else if ((e.intValue() > current.intValue()) && (n.getRight() != null)) {
-			remove(n.getRight(), e);
+
+		return null;
+	}
+
+	/**
+	 * This method counts the elements within a range
+	 * 
+	 * @param lo The smallest integer of the range
+	 * @param hi The largest integer of the range
+	 * @return The number of elements between both integers, inclusive
+	 */
+	public int countRange(int lo, int hi) {
+		// Is the range empty?
+		if (lo > hi) {
+			return 0;
 		}
-		// Are we there yet?
-		else if (e == current) {
-			// Great lets get the parent
-			AvlNode parent = n.getParent();
 
-			// Are we at the root?
-			boolean isRoot = n == this.root;
+		return countBelow(hi, true) - countBelow(lo, false);
+	}
 
-			// Is this a left child?
-			boolean isLeftChild = (!isRoot) && (parent.getLeft() == n);
+	/**
+	 * This method counts the elements smaller than an integer
+	 * 
+	 * @param e The integer to compare to
+	 * @param inclusive Should the integer itself be counted?
+	 * @return The number of elements below the integer
+	 */
+	private int countBelow(int e, boolean inclusive) {
+		int count = 0;
+		AvlNode n = this.root;
 
-			// Is this a leaf?
-			if ((n.getLeft() == null) && (n.getRight() == null)) {
-				// Cleanup the ongoing link to this node then
-				if (isRoot) {
-					this.root = null;
-				}
-				else if (isLeftChild) {
-					parent.setLeft(null);
-				}
-				else {
-					parent.setRight(null);
-				}
+		while (n != null) {
+			int current = n.getElem().intValue();
 
+			// Is this node and its left side counted?
+			if ((current < e) || (inclusive && (current == e))) {
+				count += AvlNode.size(n.getLeft()) + 1;
+				n = n.getRight();
 			}
-			// Is this a half leaf?
-			else if ((n.getLeft() == null) || (n.getRight() == null)) {
-				// On the left?
-				if (n.getLeft() != null) {
-					// Adjust the incoming link
-					if (!isRoot) {
-						if (isLeftChild) {
-							parent.setLeft(n.getLeft());
-						}
-						else {
-							parent.setRight(n.getLeft());
-						}
-					}
-
-					// Adjust the outgoing link
-					n.getLeft().setParent(parent);
-
-					// Did we affect the root
-					if (isRoot) {
-						this.root = n.getLeft();
-					}
-				}
-				else {
-					// Is this the root
-					if (!isRoot) {
-						// Adjust the outgoing links
-						if (isLeftChild) {
-							parent.setLeft(n.getRight());
-						}
-						else {
-							parent.setRight(n.getRight());
-						}
-					}
-
-					// Adjust the incoming link
-					n.getRight().setParent(parent);
-
-					// Did we affect the root?
-					if (isRoot) {
-						this.root = n.getRight();
-					}
-				}
+			else {
+				n = n.getLeft();
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * This method looks for an element in the tree
+	 * 
+	 * @param e The integer to look for
+	 * @return The node holding it, null if it isn't in the tree
+	 */
+	public AvlNode find(Integer e) {
+		AvlNode n = this.root;
+
+		// The number of nodes we visit
+		int depth = 0;
+
+		while (n != null) {
+			depth++;
+
+			// Should we go left
+			if (e.intValue() < n.getElem().intValue()) {
+				n = n.getLeft();
+			}
+			// Or right?
+			else if (e.intValue() > n.getElem().intValue()) {
+				n = n.getRight();
 			}
 			else {
-				// Lets get the maximum
-				AvlNode m = findMax(n.getLeft());
-
-				// Adjust its links
-				if (m.getParent() != n) {
-					if (m.getParent().getLeft() == m)
-						m.getParent().setLeft(m.getLeft());
-					else {
-						m.getParent().setRight(m.getLeft());
-					}
-				}
+				break;
+			}
+		}
 
-				// Did we affect the root
-				if (!isRoot) {
-					// Adjust the incoming link
-					if (isLeftChild) {
-						parent.setLeft(m);
-					}
-					else {
-						parent.setRight(m);
-					}
+		if (this.metrics != null) {
+			this.metrics.searched(depth);
+		}
 
-				}
-				else {
-					this.root = m;
-				}
+		return n;
+	}
 
-				// Adjust the outgoing link
-				m.setRight(n.getRight());
+	/**
+	 * This method looks for an integer in the tree without counting it as a
+	 * search, for the lookups the tree does on its own behalf
+	 * 
+	 * @param e The integer to look for
+	 * @return The node holding it, null if it isn't in the tree
+	 */
+	AvlNode lookup(int e) {
+		AvlNode n = this.root;
 
-				// Adjust the other side
-				if (n.getLeft() != m) {
-					m.setLeft(n.getLeft());
-					n.getLeft().setParent(m);
-				}
-				else {
-					m.setLeft(null);
-				}
+		while (n != null) {
+			int current = n.getElem().intValue();
 
-				// And the descendant
-				if (n.getRight() != null) {
-					n.getRight().setParent(m);
-				}
+			// Should we go left
+			if (e < current) {
+				n = n.getLeft();
+			}
+			// Or right?
+			else if (e > current) {
+				n = n.getRight();
+			}
+			else {
+				break;
+			}
+		}
+
+		return n;
+	}
+
+	/**
+	 * This method finds the smallest element larger than or equal to an
+	 * integer
+	 * 
+	 * @param e The integer to compare to
+	 * @return The node holding the element, null if there is none
+	 */
+	public AvlNode ceiling(int e) {
+		AvlNode best = null;
+		AvlNode n = this.root;
 
-				// Then finally the parent
-				m.setParent(parent);
+		while (n != null) {
+			int current = n.getElem().intValue();
 
-				print();
+			// Is it too small?
+			if (current < e) {
+				n = n.getRight();
+			}
+			// Or is it a candidate?
+			else if (current > e) {
+				best = n;
+				n = n.getLeft();
 			}
+			else {
+				return n;
+			}
+		}
 
-			// Now we need to rebalance the tree
-			if (!isRoot)
-				balance(parent);
+		return best;
+	}
+
+	/**
+	 * This method finds the largest element smaller than or equal to an
+	 * integer
+	 * 
+	 * @param e The integer to compare to
+	 * @return The node holding the element, null if there is none
+	 */
+	public AvlNode floor(int e) {
+		AvlNode best = null;
+		AvlNode n = this.root;
+
+		while (n != null) {
+			int current = n.getElem().intValue();
+
+			// Is it too large?
+			if (current > e) {
+				n = n.getLeft();
+			}
+			// Or is it a candidate?
+			else if (current < e) {
+				best = n;
+				n = n.getRight();
+			}
+			else {
+				return n;
+			}
 		}
+
+		return best;
 	}
 
 	/**
@@ -385,34 +694,473 @@ public class AvlTree {
 	}
 
 	/**
-	 * This method prints the tree recursively
+	 * This method finds the node that follows the given node in order
+	 * 
+	 * @param n The node from which to start the search
+	 * @return The next node, null if it is the maximum
+	 */
+	public AvlNode successor(AvlNode n) {
+		// Is it in the right subtree?
+		if (n.getRight() != null) {
+			return findMin(n.getRight());
+		}
+
+		// Otherwise climb until we come from the left
+		while ((n.getParent() != null) && (n.getParent().getRight() == n)) {
+			n = n.getParent();
+		}
+
+		return n.getParent();
+	}
+
+	/**
+	 * This method finds the node that precedes the given node in order
+	 * 
+	 * @param n The node from which to start the search
+	 * @return The previous node, null if it is the minimum
 	 */
-	public void print() {
-		print(this.root, 0);
+	public AvlNode predecessor(AvlNode n) {
+		// Is it in the left subtree?
+		if (n.getLeft() != null) {
+			return findMax(n.getLeft());
+		}
+
+		// Otherwise climb until we come from the right
+		while ((n.getParent() != null) && (n.getParent().getLeft() == n)) {
+			n = n.getParent();
+		}
+
+		return n.getParent();
+	}
+
+	/**
+	 * This method walks through the elements in increasing order, lazily
+	 * 
+	 * @return An iterator over the elements
+	 */
+	public PrimitiveIterator.OfInt iterator() {
+		return iterator(Integer.MIN_VALUE, Integer.MAX_VALUE);
 	}
 
 	/**
-	 * This method prints the subtree starting at the given node
+	 * This method walks through the elements of a range in increasing order,
+	 * lazily
 	 * 
-	 * @param n The node from which to start printing
-	 * @param tabs The tabs to consider in the print
+	 * @param from The smallest integer of the range
+	 * @param to The largest integer of the range
+	 * @return An iterator over the elements between both integers, inclusive
 	 */
-	private void print(AvlNode n, int tabs) {
+	public PrimitiveIterator.OfInt iterator(int from, int to) {
+		return new AvlTreeIterator(this, from, to, false);
+	}
+
+	/**
+	 * This method walks through the elements in decreasing order, lazily
+	 * 
+	 * @return An iterator over the elements
+	 */
+	public PrimitiveIterator.OfInt descendingIterator() {
+		return descendingIterator(Integer.MAX_VALUE, Integer.MIN_VALUE);
+	}
+
+	/**
+	 * This method walks through the elements of a range in decreasing order,
+	 * lazily
+	 * 
+	 * @param from The largest integer of the range
+	 * @param to The smallest integer of the range
+	 * @return An iterator over the elements between both integers, inclusive
+	 */
+	public PrimitiveIterator.OfInt descendingIterator(int from, int to) {
+		return new AvlTreeIterator(this, from, to, true);
+	}
+
+	/**
+	 * This method covers the elements in a way that can be split at subtree
+	 * boundaries, with exact sizes
+	 * 
+	 * @return A spliterator over the elements
+	 */
+	public Spliterator.OfInt spliterator() {
+		return new AvlTreeSpliterator(null, this.root);
+	}
+
+	/**
+	 * This method streams the elements in increasing order, the stream can be
+	 * made parallel
+	 * 
+	 * @return A stream of the elements
+	 */
+	public IntStream stream() {
+		return StreamSupport.intStream(spliterator(), false);
+	}
+
+	/**
+	 * This method prints the tree, each level indented by one more tab
+	 */
+	public void print() {
 		// Did we arrive at the end
-		if (n == null) {
+		if (this.root == null) {
 			return;
 		}
 
-		// Print the tabs
-		for (int i = 0; i < tabs; i++) {
-			System.out.print("\t");
+		// The nodes left to print along with their depth, there can't be more
+		// pending nodes than levels in the tree
+		AvlNode[] nodes = new AvlNode[this.root.height()];
+		int[] depths = new int[this.root.height()];
+		int top = 0;
+
+		nodes[top++] = this.root;
+
+		while (top > 0) {
+			AvlNode n = nodes[--top];
+			int tabs = depths[top];
+
+			// Print the tabs
+			for (int i = 0; i < tabs; i++) {
+				System.out.print("\t");
+			}
+
+			// Print the element
+			System.out.println(n.getElem());
+
+			// Then the right side, after the left side
+			if (n.getRight() != null) {
+				nodes[top] = n.getRight();
+				depths[top++] = tabs + 1;
+			}
+
+			// Then the left side
+			if (n.getLeft() != null) {
+				nodes[top] = n.getLeft();
+				depths[top++] = tabs + 1;
+			}
+		}
+	}
+
+	/**
+	 * This method joins two subtrees with a node in between, every element on
+	 * the left must be smaller than the node and every element on the right
+	 * larger. The cost is proportional to the height difference of the
+	 * subtrees
+	 * 
+	 * @param l The left subtree
+	 * @param k The node joining them
+	 * @param r The right subtree
+	 * @return The root of the joined subtree
+	 */
+	static AvlNode join(AvlNode l, AvlNode k, AvlNode r) {
+		AvlNode t;
+
+		// Is one of them too tall to sit next to the other?
+		if (AvlNode.height(l) > AvlNode.height(r) + 1) {
+			t = joinRight(l, k, r);
+		}
+		else if (AvlNode.height(r) > AvlNode.height(l) + 1) {
+			t = joinLeft(l, k, r);
+		}
+		else {
+			t = link(l, k, r);
+		}
+
+		// The root has no parent
+		t.setParent(null);
+		return t;
+	}
+
+	/**
+	 * This method joins two subtrees without a node in between
+	 * 
+	 * @param l The left subtree
+	 * @param r The right subtree
+	 * @return The root of the joined subtree
+	 */
+	static AvlNode join(AvlNode l, AvlNode r) {
+		// Is there anything on the left?
+		if (l == null) {
+			if (r != null) {
+				r.setParent(null);
+			}
+
+			return r;
+		}
+
+		// Take the maximum out of the left side to join them
+		AvlNode[] last = splitLast(l);
+
+		return join(last[0], last[1], r);
+	}
+
+	/**
+	 * This method splits a subtree around an integer
+	 * 
+	 * @param t The subtree to split
+	 * @param e The integer to split around
+	 * @return The subtree of smaller elements, the detached node holding the
+	 *         integer or null if it wasn't there, and the subtree of larger
+	 *         elements
+	 */
+	static AvlNode[] split(AvlNode t, int e) {
+		// Did we arrive at the end
+		if (t == null) {
+			return new AvlNode[3];
+		}
+
+		// We'll get the current element
+		int current = t.getElem().intValue();
+
+		AvlNode l = t.getLeft();
+		AvlNode r = t.getRight();
+		AvlNode[] s;
+
+		// Should we go left
+		if (e < current) {
+			s = split(l, e);
+			s[2] = join(s[2], t, r);
+		}
+		// Or right?
+		else if (e > current) {
+			s = split(r, e);
+			s[0] = join(l, t, s[0]);
+		}
+		// Are we there yet?
+		else {
+			s = new AvlNode[] { l, link(null, t, null), r };
+		}
+
+		// The sides are trees of their own
+		if (s[0] != null) {
+			s[0].setParent(null);
+		}
+
+		if (s[2] != null) {
+			s[2].setParent(null);
+		}
+
+		return s;
+	}
+
+	/**
+	 * This method detaches the maximum of a subtree
+	 * 
+	 * @param t The subtree, it can't be empty
+	 * @return The rest of the subtree and the detached maximum
+	 */
+	private static AvlNode[] splitLast(AvlNode t) {
+		// Is this the maximum?
+		if (t.getRight() == null) {
+			return new AvlNode[] { t.getLeft(), link(null, t, null) };
+		}
+
+		AvlNode l = t.getLeft();
+		AvlNode[] last = splitLast(t.getRight());
+		last[0] = join(l, t, last[0]);
+
+		return last;
+	}
+
+	/**
+	 * This method joins a taller left subtree by walking down its right side
+	 * 
+	 * @param l The left subtree
+	 * @param k The node joining them
+	 * @param r The right subtree
+	 * @return The root of the joined subtree
+	 */
+	private static AvlNode joinRight(AvlNode l, AvlNode k, AvlNode r) {
+		AvlNode c = l.getRight();
+		AvlNode t;
+
+		// Did we go down far enough?
+		if (AvlNode.height(c) <= AvlNode.height(r) + 1) {
+			t = link(c, k, r);
+
+			// Is it a zig zag?
+			if (t.height() > AvlNode.height(l.getLeft()) + 1) {
+				t = rotateRightSubtree(t);
+			}
 		}
+		else {
+			t = joinRight(c, k, r);
+		}
+
+		link(l.getLeft(), l, t);
+
+		// Do we have a lean towards the right?
+		if (t.height() > AvlNode.height(l.getLeft()) + 1) {
+			return rotateLeftSubtree(l);
+		}
+
+		return l;
+	}
+
+	/**
+	 * This method joins a taller right subtree by walking down its left side
+	 * 
+	 * @param l The left subtree
+	 * @param k The node joining them
+	 * @param r The right subtree
+	 * @return The root of the joined subtree
+	 */
+	private static AvlNode joinLeft(AvlNode l, AvlNode k, AvlNode r) {
+		AvlNode c = r.getLeft();
+		AvlNode t;
+
+		// Did we go down far enough?
+		if (AvlNode.height(c) <= AvlNode.height(l) + 1) {
+			t = link(l, k, c);
+
+			// Is it a zig zag?
+			if (t.height() > AvlNode.height(r.getRight()) + 1) {
+				t = rotateLeftSubtree(t);
+			}
+		}
+		else {
+			t = joinLeft(l, k, c);
+		}
+
+		link(t, r, r.getRight());
 
-		// Print the element
-		System.out.println(n.getElem());
-		// Then the left side
-		print(n.getLeft(), tabs + 1);
-		// Then the right side
-		print(n.getRight(), tabs + 1);
+		// Do we have a lean towards the left?
+		if (t.height() > AvlNode.height(r.getRight()) + 1) {
+			return rotateRightSubtree(r);
+		}
+
+		return r;
+	}
+
+	/**
+	 * This method rotates a detached subtree to the left
+	 * 
+	 * @param top The node on which to perform the rotation
+	 * @return The node that took its place
+	 */
+	private static AvlNode rotateLeftSubtree(AvlNode top) {
+		AvlNode r = top.getRight();
+
+		link(top.getLeft(), top, r.getLeft());
+		return link(top, r, r.getRight());
+	}
+
+	/**
+	 * This method rotates a detached subtree to the right
+	 * 
+	 * @param top The node on which to perform the rotation
+	 * @return The node that took its place
+	 */
+	private static AvlNode rotateRightSubtree(AvlNode top) {
+		AvlNode l = top.getLeft();
+
+		link(l.getRight(), top, top.getRight());
+		return link(l.getLeft(), l, top);
+	}
+
+	/**
+	 * This method makes a node the parent of two subtrees
+	 * 
+	 * @param l The new left subtree
+	 * @param k The node
+	 * @param r The new right subtree
+	 * @return The node
+	 */
+	private static AvlNode link(AvlNode l, AvlNode k, AvlNode r) {
+		// Adjust the outgoing links
+		k.setLeft(l);
+		k.setRight(r);
+
+		// Adjust the incoming links
+		if (l != null) {
+			l.setParent(k);
+		}
+
+		if (r != null) {
+			r.setParent(k);
+		}
+
+		k.update();
+		return k;
+	}
+
+	/**
+	 * This class builds a balanced subtree out of sorted integers, consuming
+	 * them in order
+	 */
+	private static class SortedBuilder {
+		// The integers left to consume
+		private final PrimitiveIterator.OfInt keys;
+
+		// The last integer consumed
+		private int previous;
+		// Did we consume anything yet?
+		private boolean started = false;
+
+		/**
+		 * A builder needs the integers to consume
+		 * 
+		 * @param keys The integers in strictly increasing order
+		 */
+		SortedBuilder(PrimitiveIterator.OfInt keys) {
+			this.keys = keys;
+		}
+
+		/**
+		 * This method builds a subtree out of the next integers, the recursion
+		 * is only as deep as the resulting subtree
+		 * 
+		 * @param size The number of integers to consume
+		 * @return The root of the subtree
+		 */
+		AvlNode build(int size) {
+			// Did we arrive at the end
+			if (size == 0) {
+				return null;
+			}
+
+			// The smaller half goes to the left
+			int leftSize = (size - 1) / 2;
+			AvlNode left = build(leftSize);
+
+			AvlNode n = new AvlNode(Integer.valueOf(next()));
+
+			AvlNode right = build(size - 1 - leftSize);
+
+			// Adjust the links
+			n.setLeft(left);
+			n.setRight(right);
+
+			if (left != null) {
+				left.setParent(n);
+			}
+
+			if (right != null) {
+				right.setParent(n);
+			}
+
+			n.update();
+			return n;
+		}
+
+		/**
+		 * This method consumes the next integer
+		 * 
+		 * @return The next integer
+		 */
+		private int next() {
+			// Do we have enough?
+			if (!this.keys.hasNext()) {
+				throw new IllegalArgumentException("The stream holds fewer keys than announced");
+			}
+
+			int key = this.keys.nextInt();
+
+			// Are they in order?
+			if (this.started && (key <= this.previous)) {
+				throw new IllegalArgumentException("The keys are not in strictly increasing order: " + key + " after " + this.previous);
+			}
+
+			this.previous = key;
+			this.started = true;
+			return key;
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.dkhalife.projects;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This class walks through the elements of a tree within a range, in either
+ * direction. It follows the parent links so it never allocates, and it only
+ * finds the next element when asked to.
+ * 
+ * The tree must not be modified while it is being walked through.
+ * 
+ * @author Dany Khalife
+ */
+class AvlTreeIterator implements PrimitiveIterator.OfInt {
+	// The tree to walk through
+	private final AvlTree tree;
+
+	// The node to return next
+	private AvlNode next;
+
+	// The last integer to return, inclusive
+	private final int last;
+
+	// Are we walking from the maximum to the minimum?
+	private final boolean descending;
+
+	/**
+	 * An iterator is created by specifying the range to walk through
+	 * 
+	 * @param tree The tree to walk through
+	 * @param from The first integer of the range
+	 * @param to The last integer of the range
+	 * @param descending Should we walk from the maximum to the minimum?
+	 */
+	AvlTreeIterator(AvlTree tree, int from, int to, boolean descending) {
+		this.tree = tree;
+		this.last = to;
+		this.descending = descending;
+
+		// Lets find where to start
+		this.next = descending ? tree.floor(from) : tree.ceiling(from);
+
+		// Is the range empty?
+		if ((this.next != null) && isPastLast(this.next)) {
+			this.next = null;
+		}
+	}
+
+	/**
+	 * This method overrides the super method in order to check for a next node
+	 */
+	public boolean hasNext() {
+		return this.next != null;
+	}
+
+	/**
+	 * This method overrides the super method in order to step to the next node
+	 */
+	public int nextInt() {
+		// Are we done?
+		if (this.next == null) {
+			throw new NoSuchElementException();
+		}
+
+		AvlNode n = this.next;
+
+		// Step towards the end of the range
+		this.next = this.descending ? this.tree.predecessor(n) : this.tree.successor(n);
+
+		if ((this.next != null) && isPastLast(this.next)) {
+			this.next = null;
+		}
+
+		return n.getElem().intValue();
+	}
+
+	/**
+	 * This method determines if a node is beyond the end of the range
+	 * 
+	 * @param n The node to consider
+	 * @return True if the node shouldn't be returned
+	 */
+	private boolean isPastLast(AvlNode n) {
+		int current = n.getElem().intValue();
+
+		return this.descending ? (current < this.last) : (current > this.last);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,356 @@
+package com.dkhalife.projects;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * This class counts what a tree does on its hot paths: the rotations, how far
+ * each rebalance climbs and how deep each search, insert and remove goes. A
+ * tree only counts while its metrics are enabled, otherwise it pays a single
+ * null check.
+ * 
+ * The counters can be read from any thread. The height and the number of
+ * nodes are read from the tree as it is, without locking it.
+ * 
+ * @author Dany Khalife
+ */
+public class AvlTreeMetrics implements AvlTreeMetricsMBean {
+	// The number of buckets of the histograms, the last one holds anything
+	// longer
+	private static final int BUCKETS = 64;
+
+	// The tree being measured
+	private final AvlTree tree;
+
+	// The number of single rotations
+	private final LongAdder singleRotations = new LongAdder();
+	// The number of double rotations
+	private final LongAdder doubleRotations = new LongAdder();
+
+	// The number of rebalances per path length
+	private final LongAdder[] rebalancePaths = buckets();
+	// The number of searches per depth
+	private final LongAdder[] searchDepths = buckets();
+	// The number of inserts per depth
+	private final LongAdder[] insertDepths = buckets();
+	// The number of removes per depth
+	private final LongAdder[] removeDepths = buckets();
+
+	// The name under which it is registered with JMX, if it is
+	private ObjectName name = null;
+
+	/**
+	 * Metrics are created for a given tree
+	 * 
+	 * @param tree The tree being measured
+	 */
+	AvlTreeMetrics(AvlTree tree) {
+		this.tree = tree;
+	}
+
+	/**
+	 * This method counts a rotation
+	 * 
+	 * @param zigZag Did it take two rotations?
+	 */
+	void rotated(boolean zigZag) {
+		(zigZag ? this.doubleRotations : this.singleRotations).increment();
+	}
+
+	/**
+	 * This method counts a rebalance
+	 * 
+	 * @param length The number of nodes it climbed through
+	 */
+	void rebalanced(int length) {
+		this.rebalancePaths[Math.min(length, BUCKETS - 1)].increment();
+	}
+
+	/**
+	 * This method counts a search
+	 * 
+	 * @param depth The number of nodes it visited
+	 */
+	void searched(int depth) {
+		this.searchDepths[Math.min(depth, BUCKETS - 1)].increment();
+	}
+
+	/**
+	 * This method counts an insert that added a node
+	 * 
+	 * @param depth The number of nodes it visited on the way down
+	 */
+	void inserted(int depth) {
+		this.insertDepths[Math.min(depth, BUCKETS - 1)].increment();
+	}
+
+	/**
+	 * This method counts a remove that found its node
+	 * 
+	 * @param depth The number of nodes it visited on the way down
+	 */
+	void removed(int depth) {
+		this.removeDepths[Math.min(depth, BUCKETS - 1)].increment();
+	}
+
+	/**
+	 * This method overrides the super method with the sum of its counter
+	 */
+	public long getSingleRotations() {
+		return this.singleRotations.sum();
+	}
+
+	/**
+	 * This method overrides the super method with the sum of its counter
+	 */
+	public long getDoubleRotations() {
+		return this.doubleRotations.sum();
+	}
+
+	/**
+	 * This method overrides the super method with the sum of each bucket
+	 */
+	public long[] getRebalancePathLengths() {
+		return histogram(this.rebalancePaths);
+	}
+
+	/**
+	 * This method overrides the super method with the mean of the
+	 * histogram
+	 */
+	public double getMeanRebalancePathLength() {
+		return mean(this.rebalancePaths);
+	}
+
+	/**
+	 * This method overrides the super method with the sum of each bucket
+	 */
+	public long[] getSearchDepths() {
+		return histogram(this.searchDepths);
+	}
+
+	/**
+	 * This method overrides the super method with the mean of the
+	 * histogram
+	 */
+	public double getMeanSearchDepth() {
+		return mean(this.searchDepths);
+	}
+
+	/**
+	 * This method overrides the super method with the sum of each bucket
+	 */
+	public long[] getInsertDepths() {
+		return histogram(this.insertDepths);
+	}
+
+	/**
+	 * This method overrides the super method with the mean of the
+	 * histogram
+	 */
+	public double getMeanInsertDepth() {
+		return mean(this.insertDepths);
+	}
+
+	/**
+	 * This method overrides the super method with the sum of each bucket
+	 */
+	public long[] getRemoveDepths() {
+		return histogram(this.removeDepths);
+	}
+
+	/**
+	 * This method overrides the super method with the mean of the
+	 * histogram
+	 */
+	public double getMeanRemoveDepth() {
+		return mean(this.removeDepths);
+	}
+
+	/**
+	 * This method overrides the super method with the height of the root
+	 */
+	public int getHeight() {
+		AvlNode root = this.tree.getRoot();
+
+		return (root == null) ? 0 : root.height();
+	}
+
+	/**
+	 * This method overrides the super method with the size of the tree
+	 */
+	public int getSize() {
+		return this.tree.size();
+	}
+
+	/**
+	 * This method overrides the super method in order to reset every
+	 * counter
+	 */
+	public void reset() {
+		this.singleRotations.reset();
+		this.doubleRotations.reset();
+
+		for (int i = 0; i < BUCKETS; i++) {
+			this.rebalancePaths[i].reset();
+			this.searchDepths[i].reset();
+			this.insertDepths[i].reset();
+			this.removeDepths[i].reset();
+		}
+	}
+
+	/**
+	 * This method registers the metrics with the platform JMX server
+	 * 
+	 * @param treeName The name to show the tree under
+	 * @return The name of the registered bean
+	 * @throws JMException If the name is taken or invalid
+	 */
+	public ObjectName register(String treeName) throws JMException {
+		ObjectName name = new ObjectName("com.dkhalife.projects:type=AvlTree,name=" + ObjectName.quote(treeName));
+
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+		this.name = name;
+
+		return name;
+	}
+
+	/**
+	 * This method unregisters the metrics from the platform JMX server, if
+	 * they are registered
+	 * 
+	 * @throws JMException If they can't be unregistered
+	 */
+	public void unregister() throws JMException {
+		// Are we registered at all?
+		if (this.name == null) {
+			return;
+		}
+
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.name);
+		this.name = null;
+	}
+
+	/**
+	 * This method writes the metrics out periodically
+	 * 
+	 * @param executor The executor running the dumps
+	 * @param out Where to write them
+	 * @param period The time between two dumps
+	 * @param unit The unit of the period
+	 * @return The scheduled dumps, cancel it to stop them
+	 */
+	public ScheduledFuture<?> dumpEvery(ScheduledExecutorService executor, final PrintStream out, long period, TimeUnit unit) {
+		return executor.scheduleAtFixedRate(() -> out.println(dump()), period, period, unit);
+	}
+
+	/**
+	 * This method describes the metrics as text
+	 * 
+	 * @return One line per metric
+	 */
+	public String dump() {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("height ").append(getHeight()).append('\n');
+		sb.append("size ").append(getSize()).append('\n');
+		sb.append("rotations.single ").append(getSingleRotations()).append('\n');
+		sb.append("rotations.double ").append(getDoubleRotations()).append('\n');
+		sb.append("rebalance.path.mean ").append(String.format("%.2f", getMeanRebalancePathLength())).append('\n');
+		sb.append("rebalance.path ");
+		append(sb, getRebalancePathLengths());
+		sb.append("search.depth.mean ").append(String.format("%.2f", getMeanSearchDepth())).append('\n');
+		sb.append("search.depth ");
+		append(sb, getSearchDepths());
+		sb.append("insert.depth.mean ").append(String.format("%.2f", getMeanInsertDepth())).append('\n');
+		sb.append("insert.depth ");
+		append(sb, getInsertDepths());
+		sb.append("remove.depth.mean ").append(String.format("%.2f", getMeanRemoveDepth())).append('\n');
+		sb.append("remove.depth ");
+		append(sb, getRemoveDepths());
+
+		return sb.toString();
+	}
+
+	/**
+	 * This method appends the buckets of a histogram that aren't empty
+	 * 
+	 * @param sb Where to append them
+	 * @param histogram The histogram
+	 */
+	private static void append(StringBuilder sb, long[] histogram) {
+		for (int i = 0; i < histogram.length; i++) {
+			if (histogram[i] != 0) {
+				sb.append(i).append(':').append(histogram[i]).append(' ');
+			}
+		}
+
+		sb.append('\n');
+	}
+
+	/**
+	 * This method reads a histogram, without the empty buckets at the end
+	 * 
+	 * @param buckets The buckets of the histogram
+	 * @return The count of each bucket
+	 */
+	private static long[] histogram(LongAdder[] buckets) {
+		long[] counts = new long[BUCKETS];
+		int length = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+
+			if (counts[i] != 0) {
+				length = i + 1;
+			}
+		}
+
+		long[] trimmed = new long[length];
+		System.arraycopy(counts, 0, trimmed, 0, length);
+
+		return trimmed;
+	}
+
+	/**
+	 * This method computes the mean of a histogram
+	 * 
+	 * @param buckets The buckets of the histogram
+	 * @return The mean, 0 if it is empty
+	 */
+	private static double mean(LongAdder[] buckets) {
+		long count = 0;
+		long total = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+			long c = buckets[i].sum();
+
+			count += c;
+			total += c * i;
+		}
+
+		return (count == 0) ? 0 : (double) total / count;
+	}
+
+	/**
+	 * This method creates the buckets of a histogram
+	 * 
+	 * @return The empty buckets
+	 */
+	private static LongAdder[] buckets() {
+		LongAdder[] buckets = new LongAdder[BUCKETS];
+
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+
+		return buckets;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.dkhalife.projects;
+
+/**
+ * This interface is what JMX shows of {@link AvlTreeMetrics}
+ * 
+ * @author Dany Khalife
+ */
+public interface AvlTreeMetricsMBean {
+	/**
+	 * Getter for the number of single rotations
+	 * 
+	 * @return The number of rebalances fixed by one rotation
+	 */
+	long getSingleRotations();
+
+	/**
+	 * Getter for the number of double rotations
+	 * 
+	 * @return The number of rebalances that needed a zig zag
+	 */
+	long getDoubleRotations();
+
+	/**
+	 * Getter for the histogram of the rebalance path lengths
+	 * 
+	 * @return The number of rebalances that climbed through each number of
+	 *         nodes
+	 */
+	long[] getRebalancePathLengths();
+
+	/**
+	 * Getter for the mean rebalance path length
+	 * 
+	 * @return The mean number of nodes a rebalance climbed through
+	 */
+	double getMeanRebalancePathLength();
+
+	/**
+	 * Getter for the histogram of the search depths
+	 * 
+	 * @return The number of searches that visited each number of nodes
+	 */
+	long[] getSearchDepths();
+
+	/**
+	 * Getter for the mean search depth
+	 * 
+	 * @return The mean number of nodes a search visited
+	 */
+	double getMeanSearchDepth();
+
+	/**
+	 * Getter for the histogram of the insert depths
+	 * 
+	 * @return The number of inserts that visited each number of nodes
+	 */
+	long[] getInsertDepths();
+
+	/**
+	 * Getter for the mean insert depth
+	 * 
+	 * @return The mean number of nodes an insert visited
+	 */
+	double getMeanInsertDepth();
+
+	/**
+	 * Getter for the histogram of the remove depths
+	 * 
+	 * @return The number of removes that visited each number of nodes
+	 */
+	long[] getRemoveDepths();
+
+	/**
+	 * Getter for the mean remove depth
+	 * 
+	 * @return The mean number of nodes a remove visited
+	 */
+	double getMeanRemoveDepth();
+
+	/**
+	 * Getter for the current height of the tree
+	 * 
+	 * @return The height of the tree, 0 if it is empty
+	 */
+	int getHeight();
+
+	/**
+	 * Getter for the current number of nodes
+	 * 
+	 * @return The number of nodes in the tree
+	 */
+	int getSize();
+
+	/**
+	 * This method sets every counter back to zero
+	 */
+	void reset();
+}
\ No newline at end of file
@@ -0,0 +1,243 @@
+package com.dkhalife.projects;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.PrimitiveIterator;
+import java.util.zip.CRC32;
+
+/**
+ * This class saves trees to files and loads them back.
+ * 
+ * A snapshot is made of a header, the keys as a sorted array and a checksum,
+ * all big endian:
+ * magic (4 bytes) - "AVLS"
+ * version (4 bytes) - 1
+ * count (4 bytes) - the number of keys
+ * reserved (4 bytes) - 0
+ * keys (4 bytes each) - in strictly increasing order
+ * crc (4 bytes) - the CRC32 of everything before it
+ * 
+ * Loading maps the file into memory and builds the tree straight from the
+ * mapped keys in linear time, nothing is parsed or copied on the way.
+ * 
+ * @author Dany Khalife
+ */
+public final class AvlTreeSnapshot {
+	// The first bytes of every snapshot
+	static final int MAGIC = 0x41564C53;
+
+	// The version of the format
+	static final int VERSION = 1;
+
+	// The size of the header in bytes
+	static final int HEADER_BYTES = 16;
+
+	// The size of the buffer used to write a snapshot
+	private static final int BUFFER_BYTES = 1 << 16;
+
+	/**
+	 * This class only holds static methods
+	 */
+	private AvlTreeSnapshot() {
+	}
+
+	/**
+	 * This method saves a tree to a file. The snapshot is written next to the
+	 * file and then moved in its place, so the file is never left half
+	 * written. The directory is synced once it is moved, so the new snapshot
+	 * is still there after a crash when this returns
+	 * 
+	 * @param tree The tree to save
+	 * @param file The file to write
+	 * @throws IOException If the file can't be written
+	 */
+	public static void write(AvlTree tree, Path file) throws IOException {
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+		try {
+			try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				write(tree, channel);
+
+				// Make sure it is on disk before it replaces anything
+				channel.force(true);
+			}
+
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException | RuntimeException e) {
+			// Lets not leave half a snapshot behind
+			try {
+				Files.deleteIfExists(tmp);
+			}
+			catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+
+			throw e;
+		}
+
+		// The move is only durable once the directory is
+		sync(file.toAbsolutePath().getParent());
+	}
+
+	/**
+	 * This method forces the entries of a directory to disk
+	 * 
+	 * @param dir The directory
+	 * @throws IOException If the directory can't be synced
+	 */
+	static void sync(Path dir) throws IOException {
+		try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+			channel.force(true);
+		}
+	}
+
+	/**
+	 * This method writes a snapshot of a tree to a channel
+	 * 
+	 * @param tree The tree to save
+	 * @param channel Where to write the snapshot
+	 * @throws IOException If the channel can't be written
+	 */
+	static void write(AvlTree tree, FileChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+		CRC32 crc = new CRC32();
+
+		// Lets start with the header
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(tree.size());
+		buffer.putInt(0);
+
+		// Then stream the keys in order
+		for (PrimitiveIterator.OfInt it = tree.iterator(); it.hasNext();) {
+			// Is the buffer full?
+			if (buffer.remaining() < 4) {
+				flush(buffer, crc, channel);
+			}
+
+			buffer.putInt(it.nextInt());
+		}
+
+		flush(buffer, crc, channel);
+
+		// And end with the checksum of everything before it
+		buffer.putInt((int) crc.getValue());
+		buffer.flip();
+
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * This method loads a tree from a file
+	 * 
+	 * @param file The file to read
+	 * @return The tree
+	 * @throws IOException If the file can't be read or isn't a valid snapshot
+	 */
+	public static AvlTree read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return read(channel);
+		}
+	}
+
+	/**
+	 * This method loads a tree from a channel holding a snapshot and nothing
+	 * else
+	 * 
+	 * @param channel The channel to read
+	 * @return The tree
+	 * @throws IOException If the channel can't be read or doesn't hold a
+	 *         valid snapshot
+	 */
+	static AvlTree read(FileChannel channel) throws IOException {
+		long length = channel.size();
+
+		// Is there a header at all?
+		if (length < HEADER_BYTES + 4) {
+			throw new IOException("The snapshot is truncated");
+		}
+
+		// A single mapping can't go beyond 2GB, which is about 500M keys
+		if (length > Integer.MAX_VALUE) {
+			throw new IOException("The snapshot is too large to be mapped");
+		}
+
+		MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+
+		// Lets check the header
+		if (mapped.getInt(0) != MAGIC) {
+			throw new IOException("This isn't a snapshot");
+		}
+
+		if (mapped.getInt(4) != VERSION) {
+			throw new IOException("Unsupported snapshot version: " + mapped.getInt(4));
+		}
+
+		int count = mapped.getInt(8);
+		long end = HEADER_BYTES + 4L * count;
+
+		if ((count < 0) || (end + 4 != length)) {
+			throw new IOException("The snapshot doesn't hold " + count + " keys");
+		}
+
+		// Then the checksum
+		ByteBuffer body = mapped.duplicate();
+		body.limit((int) end);
+
+		CRC32 crc = new CRC32();
+		crc.update(body);
+
+		if ((int) crc.getValue() != mapped.getInt((int) end)) {
+			throw new IOException("The snapshot is corrupted");
+		}
+
+		// Finally build the tree straight from the mapped keys
+		mapped.position(HEADER_BYTES);
+		final IntBuffer keys = mapped.slice().asIntBuffer();
+		keys.limit(count);
+
+		try {
+			return AvlTree.fromSorted(new PrimitiveIterator.OfInt() {
+				public boolean hasNext() {
+					return keys.hasRemaining();
+				}
+
+				public int nextInt() {
+					return keys.get();
+				}
+			}, count);
+		}
+		catch (IllegalArgumentException e) {
+			throw new IOException("The keys of the snapshot are out of order", e);
+		}
+	}
+
+	/**
+	 * This method writes out what a buffer holds and empties it
+	 * 
+	 * @param buffer The buffer to write out
+	 * @param crc The checksum to update
+	 * @param channel Where to write
+	 * @throws IOException If the channel can't be written
+	 */
+	private static void flush(ByteBuffer buffer, CRC32 crc, FileChannel channel) throws IOException {
+		buffer.flip();
+		crc.update(buffer.duplicate());
+
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+
+		buffer.clear();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.dkhalife.projects;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * This class covers the elements of a tree for streams. It always covers a
+ * single node followed by a whole subtree, so that splitting it hands over a
+ * subtree and its size is known exactly.
+ * 
+ * The tree must not be modified while it is being covered.
+ * 
+ * @author Dany Khalife
+ */
+class AvlTreeSpliterator implements Spliterator.OfInt {
+	// The node to cover first, if any
+	private AvlNode single;
+
+	// The subtree to cover after it
+	private AvlNode subtree;
+
+	// Did we start covering the subtree?
+	private boolean started = false;
+	// The next node of the subtree to cover
+	private AvlNode next = null;
+
+	// The number of elements left to cover
+	private int remaining;
+
+	/**
+	 * A spliterator is created by specifying what it covers
+	 * 
+	 * @param single The node to cover first, or null
+	 * @param subtree The subtree to cover after it, or null
+	 */
+	AvlTreeSpliterator(AvlNode single, AvlNode subtree) {
+		this.single = single;
+		this.subtree = subtree;
+		this.remaining = ((single != null) ? 1 : 0) + AvlNode.size(subtree);
+	}
+
+	/**
+	 * This method overrides the super method in order to hand over the lower
+	 * part of what is left to cover
+	 */
+	public Spliterator.OfInt trySplit() {
+		// Did we start covering the subtree already?
+		if ((this.subtree == null) || this.started) {
+			return null;
+		}
+
+		// Is there anything worth handing over?
+		AvlNode left = this.subtree.getLeft();
+		if ((this.single == null) && (left == null)) {
+			return null;
+		}
+
+		// The lower part is what we cover up to the root of the subtree
+		AvlTreeSpliterator prefix = new AvlTreeSpliterator(this.single, left);
+
+		// We keep the root and the subtree on its right
+		this.single = this.subtree;
+		this.subtree = this.subtree.getRight();
+		this.remaining -= prefix.remaining;
+
+		return prefix;
+	}
+
+	/**
+	 * This method overrides the super method in order to cover the next
+	 * element
+	 */
+	public boolean tryAdvance(IntConsumer action) {
+		AvlNode n = advance();
+
+		// Are we done?
+		if (n == null) {
+			return false;
+		}
+
+		action.accept(n.getElem().intValue());
+		return true;
+	}
+
+	/**
+	 * This method overrides the super method in order to cover every element
+	 * left without going through tryAdvance
+	 */
+	public void forEachRemaining(IntConsumer action) {
+		for (AvlNode n = advance(); n != null; n = advance()) {
+			action.accept(n.getElem().intValue());
+		}
+	}
+
+	/**
+	 * This method overrides the super method with the exact number of
+	 * elements left
+	 */
+	public long estimateSize() {
+		return this.remaining;
+	}
+
+	/**
+	 * This method overrides the super method, the elements are sorted in
+	 * their natural order and the sizes are exact
+	 */
+	public int characteristics() {
+		return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+	}
+
+	/**
+	 * This method overrides the super method, the elements are in their
+	 * natural order
+	 */
+	public Comparator<? super Integer> getComparator() {
+		return null;
+	}
+
+	/**
+	 * This method steps to the next node to cover
+	 * 
+	 * @return The next node, null if we are done
+	 */
+	private AvlNode advance() {
+		// Do we have a node before the subtree?
+		if (this.single != null) {
+			AvlNode n = this.single;
+			this.single = null;
+
+			this.remaining--;
+			return n;
+		}
+
+		// Are we starting on the subtree?
+		if (!this.started) {
+			this.started = true;
+
+			if (this.subtree != null) {
+				this.next = findMin(this.subtree);
+			}
+		}
+
+		AvlNode n = this.next;
+
+		// Are we done?
+		if (n == null) {
+			return null;
+		}
+
+		this.next = successor(n);
+
+		this.remaining--;
+		return n;
+	}
+
+	/**
+	 * This method finds the node that follows the given node in order without
+	 * leaving the subtree
+	 * 
+	 * @param n The node from which to start the search
+	 * @return The next node, null if it is the maximum of the subtree
+	 */
+	private AvlNode successor(AvlNode n) {
+		// Is it in the right subtree?
+		if (n.getRight() != null) {
+			return findMin(n.getRight());
+		}
+
+		// Otherwise climb until we come from the left
+		while ((n != this.subtree) && (n.getParent().getRight() == n)) {
+			n = n.getParent();
+		}
+
+		// Did we climb out of the subtree?
+		if (n == this.subtree) {
+			return null;
+		}
+
+		return n.getParent();
+	}
+
+	/**
+	 * This method finds the minimum of a subtree
+	 * 
+	 * @param n The root of the subtree
+	 * @return The minimum node
+	 */
+	private static AvlNode findMin(AvlNode n) {
+		while (n.getLeft() != null) {
+			n = n.getLeft();
+		}
+
+		return n;
+	}
+}
\ No newline at end of file
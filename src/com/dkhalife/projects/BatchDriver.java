@@ -0,0 +1,425 @@
+package com.dkhalife.projects;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import javax.imageio.ImageIO;
+
+/**
+ * This class applies a trace of operations to a tree without any user
+ * interface, then reports how fast it went.
+ * 
+ * Usage: BatchDriver [file|-] [--image=tree.png] [--metrics]
+ * [--png=tree.png] [--svg=tree.svg] [--dot=tree.dot] [--cell=20]
+ * 
+ * The trace is read from the file, or from the standard input if there is
+ * none or it is "-". Every line holds an operation and an integer:
+ * insert 42 (or i 42)
+ * remove 42 (or r 42, delete 42, d 42)
+ * lookup 42 (or l 42, find 42, f 42)
+ * Empty lines and lines starting with # are skipped.
+ * 
+ * --image saves what the viewer would show, while --png, --svg and --dot
+ * save the whole tree, drawn with cells of the given size in pixels.
+ * 
+ * @author Dany Khalife
+ */
+public final class BatchDriver {
+	// The percentiles to report
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+	// How they are labelled
+	private static final String[] LABELS = { "p50", "p90", "p99", "p99.9" };
+
+	// What is shown when the options don't make sense
+	private static final String USAGE = "Usage: BatchDriver [file|-] [--image=tree.png] [--metrics] [--png=tree.png] [--svg=tree.svg] [--dot=tree.dot] [--cell=20]";
+
+	/**
+	 * This class only holds static methods
+	 */
+	private BatchDriver() {
+	}
+
+	/**
+	 * This method runs a trace
+	 * 
+	 * @param args The trace file and the options
+	 * @throws IOException If the trace can't be read or the image written
+	 */
+	public static void main(String[] args) throws IOException {
+		// Nothing here needs a display
+		System.setProperty("java.awt.headless", "true");
+
+		String trace = "-";
+		String image = null;
+		String png = null;
+		String svg = null;
+		String dot = null;
+		int cell = 20;
+		boolean metrics = false;
+
+		// Lets read the options
+		for (String arg : args) {
+			if (arg.startsWith("--image=")) {
+				image = arg.substring(8);
+			}
+			else if (arg.startsWith("--png=")) {
+				png = arg.substring(6);
+			}
+			else if (arg.startsWith("--svg=")) {
+				svg = arg.substring(6);
+			}
+			else if (arg.startsWith("--dot=")) {
+				dot = arg.substring(6);
+			}
+			else if (arg.startsWith("--cell=")) {
+				cell = Integer.parseInt(arg.substring(7));
+			}
+			else if (arg.equals("--metrics")) {
+				metrics = true;
+			}
+			// Is it an option we don't know?
+			else if (arg.startsWith("--")) {
+				usage("Unknown option: " + arg);
+				return;
+			}
+			// Or a second trace?
+			else if (!trace.equals("-")) {
+				usage("Only one trace can be given: " + arg);
+				return;
+			}
+			else {
+				trace = arg;
+			}
+		}
+
+		AvlTree tree = new AvlTree();
+		if (metrics) {
+			tree.enableMetrics();
+		}
+
+		// One histogram per kind of operation
+		LatencyHistogram inserts = new LatencyHistogram();
+		LatencyHistogram removes = new LatencyHistogram();
+		LatencyHistogram lookups = new LatencyHistogram();
+
+		long hits = 0;
+		long start = System.nanoTime();
+
+		try (BufferedReader in = trace.equals("-") ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16) : Files.newBufferedReader(Paths.get(trace), StandardCharsets.UTF_8)) {
+			int lineNumber = 0;
+
+			for (String line = in.readLine(); line != null; line = in.readLine()) {
+				lineNumber++;
+				line = line.trim();
+
+				// Is there anything on it?
+				if (line.isEmpty() || (line.charAt(0) == '#')) {
+					continue;
+				}
+
+				int space = line.indexOf(' ');
+				if (space < 0) {
+					throw new IOException("Line " + lineNumber + ": expected an operation and an integer");
+				}
+
+				String op = line.substring(0, space);
+				Integer e;
+
+				try {
+					e = Integer.valueOf(line.substring(space + 1).trim());
+				}
+				catch (NumberFormatException ex) {
+					throw new IOException("Line " + lineNumber + ": not an integer", ex);
+				}
+
+				long t;
+
+				switch (op) {
+				case "i":
+				case "insert":
+					t = System.nanoTime();
+					tree.insert(e);
+					inserts.record(System.nanoTime() - t);
+					break;
+				case "r":
+				case "remove":
+				case "d":
+				case "delete":
+					t = System.nanoTime();
+					tree.remove(e);
+					removes.record(System.nanoTime() - t);
+					break;
+				case "l":
+				case "lookup":
+				case "f":
+				case "find":
+					t = System.nanoTime();
+					boolean found = tree.find(e) != null;
+					lookups.record(System.nanoTime() - t);
+
+					if (found) {
+						hits++;
+					}
+					break;
+				default:
+					throw new IOException("Line " + lineNumber + ": unknown operation " + op);
+				}
+			}
+		}
+
+		long wall = System.nanoTime() - start;
+
+		// Now the report
+		long ops = inserts.count() + removes.count() + lookups.count();
+		long busy = inserts.total() + removes.total() + lookups.total();
+
+		// Was there anything in the trace? There are no rates without
+		// operations
+		if (ops == 0) {
+			System.out.println("0 operations");
+		}
+		else {
+			System.out.printf("operations %d (%d inserts, %d removes, %d lookups, %d found)%n", ops, inserts.count(), removes.count(), lookups.count(), hits);
+			System.out.printf("wall time %.3f s, %.0f ops/s including parsing%n", wall / 1e9, ops / (wall / 1e9));
+			System.out.printf("tree time %.3f s, %.0f ops/s%n", busy / 1e9, ops / (busy / 1e9));
+
+			report("insert", inserts);
+			report("remove", removes);
+			report("lookup", lookups);
+		}
+
+		AvlNode root = tree.getRoot();
+		System.out.printf("final size %d, height %d%n", tree.size(), (root == null) ? 0 : root.height());
+
+		if (metrics) {
+			System.out.print(tree.getMetrics().dump());
+		}
+
+		// Should we show what it looks like?
+		if (image != null) {
+			render(tree, new File(image));
+		}
+
+		// Or the whole of it
+		if ((png != null) || (svg != null)) {
+			TreeExporter exporter = new TreeExporter(root, cell);
+
+			if (png != null) {
+				try (OutputStream out = Files.newOutputStream(Paths.get(png))) {
+					exporter.writePng(new BufferedOutputStream(out, 1 << 16));
+				}
+			}
+
+			if (svg != null) {
+				try (Writer out = Files.newBufferedWriter(Paths.get(svg), StandardCharsets.UTF_8)) {
+					exporter.writeSvg(out);
+				}
+			}
+		}
+
+		if (dot != null) {
+			try (Writer out = Files.newBufferedWriter(Paths.get(dot), StandardCharsets.UTF_8)) {
+				TreeExporter.writeDot(root, out);
+			}
+		}
+	}
+
+	/**
+	 * This method explains what went wrong with the options and how to use
+	 * them, then exits
+	 * 
+	 * @param error What went wrong
+	 */
+	private static void usage(String error) {
+		System.err.println(error);
+		System.err.println(USAGE);
+		System.exit(2);
+	}
+
+	/**
+	 * This method prints the latencies of a kind of operation
+	 * 
+	 * @param name The name of the operation
+	 * @param h The latencies
+	 */
+	private static void report(String name, LatencyHistogram h) {
+		// Did we do any?
+		if (h.count() == 0) {
+			return;
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%s latency ns: mean %.0f", name, (double) h.total() / h.count()));
+
+		for (int i = 0; i < PERCENTILES.length; i++) {
+			sb.append(", ").append(LABELS[i]).append(' ').append(h.percentile(PERCENTILES[i]));
+		}
+
+		sb.append(", max ").append(h.max());
+		System.out.println(sb);
+	}
+
+	/**
+	 * This method paints a tree the way the viewer does and saves it
+	 * 
+	 * @param tree The tree to paint
+	 * @param file The PNG file to write
+	 * @throws IOException If the file can't be written
+	 */
+	private static void render(AvlTree tree, File file) throws IOException {
+		BufferedImage img;
+
+		try (Panel panel = new Panel(50, 20)) {
+			panel.setSize(panel.getPreferredSize());
+			panel.setTree(tree);
+
+			// Wait for the panel to lay it out
+			panel.sync();
+
+			img = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+			Graphics2D g = img.createGraphics();
+
+			try {
+				panel.paint(g);
+			}
+			finally {
+				g.dispose();
+			}
+		}
+
+		ImageIO.write(img, "png", file);
+	}
+
+	/**
+	 * This class counts latencies in buckets that are about 3% wide, so any
+	 * number of them fits in a few kilobytes
+	 */
+	static final class LatencyHistogram {
+		// The number of buckets per power of two
+		private static final int SUB_BUCKETS = 32;
+		// The latencies below this one each have their own bucket
+		private static final int LINEAR = 2 * SUB_BUCKETS;
+
+		// The number of latencies per bucket
+		private final long[] counts = new long[LINEAR + (63 - 6 + 1) * SUB_BUCKETS];
+
+		// The number of latencies
+		private long count = 0;
+		// Their sum
+		private long total = 0;
+		// The largest one
+		private long max = 0;
+
+		/**
+		 * This method counts a latency
+		 * 
+		 * @param nanos The latency in nanoseconds
+		 */
+		void record(long nanos) {
+			// The clock can't go backwards, but lets be safe
+			if (nanos < 0) {
+				nanos = 0;
+			}
+
+			this.counts[index(nanos)]++;
+			this.count++;
+			this.total += nanos;
+			this.max = Math.max(this.max, nanos);
+		}
+
+		/**
+		 * Getter for the number of latencies
+		 * 
+		 * @return The number of latencies
+		 */
+		long count() {
+			return this.count;
+		}
+
+		/**
+		 * Getter for the sum of the latencies
+		 * 
+		 * @return The sum in nanoseconds
+		 */
+		long total() {
+			return this.total;
+		}
+
+		/**
+		 * Getter for the largest latency
+		 * 
+		 * @return The largest latency in nanoseconds
+		 */
+		long max() {
+			return this.max;
+		}
+
+		/**
+		 * This method finds the latency below which a given share of them are
+		 * 
+		 * @param p The share, in percent
+		 * @return The lower bound of the bucket holding it, in nanoseconds
+		 */
+		long percentile(double p) {
+			long rank = (long) Math.ceil(this.count * p / 100);
+			long seen = 0;
+
+			for (int i = 0; i < this.counts.length; i++) {
+				seen += this.counts[i];
+
+				if ((seen >= rank) && (seen > 0)) {
+					return Math.min(lowerBound(i), this.max);
+				}
+			}
+
+			return this.max;
+		}
+
+		/**
+		 * This method finds the bucket of a latency
+		 * 
+		 * @param v The latency
+		 * @return The index of its bucket
+		 */
+		static int index(long v) {
+			// Is it small enough to have its own bucket?
+			if (v < LINEAR) {
+				return (int) v;
+			}
+
+			// Otherwise split its power of two in sub buckets
+			int exponent = 63 - Long.numberOfLeadingZeros(v);
+			int shift = exponent - 5;
+
+			return LINEAR + (exponent - 6) * SUB_BUCKETS + (int) ((v >>> shift) - SUB_BUCKETS);
+		}
+
+		/**
+		 * This method finds the smallest latency of a bucket
+		 * 
+		 * @param i The index of the bucket
+		 * @return The smallest latency it holds
+		 */
+		static long lowerBound(int i) {
+			// Does it hold a single latency?
+			if (i < LINEAR) {
+				return i;
+			}
+
+			int exponent = (i - LINEAR) / SUB_BUCKETS + 6;
+			int sub = (i - LINEAR) % SUB_BUCKETS;
+
+			return (long) (sub + SUB_BUCKETS) << (exponent - 5);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.dkhalife.projects;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class represents an AVL Tree that can be used by many threads at once.
+ * 
+ * It holds the current version of a {@link PersistentAvlTree}. A writer makes
+ * a new version, copying the path it changes, then publishes it only if no
+ * other writer got there first, otherwise it tries again on top of the newer
+ * version. Lookups read whichever version is current without locking or
+ * retrying.
+ * 
+ * Every writer goes through the same root, so writers never run any faster
+ * than behind a single lock, and a writer that loses the race throws its path
+ * away. The tree is meant for mostly read workloads and for cheap snapshots,
+ * ConcurrentSkipListSet or a locked AvlTree do as well or better when most
+ * operations are updates.
+ * 
+ * @author Dany Khalife
+ */
+public class ConcurrentAvlTree {
+	// The current version of the tree
+	private final AtomicReference<PersistentAvlTree> current = new AtomicReference<PersistentAvlTree>(PersistentAvlTree.EMPTY);
+
+	/**
+	 * This method inserts an integer into the tree
+	 * 
+	 * @param e The integer to insert
+	 * @return True if it wasn't already in the tree
+	 */
+	public boolean insert(int e) {
+		while (true) {
+			PersistentAvlTree version = this.current.get();
+			PersistentAvlTree updated = version.insert(e);
+
+			// Was it already there?
+			if (updated == version) {
+				return false;
+			}
+
+			// Did we win against the other writers?
+			if (this.current.compareAndSet(version, updated)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * This method removes an element from the tree
+	 * 
+	 * @param e The integer to remove
+	 * @return True if it was in the tree
+	 */
+	public boolean remove(int e) {
+		while (true) {
+			PersistentAvlTree version = this.current.get();
+			PersistentAvlTree updated = version.remove(e);
+
+			// Was it there at all?
+			if (updated == version) {
+				return false;
+			}
+
+			// Did we win against the other writers?
+			if (this.current.compareAndSet(version, updated)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * This method determines if the tree holds an element, it never blocks
+	 * 
+	 * @param e The integer to look for
+	 * @return True if it is in the tree
+	 */
+	public boolean contains(int e) {
+		return this.current.get().contains(e);
+	}
+
+	/**
+	 * Getter for the number of elements
+	 * 
+	 * @return The number of elements in the tree
+	 */
+	public int size() {
+		return this.current.get().size();
+	}
+
+	/**
+	 * Getter for the height of the tree
+	 * 
+	 * @return The height of the tree, 0 if it is empty
+	 */
+	public int height() {
+		return this.current.get().height();
+	}
+
+	/**
+	 * This method captures the current version of the tree in constant time,
+	 * it won't see the writes that follow
+	 * 
+	 * @return The current version
+	 */
+	public PersistentAvlTree snapshot() {
+		return this.current.get();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.dkhalife.projects;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * This class stores the nodes off heap in direct buffers, each node being 4
+ * consecutive ints (key, left, right and height) so that a node is read from a
+ * single cache line
+ * 
+ * @author Dany Khalife
+ */
+public class DirectNodePool extends AvlNodePool {
+	// The number of ints used by a node
+	private static final int STRIDE = 4;
+
+	// The offset of the key within a node
+	private static final int KEY = 0;
+	// The offset of the left child within a node
+	private static final int LEFT = 1;
+	// The offset of the right child within a node
+	private static final int RIGHT = 2;
+	// The offset of the height within a node
+	private static final int HEIGHT = 3;
+
+	// The chunks of nodes
+	private IntBuffer[] chunks = new IntBuffer[0];
+
+	/**
+	 * This method overrides the super method with the size of a node
+	 */
+	public int bytesPerNode() {
+		return STRIDE * Integer.BYTES;
+	}
+
+	/**
+	 * This method overrides the super method in order to allocate the buffer
+	 * of the new chunk
+	 */
+	protected void grow(int chunk) {
+		// Make room for the new chunk
+		if (chunk == this.chunks.length) {
+			this.chunks = Arrays.copyOf(this.chunks, Math.max(4, chunk * 2));
+		}
+
+		this.chunks[chunk] = ByteBuffer.allocateDirect(CHUNK_SIZE * STRIDE * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+	}
+
+	/**
+	 * This method overrides the super method with the key read from the buffer
+	 * of its chunk
+	 */
+	public int getKey(int n) {
+		return this.chunks[n >>> CHUNK_BITS].get((n & CHUNK_MASK) * STRIDE + KEY);
+	}
+
+	/**
+	 * This method overrides the super method in order to write the key into
+	 * the buffer of its chunk
+	 */
+	public void setKey(int n, int key) {
+		this.chunks[n >>> CHUNK_BITS].put((n & CHUNK_MASK) * STRIDE + KEY, key);
+	}
+
+	/**
+	 * This method overrides the super method with the left child read from the
+	 * buffer of its chunk
+	 */
+	public int getLeft(int n) {
+		return this.chunks[n >>> CHUNK_BITS].get((n & CHUNK_MASK) * STRIDE + LEFT);
+	}
+
+	/**
+	 * This method overrides the super method in order to write the left child
+	 * into the buffer of its chunk
+	 */
+	public void setLeft(int n, int left) {
+		this.chunks[n >>> CHUNK_BITS].put((n & CHUNK_MASK) * STRIDE + LEFT, left);
+	}
+
+	/**
+	 * This method overrides the super method with the right child read from
+	 * the buffer of its chunk
+	 */
+	public int getRight(int n) {
+		return this.chunks[n >>> CHUNK_BITS].get((n & CHUNK_MASK) * STRIDE + RIGHT);
+	}
+
+	/**
+	 * This method overrides the super method in order to write the right child
+	 * into the buffer of its chunk
+	 */
+	public void setRight(int n, int right) {
+		this.chunks[n >>> CHUNK_BITS].put((n & CHUNK_MASK) * STRIDE + RIGHT, right);
+	}
+
+	/**
+	 * This method overrides the super method with the height read from the
+	 * buffer of its chunk
+	 */
+	public int getHeight(int n) {
+		return this.chunks[n >>> CHUNK_BITS].get((n & CHUNK_MASK) * STRIDE + HEIGHT);
+	}
+
+	/**
+	 * This method overrides the super method in order to write the height into
+	 * the buffer of its chunk
+	 */
+	public void setHeight(int n, int height) {
+		this.chunks[n >>> CHUNK_BITS].put((n & CHUNK_MASK) * STRIDE + HEIGHT, height);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.dkhalife.projects;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class represents an AVL Tree that survives restarts. It lives in a
+ * directory holding its last snapshot and the log of what changed since.
+ * 
+ * Changes are logged as they are made and become durable once committed. A
+ * checkpoint writes a new snapshot and empties the log. Opening the tree
+ * loads the snapshot and replays the log on top of it.
+ * 
+ * @author Dany Khalife
+ */
+public class DurableAvlTree implements Closeable {
+	// The name of the snapshot in the directory
+	static final String SNAPSHOT = "tree.avl";
+	// The name of the log in the directory
+	static final String LOG = "tree.log";
+
+	// The tree in memory
+	private final AvlTree tree;
+
+	// The file of the snapshot
+	private final Path snapshot;
+
+	// The log of the changes since the snapshot
+	private final OperationLog log;
+
+	// The number of operations replayed when opening
+	private final int replayed;
+	// How long loading and replaying took, in nanoseconds
+	private final long replayNanos;
+
+	/**
+	 * A durable tree is opened by specifying its directory and how to log the
+	 * changes
+	 * 
+	 * @param directory The directory of the tree, created if it doesn't exist
+	 * @param batchSize The number of changes per batch of the log
+	 * @param policy When the log forces its writes to the disk
+	 * @param intervalMillis The time between two forced writes for the
+	 *        interval policy
+	 * @throws IOException If the tree can't be loaded
+	 */
+	public DurableAvlTree(Path directory, int batchSize, OperationLog.FsyncPolicy policy, long intervalMillis) throws IOException {
+		Files.createDirectories(directory);
+
+		this.snapshot = directory.resolve(SNAPSHOT);
+		Path logFile = directory.resolve(LOG);
+
+		long start = System.nanoTime();
+
+		// Lets start from the last checkpoint, if any
+		this.tree = Files.exists(this.snapshot) ? AvlTreeSnapshot.read(this.snapshot) : new AvlTree();
+
+		// Then catch up with the log
+		this.replayed = OperationLog.replay(logFile, this.tree);
+		this.replayNanos = System.nanoTime() - start;
+
+		this.log = new OperationLog(logFile, batchSize, policy, intervalMillis);
+	}
+
+	/**
+	 * This method inserts an integer into the tree
+	 * 
+	 * @param e The integer to insert
+	 * @return True if it wasn't already in the tree
+	 * @throws IOException If the log can't be written
+	 */
+	public synchronized boolean insert(int e) throws IOException {
+		// Is it already there? This isn't a search of the caller, so it isn't
+		// counted as one
+		if (this.tree.lookup(e) != null) {
+			return false;
+		}
+
+		this.log.insert(e);
+		this.tree.insert(Integer.valueOf(e));
+
+		return true;
+	}
+
+	/**
+	 * This method removes an integer from the tree
+	 * 
+	 * @param e The integer to remove
+	 * @return True if it was in the tree
+	 * @throws IOException If the log can't be written
+	 */
+	public synchronized boolean remove(int e) throws IOException {
+		// Is it there at all?
+		if (this.tree.lookup(e) == null) {
+			return false;
+		}
+
+		this.log.remove(e);
+		this.tree.remove(Integer.valueOf(e));
+
+		return true;
+	}
+
+	/**
+	 * This method determines if the tree holds an integer
+	 * 
+	 * @param e The integer to look for
+	 * @return True if it is in the tree
+	 */
+	public synchronized boolean contains(int e) {
+		return this.tree.find(Integer.valueOf(e)) != null;
+	}
+
+	/**
+	 * Getter for the number of integers
+	 * 
+	 * @return The number of integers in the tree
+	 */
+	public synchronized int size() {
+		return this.tree.size();
+	}
+
+	/**
+	 * This method makes the changes so far durable
+	 * 
+	 * @throws IOException If the log can't be written
+	 */
+	public synchronized void commit() throws IOException {
+		this.log.commit();
+	}
+
+	/**
+	 * This method writes a snapshot of the tree and empties the log. The log
+	 * is only emptied once the snapshot and its directory are synced. If it
+	 * fails in between, replaying the log again on the new snapshot gives the
+	 * same tree
+	 * 
+	 * @throws IOException If the snapshot can't be written
+	 */
+	public synchronized void checkpoint() throws IOException {
+		this.log.commit();
+
+		// This returns once the new snapshot is durable
+		AvlTreeSnapshot.write(this.tree, this.snapshot);
+
+		this.log.clear();
+	}
+
+	/**
+	 * Getter for the number of operations replayed when opening
+	 * 
+	 * @return The number of operations read from the log
+	 */
+	public int getReplayedOperations() {
+		return this.replayed;
+	}
+
+	/**
+	 * Getter for how long opening took
+	 * 
+	 * @return The time spent loading the snapshot and replaying the log, in
+	 *         nanoseconds
+	 */
+	public long getReplayNanos() {
+		return this.replayNanos;
+	}
+
+	/**
+	 * This method commits the changes and closes the log
+	 */
+	public synchronized void close() throws IOException {
+		this.log.close();
+	}
+}
\ No newline at end of file
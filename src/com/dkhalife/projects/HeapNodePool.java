@@ -0,0 +1,112 @@
+package com.dkhalife.projects;
+
+import java.util.Arrays;
+
+/**
+ * This class stores the nodes in parallel int arrays on the heap, one chunk
+ * at a time so that growing never copies existing nodes
+ * 
+ * @author Dany Khalife
+ */
+public class HeapNodePool extends AvlNodePool {
+	// The keys of the nodes
+	private int[][] keys = new int[0][];
+	// The left children of the nodes
+	private int[][] lefts = new int[0][];
+	// The right children of the nodes
+	private int[][] rights = new int[0][];
+	// The heights of the nodes
+	private int[][] heights = new int[0][];
+
+	/**
+	 * This method overrides the super method with the size of the 4 arrays
+	 */
+	public int bytesPerNode() {
+		return 4 * Integer.BYTES;
+	}
+
+	/**
+	 * This method overrides the super method in order to allocate the arrays
+	 * of the new chunk
+	 */
+	protected void grow(int chunk) {
+		// Make room for the new chunk
+		if (chunk == this.keys.length) {
+			int length = Math.max(4, chunk * 2);
+
+			this.keys = Arrays.copyOf(this.keys, length);
+			this.lefts = Arrays.copyOf(this.lefts, length);
+			this.rights = Arrays.copyOf(this.rights, length);
+			this.heights = Arrays.copyOf(this.heights, length);
+		}
+
+		this.keys[chunk] = new int[CHUNK_SIZE];
+		this.lefts[chunk] = new int[CHUNK_SIZE];
+		this.rights[chunk] = new int[CHUNK_SIZE];
+		this.heights[chunk] = new int[CHUNK_SIZE];
+	}
+
+	/**
+	 * This method overrides the super method with the key from its chunk of
+	 * the array
+	 */
+	public int getKey(int n) {
+		return this.keys[n >>> CHUNK_BITS][n & CHUNK_MASK];
+	}
+
+	/**
+	 * This method overrides the super method in order to store the key in its
+	 * chunk of the array
+	 */
+	public void setKey(int n, int key) {
+		this.keys[n >>> CHUNK_BITS][n & CHUNK_MASK] = key;
+	}
+
+	/**
+	 * This method overrides the super method with the left child from its
+	 * chunk of the array
+	 */
+	public int getLeft(int n) {
+		return this.lefts[n >>> CHUNK_BITS][n & CHUNK_MASK];
+	}
+
+	/**
+	 * This method overrides the super method in order to store the left child
+	 * in its chunk of the array
+	 */
+	public void setLeft(int n, int left) {
+		this.lefts[n >>> CHUNK_BITS][n & CHUNK_MASK] = left;
+	}
+
+	/**
+	 * This method overrides the super method with the right child from its
+	 * chunk of the array
+	 */
+	public int getRight(int n) {
+		return this.rights[n >>> CHUNK_BITS][n & CHUNK_MASK];
+	}
+
+	/**
+	 * This method overrides the super method in order to store the right child
+	 * in its chunk of the array
+	 */
+	public void setRight(int n, int right) {
+		this.rights[n >>> CHUNK_BITS][n & CHUNK_MASK] = right;
+	}
+
+	/**
+	 * This method overrides the super method with the height from its chunk of
+	 * the array
+	 */
+	public int getHeight(int n) {
+		return this.heights[n >>> CHUNK_BITS][n & CHUNK_MASK];
+	}
+
+	/**
+	 * This method overrides the super method in order to store the height in
+	 * its chunk of the array
+	 */
+	public void setHeight(int n, int height) {
+		this.heights[n >>> CHUNK_BITS][n & CHUNK_MASK] = height;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.dkhalife.projects;
+
+/**
+ * This class identifies a node in the primitive int tree, the value is stored
+ * unboxed
+ * 
+ * @author Dany Khalife
+ */
+public class IntAvlNode extends AbstractAvlNode<IntAvlNode> {
+	// The value this node holds
+	private int elem;
+
+	/**
+	 * An AVLNode can be created by specifying the integer it holds
+	 * 
+	 * @param e The integer to save in this node
+	 */
+	public IntAvlNode(int e) {
+		this.elem = e;
+	}
+
+	/**
+	 * Getter for the left node
+	 * 
+	 * @return The left node
+	 */
+	public IntAvlNode getLeft() {
+		return this.left;
+	}
+
+	/**
+	 * Setter for the left node
+	 * 
+	 * @param left The new left node
+	 */
+	public void setLeft(IntAvlNode left) {
+		this.left = left;
+	}
+
+	/**
+	 * Getter for the right node
+	 * 
+	 * @return The right node
+	 */
+	public IntAvlNode getRight() {
+		return this.right;
+	}
+
+	/**
+	 * Setter for the right node
+	 * 
+	 * @param right The new right node
+	 */
+	public void setRight(IntAvlNode right) {
+		this.right = right;
+	}
+
+	/**
+	 * Getter for the parent
+	 * 
+	 * @return The parent of this node
+	 */
+	public IntAvlNode getParent() {
+		return this.parent;
+	}
+
+	/**
+	 * Setter for the parent
+	 * 
+	 * @param parent The new parent of this node
+	 */
+	public void setParent(IntAvlNode parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Getter for the data this node holds
+	 * 
+	 * @return The integer this node holds
+	 */
+	public int getElem() {
+		return this.elem;
+	}
+
+	/**
+	 * Setter for the data this node holds
+	 * 
+	 * @param elem The integer to hold in this node
+	 */
+	public void setElem(int elem) {
+		this.elem = elem;
+	}
+
+	/**
+	 * Getter for the height of this node
+	 * 
+	 * @return The height for this node
+	 */
+	public int height() {
+		return this.height;
+	}
+
+	/**
+	 * This method determines the height difference for this node
+	 * 
+	 * @return The height difference between the left and right subtrees
+	 */
+	public int getHeightDiff() {
+		return height(getLeft()) - height(getRight());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,208 @@
+package com.dkhalife.projects;
+
+/**
+ * This class represents an AVL Tree of primitive integers, unlike
+ * {@link AvlTree} it never boxes its keys
+ * 
+ * @author Dany Khalife
+ */
+public class IntAvlTree {
+	// The root of the tree
+	private IntAvlNode root = null;
+
+	/**
+	 * This method inserts an integer into the tree
+	 * 
+	 * @param e
+	 */
+	public void insert(int e) {
+		// If we don't have a root, we'll make one
+		if (this.root == null) {
+			this.root = new IntAvlNode(e);
+			return;
+		}
+
+		// Otherwise we'll walk down to the leaf where it belongs
+		IntAvlNode n = this.root;
+
+		while (true) {
+			// We'll get the current element
+			int current = n.getElem();
+
+			// Should we go left
+			if (e < current) {
+				// Is this a leaf?
+				if (n.getLeft() == null) {
+					IntAvlNode newNode = new IntAvlNode(e);
+					newNode.setParent(n);
+					n.setLeft(newNode);
+					break;
+				}
+
+				n = n.getLeft();
+			}
+			// Or right?
+			else if (e > current) {
+				// Is this a leaf?
+				if (n.getRight() == null) {
+					IntAvlNode newNode = new IntAvlNode(e);
+					newNode.setParent(n);
+					n.setRight(newNode);
+					break;
+				}
+
+				n = n.getRight();
+			}
+			// Or is it already there?
+			else {
+				return;
+			}
+		}
+
+		this.root = AvlBalancer.balance(this.root, n, false, null);
+	}
+
+	/**
+	 * Getter for the root
+	 * 
+	 * @return The root of the tree
+	 */
+	public IntAvlNode getRoot() {
+		return this.root;
+	}
+
+	/**
+	 * This method removes an element from the tree
+	 * 
+	 * @param e The integer to remove
+	 */
+	public void remove(int e) {
+		// Lets find it first
+		IntAvlNode n = find(e);
+
+		// Is there anything to remove?
+		if (n == null) {
+			return;
+		}
+
+		remove(n);
+	}
+
+	/**
+	 * This method removes a node from the tree
+	 * 
+	 * @param n The node to remove
+	 */
+	private void remove(IntAvlNode n) {
+		this.root = AvlBalancer.remove(this.root, n, false, null);
+	}
+
+	/**
+	 * This method looks for an element in the tree
+	 * 
+	 * @param e The integer to look for
+	 * @return The node holding it, null if it isn't in the tree
+	 */
+	public IntAvlNode find(int e) {
+		IntAvlNode n = this.root;
+
+		while (n != null) {
+			// Should we go left
+			if (e < n.getElem()) {
+				n = n.getLeft();
+			}
+			// Or right?
+			else if (e > n.getElem()) {
+				n = n.getRight();
+			}
+			else {
+				return n;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * This method finds the minimum of a subtree starting at the given node
+	 * 
+	 * @param n The node from which to start the search
+	 * @return The minimum node
+	 */
+	public IntAvlNode findMin(IntAvlNode n) {
+		// Did we find anything?
+		if (n == null) {
+			return null;
+		}
+
+		// Recurse to the left
+		while (n.getLeft() != null) {
+			n = n.getLeft();
+		}
+
+		return n;
+	}
+
+	/**
+	 * This method finds the maximum of a subtree starting at the given node
+	 * 
+	 * @param n The node from which to start the search
+	 * @return The maximum node
+	 */
+	public IntAvlNode findMax(IntAvlNode n) {
+		// Did we find anything
+		if (n == null) {
+			return null;
+		}
+
+		// Recurse to the right
+		while (n.getRight() != null) {
+			n = n.getRight();
+		}
+
+		return n;
+	}
+
+	/**
+	 * This method prints the tree, each level indented by one more tab
+	 */
+	public void print() {
+		// Did we arrive at the end
+		if (this.root == null) {
+			return;
+		}
+
+		// The nodes left to print along with their depth, there can't be more
+		// pending nodes than levels in the tree
+		IntAvlNode[] nodes = new IntAvlNode[this.root.height()];
+		int[] depths = new int[this.root.height()];
+		int top = 0;
+
+		nodes[top++] = this.root;
+
+		while (top > 0) {
+			IntAvlNode n = nodes[--top];
+			int tabs = depths[top];
+
+			// Print the tabs
+			for (int i = 0; i < tabs; i++) {
+				System.out.print("\t");
+			}
+
+			// Print the element
+			System.out.println(n.getElem());
+
+			// Then the right side, after the left side
+			if (n.getRight() != null) {
+				nodes[top] = n.getRight();
+				depths[top++] = tabs + 1;
+			}
+
+			// Then the left side
+			if (n.getLeft() != null) {
+				nodes[top] = n.getLeft();
+				depths[top++] = tabs + 1;
+			}
+		}
+	}
+}
\ No newline at end of file
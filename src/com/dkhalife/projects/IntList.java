@@ -0,0 +1,66 @@
+package com.dkhalife.projects;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a list of integers that is emptied and filled again
+ * rather than allocated again, it only grows when it has to
+ * 
+ * @author Dany Khalife
+ */
+final class IntList {
+	// The integers, only the first ones are in the list
+	private int[] items;
+	// The number of integers in the list
+	private int size = 0;
+
+	/**
+	 * A list is created by specifying how many integers it can hold before
+	 * it has to grow
+	 * 
+	 * @param capacity The initial capacity
+	 */
+	IntList(int capacity) {
+		this.items = new int[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * This method adds an integer at the end of the list
+	 * 
+	 * @param e The integer to add
+	 */
+	void add(int e) {
+		// Is it full?
+		if (this.size == this.items.length) {
+			this.items = Arrays.copyOf(this.items, this.size * 2);
+		}
+
+		this.items[this.size++] = e;
+	}
+
+	/**
+	 * Getter for an integer of the list
+	 * 
+	 * @param i The index of the integer
+	 * @return The integer
+	 */
+	int get(int i) {
+		return this.items[i];
+	}
+
+	/**
+	 * Getter for the size
+	 * 
+	 * @return The number of integers in the list
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * This method empties the list, keeping its capacity
+	 */
+	void clear() {
+		this.size = 0;
+	}
+}
\ No newline at end of file
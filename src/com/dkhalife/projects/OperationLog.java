@@ -0,0 +1,548 @@
+package com.dkhalife.projects;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * This class is an append only log of the insertions and removals made to a
+ * tree, so they survive a crash between two snapshots.
+ * 
+ * Operations are gathered into batches, each batch is written as one frame:
+ * count (4 bytes) - the number of records
+ * records (5 bytes each) - the operation (1 for insert, 0 for remove) and the
+ * integer
+ * crc (4 bytes) - the CRC32 of the count and the records
+ * 
+ * A frame that was only partly written when the process died fails its
+ * checksum, the log is cut right before it the next time it is opened.
+ * 
+ * With the interval policy, a daemon thread of the log forces what was written
+ * once per interval even when nothing else is logged, until the log is
+ * closed.
+ * 
+ * @author Dany Khalife
+ */
+public class OperationLog implements Closeable {
+	// The operation of a record that inserts
+	static final byte INSERT = 1;
+	// The operation of a record that removes
+	static final byte REMOVE = 0;
+
+	// The size of a record in bytes
+	static final int RECORD_BYTES = 5;
+
+	/**
+	 * When the log forces what it wrote to the disk
+	 */
+	public enum FsyncPolicy {
+		// After every batch, nothing committed is ever lost
+		ALWAYS,
+		// At most once per interval, the last interval can be lost
+		INTERVAL,
+		// Only when closed, the system decides when to write the rest
+		NEVER
+	}
+
+	// The file being appended to
+	private final FileChannel channel;
+
+	// The number of records per batch
+	private final int batchSize;
+
+	// When to force the writes to the disk
+	private final FsyncPolicy policy;
+	// The time between two forced writes for the interval policy
+	private final long intervalNanos;
+	// When the writes were last forced
+	private long lastSync = System.nanoTime();
+	// Was anything written since then?
+	private boolean unsynced = false;
+
+	// The thread forcing the writes for the interval policy, null otherwise
+	private final ScheduledExecutorService syncer;
+	// Why the thread last failed to force the writes, if it did
+	private IOException syncFailure = null;
+
+	// The batch being gathered, its count is filled in when it is written
+	private final ByteBuffer frame;
+	// The number of records in the batch
+	private int pending = 0;
+
+	// The checksum of the frames
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * A log is opened by specifying its file and how to write to it
+	 * 
+	 * @param file The file of the log, created if it doesn't exist
+	 * @param batchSize The number of records per batch
+	 * @param policy When to force the writes to the disk
+	 * @param intervalMillis The time between two forced writes for the
+	 *        interval policy
+	 * @throws IOException If the file can't be opened
+	 * @throws IllegalArgumentException If the batch size or the interval
+	 *         isn't positive
+	 */
+	public OperationLog(Path file, int batchSize, FsyncPolicy policy, long intervalMillis) throws IOException {
+		// Is the batch size valid?
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+		}
+
+		// Is the interval valid?
+		if ((policy == FsyncPolicy.INTERVAL) && (intervalMillis <= 0)) {
+			throw new IllegalArgumentException("The interval must be positive: " + intervalMillis);
+		}
+
+		this.batchSize = batchSize;
+		this.policy = policy;
+		this.intervalNanos = intervalMillis * 1000000L;
+
+		this.frame = ByteBuffer.allocateDirect(4 + batchSize * RECORD_BYTES + 4);
+		this.frame.position(4);
+
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		// Cut off whatever was left of a frame that was being written
+		long end = validLength(this.channel);
+		this.channel.truncate(end);
+		this.channel.position(end);
+
+		// An idle log still has to be forced once per interval
+		if (policy == FsyncPolicy.INTERVAL) {
+			this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "OperationLog sync " + file.getFileName());
+				t.setDaemon(true);
+				return t;
+			});
+			this.syncer.scheduleWithFixedDelay(() -> syncIfDue(), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+		}
+		else {
+			this.syncer = null;
+		}
+	}
+
+	/**
+	 * This method logs an insertion
+	 * 
+	 * @param e The integer inserted
+	 * @throws IOException If a full batch can't be written
+	 */
+	public synchronized void insert(int e) throws IOException {
+		append(INSERT, e);
+	}
+
+	/**
+	 * This method logs a removal
+	 * 
+	 * @param e The integer removed
+	 * @throws IOException If a full batch can't be written
+	 */
+	public synchronized void remove(int e) throws IOException {
+		append(REMOVE, e);
+	}
+
+	/**
+	 * This method writes the batch being gathered, the operations logged so
+	 * far are then as durable as the policy makes them
+	 * 
+	 * @throws IOException If the batch can't be written, or the writes
+	 *         couldn't be forced since the last commit
+	 */
+	public synchronized void commit() throws IOException {
+		// Is there anything to write?
+		if (this.pending > 0) {
+			writeFrame();
+		}
+
+		// The batch is written, did the interval thread fail before that?
+		reportSyncFailure();
+	}
+
+	/**
+	 * This method empties the log, once a snapshot holds everything it had
+	 * 
+	 * @throws IOException If the log can't be emptied
+	 */
+	public synchronized void clear() throws IOException {
+		// The batch being gathered is part of the snapshot too
+		this.frame.clear();
+		this.frame.position(4);
+		this.pending = 0;
+
+		this.channel.truncate(0);
+		this.channel.force(true);
+		this.lastSync = System.nanoTime();
+		this.unsynced = false;
+	}
+
+	/**
+	 * This method writes and forces the batch being gathered, stops the
+	 * interval thread and closes the file. A failure of the interval thread is
+	 * only reported once the batch is written
+	 */
+	public synchronized void close() throws IOException {
+		if (this.syncer != null) {
+			this.syncer.shutdown();
+		}
+
+		try {
+			try {
+				// Is there anything to write?
+				if (this.pending > 0) {
+					writeFrame();
+				}
+
+				this.channel.force(true);
+			}
+			catch (IOException e) {
+				// Lets not lose the earlier failure
+				if (this.syncFailure != null) {
+					e.addSuppressed(this.syncFailure);
+					this.syncFailure = null;
+				}
+
+				throw e;
+			}
+
+			reportSyncFailure();
+		}
+		finally {
+			this.channel.close();
+		}
+	}
+
+	/**
+	 * This method remembers that the writes couldn't be forced, the next
+	 * commit or close reports it
+	 * 
+	 * @param e Why they couldn't be forced
+	 */
+	synchronized void syncFailed(IOException e) {
+		// The first failure is the one that matters
+		if (this.syncFailure == null) {
+			this.syncFailure = e;
+		}
+		else {
+			this.syncFailure.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * This method throws the failure of the interval thread, if there was one
+	 * since it was last reported
+	 * 
+	 * @throws IOException If the writes couldn't be forced
+	 */
+	private void reportSyncFailure() throws IOException {
+		if (this.syncFailure != null) {
+			IOException e = this.syncFailure;
+			this.syncFailure = null;
+
+			throw e;
+		}
+	}
+
+	/**
+	 * This method forces what was written to the disk if the interval is over,
+	 * it runs on the interval thread
+	 */
+	private synchronized void syncIfDue() {
+		// Is there anything to force, and is the log still open?
+		if (!this.unsynced || !this.channel.isOpen()) {
+			return;
+		}
+
+		long now = System.nanoTime();
+
+		if (now - this.lastSync >= this.intervalNanos) {
+			try {
+				this.channel.force(false);
+				this.lastSync = now;
+				this.unsynced = false;
+			}
+			catch (IOException e) {
+				syncFailed(e);
+			}
+		}
+	}
+
+	/**
+	 * This method adds a record to the batch, writing it out once it is full
+	 * 
+	 * @param op The operation
+	 * @param e The integer
+	 * @throws IOException If a full batch can't be written
+	 */
+	private void append(byte op, int e) throws IOException {
+		this.frame.put(op);
+		this.frame.putInt(e);
+
+		// Is the batch full?
+		if (++this.pending == this.batchSize) {
+			writeFrame();
+		}
+	}
+
+	/**
+	 * This method writes the batch as a frame and starts a new one
+	 * 
+	 * @throws IOException If the frame can't be written
+	 */
+	private void writeFrame() throws IOException {
+		// Fill in the count then the checksum
+		this.frame.putInt(0, this.pending);
+
+		this.crc.reset();
+		ByteBuffer body = this.frame.duplicate();
+		body.flip();
+		this.crc.update(body);
+
+		this.frame.putInt((int) this.crc.getValue());
+		this.frame.flip();
+
+		while (this.frame.hasRemaining()) {
+			this.channel.write(this.frame);
+		}
+
+		// Start the next batch
+		this.frame.clear();
+		this.frame.position(4);
+		this.pending = 0;
+
+		// Should it be on the disk by now?
+		long now = System.nanoTime();
+
+		if ((this.policy == FsyncPolicy.ALWAYS) || ((this.policy == FsyncPolicy.INTERVAL) && (now - this.lastSync >= this.intervalNanos))) {
+			this.channel.force(false);
+			this.lastSync = now;
+			this.unsynced = false;
+		}
+		else {
+			this.unsynced = true;
+		}
+	}
+
+	/**
+	 * This method applies the operations of a log to a tree. Only the last
+	 * operation on each integer matters, those are sorted and applied in
+	 * bulk rather than one at a time
+	 * 
+	 * @param file The file of the log
+	 * @param tree The tree to apply the operations to
+	 * @return The number of operations read from the log
+	 * @throws IOException If the log can't be read
+	 */
+	public static int replay(Path file, AvlTree tree) throws IOException {
+		// Is there anything to replay?
+		if (!Files.exists(file)) {
+			return 0;
+		}
+
+		Records records = new Records();
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			scan(channel, records);
+		}
+
+		apply(records.keys, records.ops, records.count, tree);
+		return records.count;
+	}
+
+	/**
+	 * This method applies the last operation on each integer to a tree
+	 * 
+	 * @param keys The integers, in the order they were logged
+	 * @param ops The operations, in the order they were logged
+	 * @param count The number of records
+	 * @param tree The tree to apply the operations to
+	 */
+	static void apply(int[] keys, byte[] ops, int count, AvlTree tree) {
+		// Sort the records by integer then by position, packed together so a
+		// primitive sort is enough
+		long[] order = new long[count];
+
+		for (int i = 0; i < count; i++) {
+			order[i] = ((long) (keys[i] ^ Integer.MIN_VALUE) << 32) | i;
+		}
+
+		Arrays.sort(order);
+
+		int[] inserted = new int[count];
+		int[] removed = new int[count];
+		int insertions = 0;
+		int removals = 0;
+
+		for (int i = 0; i < count; i++) {
+			// Only the last record of each integer counts
+			if ((i + 1 < count) && ((order[i + 1] >>> 32) == (order[i] >>> 32))) {
+				continue;
+			}
+
+			int position = (int) order[i];
+
+			if (ops[position] == INSERT) {
+				inserted[insertions++] = keys[position];
+			}
+			else {
+				removed[removals++] = keys[position];
+			}
+		}
+
+		// Rebuilding costs as much as the tree is big, a short tail is
+		// cheaper to apply one integer at a time
+		if ((insertions + removals) < (tree.size() >> 5)) {
+			for (int i = 0; i < removals; i++) {
+				tree.remove(Integer.valueOf(removed[i]));
+			}
+
+			for (int i = 0; i < insertions; i++) {
+				tree.insert(Integer.valueOf(inserted[i]));
+			}
+
+			return;
+		}
+
+		if (removals > 0) {
+			tree.removeAll(Arrays.copyOf(removed, removals));
+		}
+
+		if (insertions > 0) {
+			tree.addAll(Arrays.copyOf(inserted, insertions));
+		}
+	}
+
+	/**
+	 * This method finds where the last complete frame of a log ends
+	 * 
+	 * @param channel The file of the log
+	 * @return The length of the log without the broken frame at its end, if
+	 *         any
+	 * @throws IOException If the log can't be read
+	 */
+	private static long validLength(FileChannel channel) throws IOException {
+		return scan(channel, null);
+	}
+
+	/**
+	 * This method reads the complete frames of a log, from the start up to
+	 * the first one that is broken
+	 * 
+	 * @param channel The file of the log
+	 * @param records Where to gather the records, can be null
+	 * @return The length of the complete frames
+	 * @throws IOException If the log can't be read
+	 */
+	private static long scan(FileChannel channel, Records records) throws IOException {
+		long length = channel.size();
+		long end = 0;
+
+		// Reused by every frame, it only grows for larger ones
+		ByteBuffer frame = ByteBuffer.allocate(1 << 16);
+		CRC32 crc = new CRC32();
+
+		while (end + 8 <= length) {
+			// How many records does the next frame claim?
+			frame.clear();
+			frame.limit(4);
+			if (!readFully(channel, frame, end)) {
+				break;
+			}
+
+			int count = frame.getInt(0);
+			long size = 4 + (long) count * RECORD_BYTES + 4;
+
+			// Is it all there?
+			if ((count <= 0) || (end + size > length)) {
+				break;
+			}
+
+			if (frame.capacity() < size) {
+				frame = ByteBuffer.allocate((int) size);
+			}
+
+			frame.clear();
+			frame.limit((int) size);
+			if (!readFully(channel, frame, end)) {
+				break;
+			}
+
+			// Does it match its checksum?
+			crc.reset();
+			crc.update(frame.array(), 0, (int) size - 4);
+
+			if ((int) crc.getValue() != frame.getInt((int) size - 4)) {
+				break;
+			}
+
+			// Lets gather its records
+			if (records != null) {
+				for (int i = 0; i < count; i++) {
+					int offset = 4 + i * RECORD_BYTES;
+					records.add(frame.get(offset), frame.getInt(offset + 1));
+				}
+			}
+
+			end += size;
+		}
+
+		return end;
+	}
+
+	/**
+	 * This method fills a buffer from a given position of a file
+	 * 
+	 * @param channel The file to read
+	 * @param buffer The buffer to fill
+	 * @param position Where to start reading
+	 * @return False if the file ended first
+	 * @throws IOException If the file can't be read
+	 */
+	private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * This class gathers the records of a log in the order they were written
+	 */
+	private static final class Records {
+		// The integers
+		int[] keys = new int[1024];
+		// The operations
+		byte[] ops = new byte[1024];
+		// The number of records
+		int count = 0;
+
+		/**
+		 * This method adds a record, growing the arrays when they are full
+		 * 
+		 * @param op The operation
+		 * @param key The integer
+		 */
+		void add(byte op, int key) {
+			if (this.count == this.keys.length) {
+				this.keys = Arrays.copyOf(this.keys, this.count * 2);
+				this.ops = Arrays.copyOf(this.ops, this.count * 2);
+			}
+
+			this.ops[this.count] = op;
+			this.keys[this.count++] = key;
+		}
+	}
+}
\ No newline at end of file
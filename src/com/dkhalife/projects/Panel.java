@@ -1,32 +1,74 @@
 package com.dkhalife.projects;
 
+import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Cursor;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.Vector;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.Path2D;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.BorderFactory;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.ToolTipManager;
 
 /**
  * This class represents the panel where the avl tree will be drawn
  * 
+ * The tree is only changed and laid out by a single writer thread, which
+ * publishes every finished layout at once. Painting only ever reads the last
+ * published layout, so a large tree never holds up the user interface.
+ * 
+ * The writer is only stopped once the panel is closed, the tree can't be
+ * changed after that. Removing the panel from its window and adding it back
+ * doesn't stop it.
+ * 
  * @author Dany Khalife
  * 
  */
-class Panel extends JPanel {
+class Panel extends JPanel implements AutoCloseable {
 	/**
 	 * Eclipse generated serial UID
 	 */
 	private static final long serialVersionUID = 6064467111215011132L;
 
+	// The sizes of a cell in pixels the mouse wheel goes through
+	private static final int[] ZOOM = { 1, 2, 3, 4, 6, 8, 11, 15, 20, 27, 36, 48 };
+
+	// Subtrees narrower than this many pixels are drawn as a single glyph
+	static final int LOD_PIXELS = 24;
+
+	// The smallest cell for which the grid is drawn
+	private static final int MIN_GRID_CELL = 11;
+	// The smallest cell for which the vertices are labelled
+	static final int MIN_LABEL_CELL = 11;
+
+	// How far a label can stick out of its vertex, in pixels
+	static final int LABEL_PAD = 60;
+
+	// The font of the glyphs
+	private static final Font GLYPH_FONT = new Font("Verdana", 0, 10);
+
+	// The stroke of the grid
+	private static final BasicStroke GRID_STROKE = new BasicStroke(1.0F, 2, 1, 0.0F, new float[] { 3.0F }, 0.0F);
+
 	// The width of the panel
 	private int width;
 	// The height in pixels
@@ -34,14 +76,79 @@ class Panel extends JPanel {
 	// The width in pixels
 	private int pWidth;
 
-	// The tree we want to represent
+	// The tree we want to represent, only the writer touches it
 	private AvlTree tree = new AvlTree();
 
-	// The list of vertices
-	private Vector<Vertex> V = new Vector<Vertex>();
-
-	// The list of edges
-	private Vector<Edge> E = new Vector<Edge>();
+	// Changes the tree and lays it out, one task at a time
+	private final ExecutorService writer;
+	// The number of changes the writer hasn't made yet
+	private final AtomicInteger pending = new AtomicInteger();
+
+	// The last layout finished by the writer
+	private volatile Scene published;
+	// The layout being shown
+	private Scene scene = null;
+
+	// Finds the nodes and edges in view
+	private SpatialIndex index = null;
+
+	// Where every node of the tree is
+	private TreeLayout layout = null;
+
+	// The label of every node
+	private String[] labels = null;
+	// The width of every label in pixels at this zoom, -1 until measured
+	private int[] labelWidths = new int[0];
+	// The text of every glyph, null until drawn
+	private String[] glyphLabels = null;
+
+	// The subtrees that were expanded even though they are narrow
+	private boolean[] expanded = new boolean[0];
+
+	// The nodes in view
+	private final IntList shownNodes = new IntList(256);
+	// The nodes whose edge with their parent is in view
+	private final IntList shownEdges = new IntList(256);
+	// The subtrees drawn as glyphs
+	private final IntList glyphs = new IntList(64);
+
+	// The edges in view, drawn all at once
+	private final Path2D.Float edgePath = new Path2D.Float();
+	// The corners of a glyph in X
+	private final int[] glyphX = new int[3];
+	// The corners of a glyph in Y
+	private final int[] glyphY = new int[3];
+
+	// The current zoom level
+	private int zoom = 8;
+	// The size of a cell in pixels
+	private int cell = ZOOM[8];
+
+	// The stroke of the edges at this zoom
+	private BasicStroke edgeStroke = null;
+	// The font of the labels at this zoom
+	private Font labelFont = null;
+	// Its metrics, null until the next paint
+	private FontMetrics labelMetrics = null;
+	// The metrics of the glyph font, null until the first paint
+	private FontMetrics glyphMetrics = null;
+	// A vertex drawn once at this zoom, null until the next paint
+	private BufferedImage vertexStamp = null;
+
+	// The background and the grid as drawn for the current size and zoom,
+	// null until then
+	private BufferedImage gridLayer = null;
+
+	// The tree as drawn around the view, null until then
+	private BufferedImage treeLayer = null;
+	// What draws on it, kept along with it
+	private Graphics2D layerGraphics = null;
+	// Does the tree need to be drawn again
+	private boolean layerDirty = true;
+	// The offset in X the tree was drawn for
+	private int layerOffsetX = 0;
+	// The offset in Y the tree was drawn for
+	private int layerOffsetY = 0;
 
 	// The offset in X for the drag n drop
 	private int offsetX = 0;
@@ -73,6 +180,21 @@ class Panel extends JPanel {
 		this.pWidth = (w * 20);
 		this.pHeight = (h * 20);
 
+		// Start with an empty tree
+		this.published = new Scene(null);
+
+		// The writer shouldn't keep the application alive
+		this.writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "Panel writer");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+
+		// Pick the stroke and the font
+		setZoom(this.zoom);
+
 		// Set a thick border
 		setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
 
@@ -85,8 +207,8 @@ class Panel extends JPanel {
 		addMouseListener(new MouseAdapter() {
 			public void mousePressed(MouseEvent e) {
 				// Start dragging
-				Panel.this.dragStartX = Panel.this.snapToGrid(e.getX(), 20);
-				Panel.this.dragStartY = Panel.this.snapToGrid(e.getY(), 20);
+				Panel.this.dragStartX = Panel.this.snapToGrid(e.getX(), Panel.this.cell);
+				Panel.this.dragStartY = Panel.this.snapToGrid(e.getY(), Panel.this.cell);
 
 				Panel.this.dragging = true;
 			}
@@ -98,8 +220,32 @@ class Panel extends JPanel {
 				Panel.this.previousOffsetX = Panel.this.offsetX;
 				Panel.this.previousOffsetY = Panel.this.offsetY;
 			}
+
+			public void mouseClicked(MouseEvent e) {
+				// Expand the glyph that was clicked, if any
+				int i = Panel.this.glyphAt(e.getX(), e.getY());
+
+				if (i >= 0) {
+					Panel.this.expanded[i] = true;
+					Panel.this.layerDirty = true;
+					Panel.this.repaint();
+				}
+			}
+		});
+
+		/**
+		 * Listen for the mouse wheel
+		 */
+		addMouseWheelListener(new MouseAdapter() {
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				// Rolling forward zooms in
+				Panel.this.zoom((e.getWheelRotation() < 0) ? 1 : -1, e.getX(), e.getY());
+			}
 		});
 
+		// The glyphs tell what they hold when hovered
+		ToolTipManager.sharedInstance().registerComponent(this);
+
 		/**
 		 * Listen for drag events
 		 */
@@ -110,8 +256,8 @@ class Panel extends JPanel {
 				}
 
 				// Move the panel
-				Panel.this.offsetX = (Panel.this.previousOffsetX + (Panel.this.snapToGrid(e.getX(), 20) - Panel.this.dragStartX) / 20);
-				Panel.this.offsetY = (Panel.this.previousOffsetY + (Panel.this.snapToGrid(e.getY(), 20) - Panel.this.dragStartY) / 20);
+				Panel.this.offsetX = (Panel.this.previousOffsetX + (Panel.this.snapToGrid(e.getX(), Panel.this.cell) - Panel.this.dragStartX) / Panel.this.cell);
+				Panel.this.offsetY = (Panel.this.previousOffsetY + (Panel.this.snapToGrid(e.getY(), Panel.this.cell) - Panel.this.dragStartY) / Panel.this.cell);
 
 				// Repaint
 				Panel.this.repaint();
@@ -127,6 +273,89 @@ class Panel extends JPanel {
 		return new Dimension(this.pWidth, this.pHeight);
 	}
 
+	/**
+	 * This method overrides the super method in order to describe the glyph
+	 * under the mouse
+	 */
+	public String getToolTipText(MouseEvent e) {
+		int i = glyphAt(e.getX(), e.getY());
+
+		// Is there a glyph there?
+		if (i < 0) {
+			return null;
+		}
+
+		return this.layout.getSize(i) + " nodes, height " + this.layout.getHeight(i) + ", click to expand";
+	}
+
+	/**
+	 * This method zooms in or out, keeping the cell under the mouse where it
+	 * is
+	 * 
+	 * @param step The number of levels to zoom in, negative to zoom out
+	 * @param px The X coordinate of the mouse
+	 * @param py The Y coordinate of the mouse
+	 */
+	private void zoom(int step, int px, int py) {
+		int level = Math.max(0, Math.min(ZOOM.length - 1, this.zoom + step));
+
+		// Can we go any further?
+		if (level == this.zoom) {
+			return;
+		}
+
+		// The cell under the mouse
+		int gx = Math.floorDiv(px, this.cell) - this.offsetX;
+		int gy = Math.floorDiv(py, this.cell) - this.offsetY;
+
+		setZoom(level);
+
+		// Move it back under the mouse
+		this.offsetX = this.previousOffsetX = Math.floorDiv(px, this.cell) - gx;
+		this.offsetY = this.previousOffsetY = Math.floorDiv(py, this.cell) - gy;
+
+		// A drag goes on from here
+		this.dragStartX = snapToGrid(px, this.cell);
+		this.dragStartY = snapToGrid(py, this.cell);
+
+		repaint();
+	}
+
+	/**
+	 * This method changes the size of the cells, along with everything drawn
+	 * to scale
+	 * 
+	 * @param level The zoom level
+	 */
+	private void setZoom(int level) {
+		this.zoom = level;
+		this.cell = ZOOM[level];
+
+		this.edgeStroke = new BasicStroke(Math.max(1, this.cell * 3 / 20.0F));
+		this.labelFont = new Font("Verdana", 1, this.cell * 4 / 5);
+		this.labelMetrics = null;
+		this.vertexStamp = null;
+
+		// The labels have to be measured again
+		Arrays.fill(this.labelWidths, -1);
+
+		// Both layers are out of scale
+		this.gridLayer = null;
+		this.layerDirty = true;
+	}
+
+	/**
+	 * This method moves the view, as a drag would
+	 * 
+	 * @param x The offset in X, in cells
+	 * @param y The offset in Y, in cells
+	 */
+	void setOffset(int x, int y) {
+		this.offsetX = this.previousOffsetX = x;
+		this.offsetY = this.previousOffsetY = y;
+		repaint();
+	}
+
 	/**
 	 * This method snaps a coordinate to the grid
 	 * 
@@ -147,106 +376,439 @@ class Panel extends JPanel {
 	}
 
 	/**
-	 * This method paints the panel
+	 * This method paints the panel. The grid and the tree are drawn in
+	 * layers kept from one paint to the next, so dragging only copies the tree
+	 * layer somewhere else until it runs out
 	 */
 	protected void paintComponent(Graphics h) {
-		super.paintComponent(h);
 		Graphics2D g = (Graphics2D) h;
 
-		// Set the stroke
-		g.setStroke(new BasicStroke(1.0F, 2, 1, 0.0F, new float[] { 3.0F }, 0.0F));
-		// Gray color
-		g.setColor(Color.GRAY);
+		int w = getWidth();
+		int ht = getHeight();
+
+		// Is there anything to paint on?
+		if ((w <= 0) || (ht <= 0)) {
+			return;
+		}
+
+		// Has the writer published a new layout since the last paint?
+		Scene published = this.published;
 
-		// Draw the grid
-		for (int i = 20; i < this.pWidth; i += 20) {
-			g.drawLine(i, 0, i, pHeight);
+		if (published != this.scene) {
+			this.scene = published;
+			this.layout = published.layout;
+			this.index = published.index;
+			this.labels = published.labels;
+
+			this.labelWidths = new int[this.layout.size()];
+			Arrays.fill(this.labelWidths, -1);
+			this.glyphLabels = new String[this.layout.size()];
+
+			this.expanded = new boolean[this.layout.size()];
+			this.glyphs.clear();
+			this.layerDirty = true;
 		}
-		for (int i = 20; i < this.pHeight; i += 20) {
-			g.drawLine(0, i, pWidth, i);
+
+		// The background doesn't move, it only changes with the size and the
+		// zoom
+		if ((this.gridLayer == null) || (this.gridLayer.getWidth() != w) || (this.gridLayer.getHeight() != ht)) {
+			this.gridLayer = createLayer(w, ht, Transparency.OPAQUE);
+			paintGrid(this.gridLayer);
 		}
 
+		g.drawImage(this.gridLayer, 0, 0, null);
+
 		// Do we have a root yet?
-		if (this.tree.getRoot() == null) {
+		if (this.layout.size() == 0) {
 			return;
 		}
 
-		// Sart with an empty set
-		this.V = new Vector<Vertex>();
-		this.E = new Vector<Edge>();
+		// The layer goes beyond the view by this much on every side
+		int margin = Math.max(w, ht) / 2;
+
+		// How far the view was dragged since the layer was drawn
+		long shiftX = (long) (this.offsetX - this.layerOffsetX) * this.cell;
+		long shiftY = (long) (this.offsetY - this.layerOffsetY) * this.cell;
+
+		// Can the layer still be used?
+		if (this.layerDirty || (this.treeLayer == null) || (this.treeLayer.getWidth() != w + 2 * margin) || (this.treeLayer.getHeight() != ht + 2 * margin) || (Math.abs(shiftX) > margin) || (Math.abs(shiftY) > margin)) {
+			paintLayer(w, ht, margin);
+			shiftX = 0;
+			shiftY = 0;
+		}
+
+		g.drawImage(this.treeLayer, (int) shiftX - margin, (int) shiftY - margin, null);
+	}
+
+	/**
+	 * This method creates an empty layer
+	 * 
+	 * @param w The width in pixels
+	 * @param h The height in pixels
+	 * @param transparency Transparency.OPAQUE or Transparency.TRANSLUCENT
+	 * @return An image in the format of the screen when there is one, a
+	 *         translucent one starts transparent
+	 */
+	private BufferedImage createLayer(int w, int h, int transparency) {
+		GraphicsConfiguration config = getGraphicsConfiguration();
+
+		if (config != null) {
+			return config.createCompatibleImage(w, h, transparency);
+		}
+
+		return new BufferedImage(w, h, (transparency == Transparency.OPAQUE) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+	}
+
+	/**
+	 * This method draws the background and the grid on a layer
+	 * 
+	 * @param layer The layer to draw on
+	 */
+	private void paintGrid(BufferedImage layer) {
+		Graphics2D g = layer.createGraphics();
+		int cell = this.cell;
+
+		try {
+			g.setColor(getBackground());
+			g.fillRect(0, 0, layer.getWidth(), layer.getHeight());
+
+			// Is the grid still of any help at this zoom?
+			if (cell < MIN_GRID_CELL) {
+				return;
+			}
+
+			// Set the stroke
+			g.setStroke(GRID_STROKE);
+			// Gray color
+			g.setColor(Color.GRAY);
+
+			// Draw the grid
+			for (int i = cell; i < layer.getWidth(); i += cell) {
+				g.drawLine(i, 0, i, layer.getHeight());
+			}
+			for (int i = cell; i < layer.getHeight(); i += cell) {
+				g.drawLine(0, i, layer.getWidth(), i);
+			}
+		}
+		finally {
+			g.dispose();
+		}
+	}
+
+	/**
+	 * This method draws the tree on its layer, centered on the view
+	 * 
+	 * @param w The width of the view
+	 * @param h The height of the view
+	 * @param margin How far the layer goes beyond the view on every side
+	 */
+	private void paintLayer(int w, int h, int margin) {
+		// Can the old layer be reused?
+		if ((this.treeLayer == null) || (this.treeLayer.getWidth() != w + 2 * margin) || (this.treeLayer.getHeight() != h + 2 * margin)) {
+			if (this.layerGraphics != null) {
+				this.layerGraphics.dispose();
+			}
+
+			this.treeLayer = createLayer(w + 2 * margin, h + 2 * margin, Transparency.TRANSLUCENT);
+			this.layerGraphics = this.treeLayer.createGraphics();
+		}
+
+		Graphics2D g = this.layerGraphics;
+
+		// Start from a transparent layer
+		g.setComposite(AlphaComposite.Clear);
+		g.fillRect(0, 0, this.treeLayer.getWidth(), this.treeLayer.getHeight());
+		g.setComposite(AlphaComposite.SrcOver);
+
+		// The view starts at the margin
+		g.translate(margin, margin);
+
+		this.layerOffsetX = this.offsetX;
+		this.layerOffsetY = this.offsetY;
+
+		try {
+			paintTree(g, -margin, -margin, w + margin, h + margin);
+		}
+		finally {
+			g.translate(-margin, -margin);
+		}
+
+		this.layerDirty = false;
+	}
+
+	/**
+	 * This method draws what is in a rectangle of the view
+	 * 
+	 * @param g The graphics to draw with
+	 * @param x0 The left of the rectangle in pixels
+	 * @param y0 The top of the rectangle in pixels
+	 * @param x1 The right of the rectangle in pixels
+	 * @param y1 The bottom of the rectangle in pixels
+	 */
+	private void paintTree(Graphics2D g, int x0, int y0, int x1, int y1) {
+		TreeLayout layout = this.layout;
+		int cell = this.cell;
+
+		// The layout doesn't depend on the drag n drop, it is only moved by
+		// the offsets when drawn
+		int ox = this.width / 2 + this.offsetX;
+		int oy = 2 + this.offsetY;
+
+		// Only what is in view gets drawn, with enough room around it for the
+		// circles and the labels that stick out
+		int minX = Math.floorDiv(x0 - LABEL_PAD, cell) - ox;
+		int minY = Math.floorDiv(y0, cell) - oy - 1;
+		int maxX = Math.floorDiv(x1 + LABEL_PAD, cell) - ox;
+		int maxY = Math.floorDiv(y1, cell) - oy + 1;
+
+		this.glyphs.clear();
+
+		// Is even the narrowest subtree wide enough to be drawn in full?
+		if (TreeLayout.MIN_SEP / 2 * cell >= LOD_PIXELS) {
+			this.index.query(minX, minY, maxX, maxY, this.shownNodes, this.shownEdges);
+		}
+		else {
+			findOutline(minX, minY, maxX, maxY);
+		}
+
+		// Gather the edges in a single path
+		Path2D.Float path = this.edgePath;
+		path.reset();
+
+		for (int k = 0; k < this.shownEdges.size(); k++) {
+			int i = this.shownEdges.get(k);
+			int p = layout.getParent(i);
 
-		// Construct the graph for the tree
-		constructGraph(this.tree.getRoot(), null);
+			path.moveTo((layout.getX(i) + ox) * cell, (layout.getY(i) + oy) * cell);
+			path.lineTo((layout.getX(p) + ox) * cell, (layout.getY(p) + oy) * cell);
+		}
 
 		// Reset the stroke
-		g.setStroke(new BasicStroke(3.0F));
+		g.setStroke(this.edgeStroke);
 
 		// Now with a blue color
 		g.setColor(Color.BLUE);
 
 		// Draw the edges
-		for (Edge k : this.E) {
-			g.drawLine(k.getV1().getX() * 20, k.getV1().getY() * 20, k.getV2().getX() * 20, k.getV2().getY() * 20);
+		g.draw(path);
+
+		// Draw the glyphs
+		if (this.glyphs.size() > 0) {
+			g.setFont(GLYPH_FONT);
+
+			if (this.glyphMetrics == null) {
+				this.glyphMetrics = g.getFontMetrics();
+			}
+
+			for (int k = 0; k < this.glyphs.size(); k++) {
+				drawGlyph(g, this.glyphs.get(k), ox, oy);
+			}
 		}
 
 		// Set the font
-		g.setFont(new Font("Verdana", 1, 16));
-		for (Vertex k : this.V) {
-			g.setColor(Color.BLACK);
+		g.setFont(this.labelFont);
+
+		if (this.labelMetrics == null) {
+			this.labelMetrics = g.getFontMetrics();
+		}
+
+		// Draw the vertices
+		for (int k = 0; k < this.shownNodes.size(); k++) {
+			int i = this.shownNodes.get(k);
+			drawVertex(g, (layout.getX(i) + ox) * cell, (layout.getY(i) + oy) * cell, i);
+		}
+	}
+
+	/**
+	 * This method finds what is in view when narrow subtrees are drawn as
+	 * glyphs, only the nodes above the glyphs in view are visited
+	 * 
+	 * @param minX The left of the view, in the coordinates of the layout
+	 * @param minY The top of the view, in the coordinates of the layout
+	 * @param maxX The right of the view, in the coordinates of the layout
+	 * @param maxY The bottom of the view, in the coordinates of the layout
+	 */
+	private void findOutline(int minX, int minY, int maxX, int maxY) {
+		TreeLayout layout = this.layout;
+		int n = layout.size();
+
+		this.shownNodes.clear();
+		this.shownEdges.clear();
+
+		// Lets find what is in view, a subtree is the range of nodes starting
+		// at its root so it is skipped in a single step
+		for (int i = 0; i < n;) {
+			int x = layout.getX(i);
+			int y = layout.getY(i);
+
+			// Is the edge with the parent in view?
+			if (i > 0) {
+				int p = layout.getParent(i);
+				int px = layout.getX(p);
+
+				if ((Math.min(x, px) <= maxX) && (Math.max(x, px) >= minX) && (layout.getY(p) <= maxY) && (y >= minY)) {
+					this.shownEdges.add(i);
+				}
+			}
 
-			// Draw the vertices
-			g.fillOval((k.getX() - 1) * 20, (k.getY() - 1) * 20, 40, 40);
+			// Is any of the subtree in view?
+			int bottom = y + (layout.getHeight(i) - 1) * TreeLayout.LEVEL_SEP;
 
-			// Coordinates for the label
-			int x = k.getX() * 20 - 5;
-			int y = k.getY() * 20 + 5;
+			if ((layout.getLow(i) > maxX) || (layout.getHigh(i) < minX) || (y > maxY) || (bottom < minY)) {
+				i += layout.getSize(i);
+				continue;
+			}
 
-			// In case we have 2 caracters
-			String s = String.valueOf(k.getName());
-			if (s.length() == 2) {
-				x -= 7;
+			// Is it too narrow to be drawn in full?
+			if (isCollapsed(i)) {
+				this.glyphs.add(i);
+				i += layout.getSize(i);
+				continue;
 			}
 
-			// Draw the label
-			g.setColor(Color.WHITE);
-			g.drawString(s, x, y);
+			// Is the node itself in view?
+			if ((x >= minX) && (x <= maxX) && (y >= minY) && (y <= maxY)) {
+				this.shownNodes.add(i);
+			}
+
+			i++;
 		}
 	}
 
 	/**
-	 * This method constructs a graph recursively
+	 * This method draws a vertex
 	 * 
-	 * @param n The current node
-	 * @param parent The node's parent
+	 * @param g The graphics to draw with
+	 * @param px The X coordinate of its center in pixels
+	 * @param py The Y coordinate of its center in pixels
+	 * @param i The node it stands for
 	 */
-	private void constructGraph(AvlNode n, Vertex parent) {
-		Vertex v = null;
+	private void drawVertex(Graphics2D g, int px, int py, int i) {
+		int cell = this.cell;
 
-		if (parent == null) {
-			// Add the vertex
-			this.V.add(v = new Vertex(this.width / 2 + this.offsetX, 2 + this.offsetY, n.getElem()));
-		}
-		else {
-			// Is this the left node
-			if (n.getParent().getLeft() == n) {
-				this.V.add(v = new Vertex(parent.getX() - (int) Math.pow(2.0D, n.height().intValue()), parent.getY() + 2, n.getElem()));
+		// Stamp the circle, filling it again every time would be wasteful
+		if (this.vertexStamp == null) {
+			this.vertexStamp = createLayer(2 * cell + 1, 2 * cell + 1, Transparency.TRANSLUCENT);
+
+			Graphics2D s = this.vertexStamp.createGraphics();
+
+			try {
+				// The stroke changes how ovals are filled, so it has to match
+				s.setStroke(this.edgeStroke);
+				s.setColor(Color.BLACK);
+				s.fillOval(0, 0, 2 * cell, 2 * cell);
 			}
-			// Or the right node
-			else {
-				this.V.add(v = new Vertex(parent.getX() + (int) Math.pow(2.0D, n.height().intValue()), parent.getY() + 2, n.getElem()));
+			finally {
+				s.dispose();
 			}
+		}
+
+		g.drawImage(this.vertexStamp, px - cell, py - cell, null);
+
+		// Would the label be readable?
+		if (cell < MIN_LABEL_CELL) {
+			return;
+		}
+
+		// Center the label, it is only measured once per zoom
+		FontMetrics metrics = this.labelMetrics;
+
+		if (this.labelWidths[i] < 0) {
+			this.labelWidths[i] = metrics.stringWidth(this.labels[i]);
+		}
+
+		// Draw the label
+		g.setColor(Color.WHITE);
+		g.drawString(this.labels[i], px - this.labelWidths[i] / 2, py + (metrics.getAscent() - metrics.getDescent()) / 2);
+	}
 
-			// Add an edge with its parent
-			this.E.add(new Edge(v, parent));
+	/**
+	 * This method draws a subtree as a triangle hanging from its root, with
+	 * its size and height when they fit
+	 * 
+	 * @param g The graphics to draw with
+	 * @param i The root of the subtree
+	 * @param ox The X coordinate of the root of the tree on the grid
+	 * @param oy The Y coordinate of the root of the tree on the grid
+	 */
+	private void drawGlyph(Graphics2D g, int i, int ox, int oy) {
+		TreeLayout layout = this.layout;
+		int cell = this.cell;
+
+		int top = (layout.getY(i) + oy) * cell;
+		int bottom = (layout.getY(i) + (layout.getHeight(i) - 1) * TreeLayout.LEVEL_SEP + oy) * cell;
+		int left = (layout.getLow(i) + ox) * cell - cell / 2;
+		int right = (layout.getHigh(i) + ox) * cell + cell / 2;
+		int root = (layout.getX(i) + ox) * cell;
+
+		this.glyphX[0] = root;
+		this.glyphY[0] = top - cell;
+		this.glyphX[1] = left;
+		this.glyphY[1] = bottom;
+		this.glyphX[2] = right;
+		this.glyphY[2] = bottom;
+
+		g.setColor(Color.DARK_GRAY);
+		g.fillPolygon(this.glyphX, this.glyphY, 3);
+
+		// Does the text fit in the lower half of the triangle?
+		FontMetrics metrics = this.glyphMetrics;
+
+		if (metrics.getHeight() > (bottom - top + cell) / 2) {
+			return;
+		}
+
+		if (this.glyphLabels[i] == null) {
+			this.glyphLabels[i] = layout.getSize(i) + " h" + layout.getHeight(i);
+		}
+
+		String s = this.glyphLabels[i];
+		int width = metrics.stringWidth(s);
+
+		if (width <= (right - left) / 2) {
+			g.setColor(Color.WHITE);
+			g.drawString(s, root - width / 2, bottom - metrics.getDescent());
 		}
+	}
+
+	/**
+	 * This method determines if a subtree is drawn as a glyph
+	 * 
+	 * @param i The root of the subtree
+	 * @return True if it is too narrow to be drawn in full and wasn't expanded
+	 */
+	private boolean isCollapsed(int i) {
+		return (this.layout.getSize(i) > 1) && !this.expanded[i] && ((long) (this.layout.getHigh(i) - this.layout.getLow(i)) * this.cell < LOD_PIXELS);
+	}
 
-		// Recurse left
-		if (n.getLeft() != null)
-			constructGraph(n.getLeft(), v);
+	/**
+	 * This method finds the glyph drawn at a given point
+	 * 
+	 * @param px The X coordinate in pixels
+	 * @param py The Y coordinate in pixels
+	 * @return The root of the subtree of the glyph, or -1 if there is none
+	 */
+	private int glyphAt(int px, int py) {
+		TreeLayout layout = this.layout;
+		int cell = this.cell;
+		int ox = this.width / 2 + this.offsetX;
+		int oy = 2 + this.offsetY;
+
+		for (int k = 0; k < this.glyphs.size(); k++) {
+			int i = this.glyphs.get(k);
+
+			// Is it within the bounds of the triangle?
+			int top = (layout.getY(i) + oy - 1) * cell;
+			int bottom = (layout.getY(i) + (layout.getHeight(i) - 1) * TreeLayout.LEVEL_SEP + oy) * cell;
+			int left = (layout.getLow(i) + ox) * cell - cell / 2;
+			int right = (layout.getHigh(i) + ox) * cell + cell / 2;
+
+			if ((px >= left) && (px <= right) && (py >= top) && (py <= bottom)) {
+				return i;
+			}
+		}
 
-		// Recurse right
-		if (n.getRight() != null)
-			constructGraph(n.getRight(), v);
+		return -1;
 	}
 
 	/**
@@ -262,8 +824,25 @@ class Panel extends JPanel {
 	 * This methode clears the tree
 	 */
 	public void clear() {
-		this.tree = new AvlTree();
-		repaint();
+		change(new Runnable() {
+			public void run() {
+				Panel.this.tree = new AvlTree();
+			}
+		});
+	}
+
+	/**
+	 * This method replaces the tree shown by the panel, it must not be
+	 * changed anywhere else from then on
+	 * 
+	 * @param tree The tree to show
+	 */
+	void setTree(final AvlTree tree) {
+		change(new Runnable() {
+			public void run() {
+				Panel.this.tree = tree;
+			}
+		});
 	}
 
 	/**
@@ -271,9 +850,12 @@ class Panel extends JPanel {
 	 * 
 	 * @param num The value to add
 	 */
-	public void addVertex(int num) {
-		this.tree.insert(Integer.valueOf(num));
-		repaint();
+	public void addVertex(final int num) {
+		change(new Runnable() {
+			public void run() {
+				Panel.this.tree.insert(Integer.valueOf(num));
+			}
+		});
 	}
 
 	/**
@@ -281,8 +863,102 @@ class Panel extends JPanel {
 	 * 
 	 * @param num The value to delete
 	 */
-	public void deleteVertex(int num) {
-		this.tree.remove(Integer.valueOf(num));
-		repaint();
+	public void deleteVertex(final int num) {
+		change(new Runnable() {
+			public void run() {
+				Panel.this.tree.remove(Integer.valueOf(num));
+			}
+		});
+	}
+
+	/**
+	 * This method has the writer change the tree. Once no other change is
+	 * waiting, the writer lays the tree out and publishes it
+	 * 
+	 * @param change What to do to the tree
+	 */
+	private void change(final Runnable change) {
+		this.pending.incrementAndGet();
+
+		try {
+			this.writer.execute(new Runnable() {
+				public void run() {
+					try {
+						change.run();
+					}
+					finally {
+						// Is another change waiting? It will lay the tree out
+						if (Panel.this.pending.decrementAndGet() == 0) {
+							Panel.this.published = new Scene(Panel.this.tree.getRoot());
+							Panel.this.repaint();
+						}
+					}
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			// The change will never be made, so nothing is waiting on it
+			this.pending.decrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * This method waits until every change made so far is laid out, so the
+	 * next paint shows it
+	 */
+	void sync() {
+		try {
+			// The writer does one task at a time, in order
+			this.writer.submit(new Runnable() {
+				public void run() {
+				}
+			}).get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * This method stops the writer once the changes made so far are laid out
+	 */
+	public void close() {
+		this.writer.shutdown();
+	}
+
+	/**
+	 * This class holds a tree as it is laid out, it is built by the writer and
+	 * never changes once published
+	 */
+	private static final class Scene {
+		// Where every node of the tree is
+		final TreeLayout layout;
+
+		// Finds the nodes and edges in view
+		final SpatialIndex index;
+
+		// The label of every node
+		final String[] labels;
+
+		/**
+		 * A scene is built by laying out a tree and indexing it
+		 * 
+		 * @param root The root of the tree, can be null
+		 */
+		Scene(AvlNode root) {
+			this.layout = new TreeLayout(root);
+			this.index = new SpatialIndex(this.layout);
+
+			// The labels are made once, here rather than when painting
+			this.labels = new String[this.layout.size()];
+
+			for (int i = 0; i < this.labels.length; i++) {
+				this.labels[i] = String.valueOf(this.layout.getKey(i));
+			}
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,386 @@
+package com.dkhalife.projects;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This class represents an AVL Tree that is never modified. Inserting or
+ * removing an element copies only the path leading to it and returns a new
+ * version of the tree, which shares every other node with the previous one.
+ * 
+ * Since a version never changes, it can be read by any number of threads
+ * without locking, for as long as they need, while newer versions are made.
+ * 
+ * @author Dany Khalife
+ */
+public final class PersistentAvlTree {
+	// The tree without any element
+	public static final PersistentAvlTree EMPTY = new PersistentAvlTree(null);
+
+	// The root of this version
+	private final Node root;
+
+	/**
+	 * A version is created from its root
+	 * 
+	 * @param root The root of the version
+	 */
+	private PersistentAvlTree(Node root) {
+		this.root = root;
+	}
+
+	/**
+	 * This method inserts an integer into a new version of the tree
+	 * 
+	 * @param e The integer to insert
+	 * @return The new version, or this one if the integer was already there
+	 */
+	public PersistentAvlTree insert(int e) {
+		Node updated = insert(this.root, e);
+
+		return (updated == this.root) ? this : new PersistentAvlTree(updated);
+	}
+
+	/**
+	 * This method removes an element from a new version of the tree
+	 * 
+	 * @param e The integer to remove
+	 * @return The new version, or this one if the integer wasn't there
+	 */
+	public PersistentAvlTree remove(int e) {
+		Node updated = remove(this.root, e);
+
+		return (updated == this.root) ? this : new PersistentAvlTree(updated);
+	}
+
+	/**
+	 * This method determines if this version holds an element
+	 * 
+	 * @param e The integer to look for
+	 * @return True if it is in the tree
+	 */
+	public boolean contains(int e) {
+		Node n = this.root;
+
+		while (n != null) {
+			// Should we go left
+			if (e < n.key) {
+				n = n.left;
+			}
+			// Or right?
+			else if (e > n.key) {
+				n = n.right;
+			}
+			else {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * This method finds the minimum of this version
+	 * 
+	 * @return The smallest element
+	 */
+	public int findMin() {
+		// Did we find anything?
+		if (this.root == null) {
+			throw new NoSuchElementException();
+		}
+
+		Node n = this.root;
+		while (n.left != null) {
+			n = n.left;
+		}
+
+		return n.key;
+	}
+
+	/**
+	 * This method finds the maximum of this version
+	 * 
+	 * @return The largest element
+	 */
+	public int findMax() {
+		// Did we find anything?
+		if (this.root == null) {
+			throw new NoSuchElementException();
+		}
+
+		Node n = this.root;
+		while (n.right != null) {
+			n = n.right;
+		}
+
+		return n.key;
+	}
+
+	/**
+	 * Getter for the number of elements
+	 * 
+	 * @return The number of elements in this version
+	 */
+	public int size() {
+		return size(this.root);
+	}
+
+	/**
+	 * Getter for the height of the tree
+	 * 
+	 * @return The height of this version, 0 if it is empty
+	 */
+	public int height() {
+		return height(this.root);
+	}
+
+	/**
+	 * This method walks through the elements in increasing order
+	 * 
+	 * @return An iterator over the elements
+	 */
+	public PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+			// The nodes whose right side is left to visit, there can't be
+			// more of them than levels in the tree
+			private final Node[] stack = new Node[height()];
+			private int top = pushLeft(PersistentAvlTree.this.root, 0);
+
+			public boolean hasNext() {
+				return this.top > 0;
+			}
+
+			public int nextInt() {
+				// Are we done?
+				if (this.top == 0) {
+					throw new NoSuchElementException();
+				}
+
+				Node n = this.stack[--this.top];
+				this.top = pushLeft(n.right, this.top);
+
+				return n.key;
+			}
+
+			/**
+			 * This method stacks a node and its left side
+			 * 
+			 * @param n The node to start from
+			 * @param top The size of the stack
+			 * @return The new size of the stack
+			 */
+			private int pushLeft(Node n, int top) {
+				for (; n != null; n = n.left) {
+					this.stack[top++] = n;
+				}
+
+				return top;
+			}
+		};
+	}
+
+	/**
+	 * This method lists the elements of this version
+	 * 
+	 * @return The integers in the tree, in increasing order
+	 */
+	public int[] toArray() {
+		int[] keys = new int[size()];
+		int i = 0;
+
+		for (PrimitiveIterator.OfInt it = iterator(); it.hasNext();) {
+			keys[i++] = it.nextInt();
+		}
+
+		return keys;
+	}
+
+	/**
+	 * This method copies this version into a mutable tree, in linear time
+	 * 
+	 * @return The new tree
+	 */
+	public AvlTree toAvlTree() {
+		return AvlTree.fromSorted(toArray());
+	}
+
+	/**
+	 * This method inserts an integer into a subtree by copying the path to it
+	 * 
+	 * @param n The root of the subtree
+	 * @param e The integer to insert
+	 * @return The root of the new subtree, n itself if nothing changed
+	 */
+	private static Node insert(Node n, int e) {
+		// Is this where it belongs?
+		if (n == null) {
+			return new Node(e, null, null);
+		}
+
+		// Should we go left
+		if (e < n.key) {
+			Node l = insert(n.left, e);
+			return (l == n.left) ? n : balance(n.key, l, n.right);
+		}
+
+		// Or right?
+		if (e > n.key) {
+			Node r = insert(n.right, e);
+			return (r == n.right) ? n : balance(n.key, n.left, r);
+		}
+
+		// It is already there
+		return n;
+	}
+
+	/**
+	 * This method removes an element from a subtree by copying the path to it
+	 * 
+	 * @param n The root of the subtree
+	 * @param e The integer to remove
+	 * @return The root of the new subtree, n itself if nothing changed
+	 */
+	private static Node remove(Node n, int e) {
+		// Was it there at all?
+		if (n == null) {
+			return null;
+		}
+
+		// Should we go left
+		if (e < n.key) {
+			Node l = remove(n.left, e);
+			return (l == n.left) ? n : balance(n.key, l, n.right);
+		}
+
+		// Or right?
+		if (e > n.key) {
+			Node r = remove(n.right, e);
+			return (r == n.right) ? n : balance(n.key, n.left, r);
+		}
+
+		// Is this a half leaf?
+		if (n.left == null) {
+			return n.right;
+		}
+
+		if (n.right == null) {
+			return n.left;
+		}
+
+		// Otherwise the minimum on the right takes its place
+		Node m = n.right;
+		while (m.left != null) {
+			m = m.left;
+		}
+
+		return balance(m.key, n.left, removeMin(n.right));
+	}
+
+	/**
+	 * This method removes the minimum of a subtree by copying the path to it
+	 * 
+	 * @param n The root of the subtree, it can't be empty
+	 * @return The root of the new subtree
+	 */
+	private static Node removeMin(Node n) {
+		// Is this the minimum?
+		if (n.left == null) {
+			return n.right;
+		}
+
+		return balance(n.key, removeMin(n.left), n.right);
+	}
+
+	/**
+	 * This method creates a node out of two subtrees, rotating them in order
+	 * to respect the AVL propperties
+	 * 
+	 * @param e The integer to hold in the node
+	 * @param l The left subtree
+	 * @param r The right subtree
+	 * @return The root of the balanced subtree
+	 */
+	private static Node balance(int e, Node l, Node r) {
+		int heightDiff = height(l) - height(r);
+
+		// Do we have a lean towards the left?
+		if (heightDiff == 2) {
+			// Is it straight?
+			if (height(l.left) >= height(l.right)) {
+				return new Node(l.key, l.left, new Node(e, l.right, r));
+			}
+
+			// Or zig zag
+			return new Node(l.right.key, new Node(l.key, l.left, l.right.left), new Node(e, l.right.right, r));
+		}
+
+		// Do we have a lean towards the right?
+		if (heightDiff == -2) {
+			// Is it straight?
+			if (height(r.right) >= height(r.left)) {
+				return new Node(r.key, new Node(e, l, r.left), r.right);
+			}
+
+			// Or zig zag
+			return new Node(r.left.key, new Node(e, l, r.left.left), new Node(r.key, r.left.right, r.right));
+		}
+
+		return new Node(e, l, r);
+	}
+
+	/**
+	 * This method determines the height of a possibly empty subtree
+	 * 
+	 * @param n The root of the subtree
+	 * @return The height of the subtree, 0 if it is empty
+	 */
+	private static int height(Node n) {
+		return n == null ? 0 : n.height;
+	}
+
+	/**
+	 * This method determines the size of a possibly empty subtree
+	 * 
+	 * @param n The root of the subtree
+	 * @return The number of nodes in the subtree, 0 if it is empty
+	 */
+	private static int size(Node n) {
+		return n == null ? 0 : n.size;
+	}
+
+	/**
+	 * This class identifies a node that is never modified once created, so it
+	 * can be shared by every version of the tree
+	 */
+	private static final class Node {
+		// The value this node holds
+		final int key;
+
+		// The node on the left of this node
+		final Node left;
+		// The node on the right of this node
+		final Node right;
+
+		// The height of the subtree rooted at this node
+		final int height;
+		// The number of nodes in the subtree rooted at this node
+		final int size;
+
+		/**
+		 * A node is created by specifying the integer it holds and its
+		 * subtrees
+		 * 
+		 * @param key The integer to save in this node
+		 * @param left The left subtree
+		 * @param right The right subtree
+		 */
+		Node(int key, Node left, Node right) {
+			this.key = key;
+			this.left = left;
+			this.right = right;
+			this.height = 1 + Math.max(PersistentAvlTree.height(left), PersistentAvlTree.height(right));
+			this.size = 1 + PersistentAvlTree.size(left) + PersistentAvlTree.size(right);
+		}
+	}
+}
\ No newline at end of file
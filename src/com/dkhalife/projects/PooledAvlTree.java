@@ -0,0 +1,414 @@
+package com.dkhalife.projects;
+
+import static com.dkhalife.projects.AvlNodePool.NIL;
+
+/**
+ * This class represents an AVL Tree whose nodes live in an {@link AvlNodePool}
+ * instead of being separate objects. Nodes don't know their parent, the path
+ * taken from the root is remembered instead
+ * 
+ * @author Dany Khalife
+ */
+public class PooledAvlTree {
+	// The deepest path we can take, an AVL tree of every int is 46 levels high
+	private static final int MAX_DEPTH = 64;
+
+	// The storage for the nodes
+	private final AvlNodePool pool;
+
+	// The root of the tree
+	private int root = NIL;
+
+	// The nodes visited on the way down, reused by every operation
+	private final int[] path = new int[MAX_DEPTH];
+
+	/**
+	 * A pooled tree is created on the heap unless told otherwise
+	 */
+	public PooledAvlTree() {
+		this(new HeapNodePool());
+	}
+
+	/**
+	 * A pooled tree can be created on top of any storage
+	 * 
+	 * @param pool The storage for the nodes, it must be empty
+	 */
+	public PooledAvlTree(AvlNodePool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * This method inserts an integer into the tree
+	 * 
+	 * @param e The integer to insert
+	 */
+	public void insert(int e) {
+		// If we don't have a root, we'll make one
+		if (this.root == NIL) {
+			this.root = this.pool.allocate(e);
+			return;
+		}
+
+		// Walk down to the leaf where it belongs
+		int depth = 0;
+		int n = this.root;
+
+		while (true) {
+			this.path[depth++] = n;
+
+			// We'll get the current element
+			int current = this.pool.getKey(n);
+
+			// Should we go left
+			if (e < current) {
+				int l = this.pool.getLeft(n);
+
+				// Is this a leaf?
+				if (l == NIL) {
+					this.pool.setLeft(n, this.pool.allocate(e));
+					break;
+				}
+
+				n = l;
+			}
+			// Or right?
+			else if (e > current) {
+				int r = this.pool.getRight(n);
+
+				// Is this a leaf?
+				if (r == NIL) {
+					this.pool.setRight(n, this.pool.allocate(e));
+					break;
+				}
+
+				n = r;
+			}
+			// Or is it already there?
+			else {
+				return;
+			}
+		}
+
+		balance(depth);
+	}
+
+	/**
+	 * This method removes an element from the tree
+	 * 
+	 * @param e The integer to remove
+	 */
+	public void remove(int e) {
+		int depth = 0;
+		int n = this.root;
+
+		// Lets find it first
+		while (n != NIL) {
+			int current = this.pool.getKey(n);
+
+			// Are we there yet?
+			if (e == current) {
+				break;
+			}
+
+			this.path[depth++] = n;
+			n = (e < current) ? this.pool.getLeft(n) : this.pool.getRight(n);
+		}
+
+		// Was it there at all?
+		if (n == NIL) {
+			return;
+		}
+
+		// With two children, it takes the key of its predecessor which is
+		// removed in its place
+		if ((this.pool.getLeft(n) != NIL) && (this.pool.getRight(n) != NIL)) {
+			this.path[depth++] = n;
+
+			// Lets get the maximum on the left
+			int m = this.pool.getLeft(n);
+			while (this.pool.getRight(m) != NIL) {
+				this.path[depth++] = m;
+				m = this.pool.getRight(m);
+			}
+
+			this.pool.setKey(n, this.pool.getKey(m));
+			n = m;
+		}
+
+		// We're left with at most one child to move up
+		int child = (this.pool.getLeft(n) != NIL) ? this.pool.getLeft(n) : this.pool.getRight(n);
+		replace(depth, n, child);
+
+		this.pool.free(n);
+
+		// Now we need to rebalance the tree
+		balance(depth);
+	}
+
+	/**
+	 * This method looks for an element in the tree
+	 * 
+	 * @param e The integer to look for
+	 * @return The node holding it or NIL
+	 */
+	public int find(int e) {
+		int n = this.root;
+
+		while (n != NIL) {
+			int current = this.pool.getKey(n);
+
+			if (e < current) {
+				n = this.pool.getLeft(n);
+			}
+			else if (e > current) {
+				n = this.pool.getRight(n);
+			}
+			else {
+				return n;
+			}
+		}
+
+		return NIL;
+	}
+
+	/**
+	 * This method determines if the tree holds an element
+	 * 
+	 * @param e The integer to look for
+	 * @return True if it is in the tree
+	 */
+	public boolean contains(int e) {
+		return find(e) != NIL;
+	}
+
+	/**
+	 * This method finds the minimum of a subtree starting at the given node
+	 * 
+	 * @param n The node from which to start the search
+	 * @return The minimum node
+	 */
+	public int findMin(int n) {
+		// Did we find anything?
+		if (n == NIL) {
+			return NIL;
+		}
+
+		while (this.pool.getLeft(n) != NIL) {
+			n = this.pool.getLeft(n);
+		}
+
+		return n;
+	}
+
+	/**
+	 * This method finds the maximum of a subtree starting at the given node
+	 * 
+	 * @param n The node from which to start the search
+	 * @return The maximum node
+	 */
+	public int findMax(int n) {
+		// Did we find anything?
+		if (n == NIL) {
+			return NIL;
+		}
+
+		while (this.pool.getRight(n) != NIL) {
+			n = this.pool.getRight(n);
+		}
+
+		return n;
+	}
+
+	/**
+	 * Getter for the root
+	 * 
+	 * @return The root of the tree
+	 */
+	public int getRoot() {
+		return this.root;
+	}
+
+	/**
+	 * Getter for the storage
+	 * 
+	 * @return The pool holding the nodes
+	 */
+	public AvlNodePool getPool() {
+		return this.pool;
+	}
+
+	/**
+	 * Getter for the number of elements
+	 * 
+	 * @return The number of elements in the tree
+	 */
+	public int size() {
+		return this.pool.size();
+	}
+
+	/**
+	 * Getter for the height of the tree
+	 * 
+	 * @return The height of the tree, 0 if it is empty
+	 */
+	public int height() {
+		return this.pool.height(this.root);
+	}
+
+	/**
+	 * This method reports the memory used to store a single node
+	 * 
+	 * @return The number of bytes per node
+	 */
+	public int bytesPerNode() {
+		return this.pool.bytesPerNode();
+	}
+
+	/**
+	 * This method balances the nodes of the path, bottom up, in order to
+	 * respect the AVL propperties
+	 * 
+	 * @param depth The number of nodes on the path
+	 */
+	private void balance(int depth) {
+		for (int i = depth - 1; i >= 0; i--) {
+			int n = this.path[i];
+
+			// Remember the height this subtree had before the update
+			int oldHeight = this.pool.getHeight(n);
+
+			// Rotate if we need to
+			int top = rebalance(n);
+
+			// Did the subtree get a new root?
+			if (top != n) {
+				replace(i, n, top);
+			}
+
+			// If the height didn't change, the ancestors are not affected
+			if (this.pool.getHeight(top) == oldHeight) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * This method replaces a node by another in its parent
+	 * 
+	 * @param depth The depth of the node, its parent is just above on the path
+	 * @param n The node to replace
+	 * @param by The node taking its place
+	 */
+	private void replace(int depth, int n, int by) {
+		// Did we affect the root?
+		if (depth == 0) {
+			this.root = by;
+			return;
+		}
+
+		int parent = this.path[depth - 1];
+
+		// Adjust the incoming link
+		if (this.pool.getLeft(parent) == n) {
+			this.pool.setLeft(parent, by);
+		}
+		else {
+			this.pool.setRight(parent, by);
+		}
+	}
+
+	/**
+	 * This method balances a single node
+	 * 
+	 * @param n The node for which to consider balancing
+	 * @return The node now at the top of its subtree
+	 */
+	private int rebalance(int n) {
+		updateHeight(n);
+
+		// The height difference
+		int heightDiff = getHeightDiff(n);
+
+		// Do we have a lean towards the right?
+		if (heightDiff == -2) {
+			// Is it a zig zag?
+			if (getHeightDiff(this.pool.getRight(n)) > 0) {
+				this.pool.setRight(n, rotateRight(this.pool.getRight(n)));
+			}
+
+			return rotateLeft(n);
+		}
+
+		// Do we have a lean towards the left?
+		if (heightDiff == 2) {
+			// Is it a zig zag?
+			if (getHeightDiff(this.pool.getLeft(n)) < 0) {
+				this.pool.setLeft(n, rotateLeft(this.pool.getLeft(n)));
+			}
+
+			return rotateRight(n);
+		}
+
+		return n;
+	}
+
+	/**
+	 * This method rotates the tree to the left on the given node
+	 * 
+	 * @param top The node on which to perform the rotation
+	 * @return The node that took its place
+	 */
+	private int rotateLeft(int top) {
+		int r = this.pool.getRight(top);
+
+		// Adjust the links
+		this.pool.setRight(top, this.pool.getLeft(r));
+		this.pool.setLeft(r, top);
+
+		// Only the two rotated nodes changed height, bottom up
+		updateHeight(top);
+		updateHeight(r);
+
+		return r;
+	}
+
+	/**
+	 * This method rotates the tree to the right on the given node
+	 * 
+	 * @param top The node on which to perform the rotation
+	 * @return The node that took its place
+	 */
+	private int rotateRight(int top) {
+		int l = this.pool.getLeft(top);
+
+		// Adjust the links
+		this.pool.setLeft(top, this.pool.getRight(l));
+		this.pool.setRight(l, top);
+
+		// Only the two rotated nodes changed height, bottom up
+		updateHeight(top);
+		updateHeight(l);
+
+		return l;
+	}
+
+	/**
+	 * This method recalculates the height of a node from its children
+	 * 
+	 * @param n The node to update
+	 */
+	private void updateHeight(int n) {
+		this.pool.setHeight(n, 1 + Math.max(this.pool.height(this.pool.getLeft(n)), this.pool.height(this.pool.getRight(n))));
+	}
+
+	/**
+	 * This method determines the height difference for a node
+	 * 
+	 * @param n The node to consider
+	 * @return The height difference between the left and right subtrees
+	 */
+	private int getHeightDiff(int n) {
+		return this.pool.height(this.pool.getLeft(n)) - this.pool.height(this.pool.getRight(n));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,245 @@
+package com.dkhalife.projects;
+
+import java.util.Arrays;
+
+/**
+ * This class finds the nodes of a laid out tree, and the edges with their
+ * parents, that lie in a rectangle of the grid without looking at the others.
+ * 
+ * The grid is cut into rows one cell tall, a row being a Y coordinate. The
+ * nodes of every row are sorted by X, so those in a rectangle are found with
+ * two binary searches per row. An edge is known by the node at its lower end,
+ * it belongs to the row of that node and is sorted by its leftmost X, along
+ * with the rightmost X reached by any edge before it, so the first edge that
+ * can reach into the rectangle is found the same way.
+ * 
+ * Everything is kept in arrays of node numbers, a query only fills the lists
+ * it is given.
+ * 
+ * @author Dany Khalife
+ */
+final class SpatialIndex {
+	// The layout being indexed
+	private final TreeLayout layout;
+
+	// The number of rows, the first one being the one of the root
+	private final int rows;
+
+	// The nodes sorted by row then by X
+	private final int[] nodes;
+	// Where the nodes of each row start, with the end of the last one
+	private final int[] nodeRows;
+
+	// The lower ends of the edges, sorted by row then by leftmost X
+	private final int[] edges;
+	// Where the edges of each row start, with the end of the last one
+	private final int[] edgeRows;
+	// The rightmost X of the edges of a row up to each one
+	private final int[] reach;
+	// The tallest edge, in rows
+	private int span = 0;
+
+	/**
+	 * An index is built by specifying the layout it holds
+	 * 
+	 * @param layout The layout of the tree
+	 */
+	SpatialIndex(TreeLayout layout) {
+		this.layout = layout;
+
+		int n = layout.size();
+		this.rows = (n == 0) ? 0 : (layout.getMaxY() + 1);
+
+		// Lets count the nodes of each row, then drop them in place. Going
+		// in preorder leaves every row sorted from left to right
+		this.nodeRows = new int[this.rows + 1];
+		this.edgeRows = new int[this.rows + 1];
+
+		for (int i = 0; i < n; i++) {
+			this.nodeRows[layout.getY(i) + 1]++;
+
+			if (i > 0) {
+				this.edgeRows[layout.getY(i) + 1]++;
+				this.span = Math.max(this.span, layout.getY(i) - layout.getY(layout.getParent(i)));
+			}
+		}
+
+		for (int r = 0; r < this.rows; r++) {
+			this.nodeRows[r + 1] += this.nodeRows[r];
+			this.edgeRows[r + 1] += this.edgeRows[r];
+		}
+
+		this.nodes = new int[n];
+		this.edges = new int[Math.max(n - 1, 0)];
+
+		int[] nextNode = Arrays.copyOf(this.nodeRows, this.rows);
+		int[] nextEdge = Arrays.copyOf(this.edgeRows, this.rows);
+
+		for (int i = 0; i < n; i++) {
+			this.nodes[nextNode[layout.getY(i)]++] = i;
+
+			if (i > 0) {
+				this.edges[nextEdge[layout.getY(i)]++] = i;
+			}
+		}
+
+		// Make sure, then find how far the edges reach
+		this.reach = new int[this.edges.length];
+
+		for (int r = 0; r < this.rows; r++) {
+			sortByX(this.nodes, this.nodeRows[r], this.nodeRows[r + 1], false);
+			sortByX(this.edges, this.edgeRows[r], this.edgeRows[r + 1], true);
+
+			int max = Integer.MIN_VALUE;
+			for (int i = this.edgeRows[r]; i < this.edgeRows[r + 1]; i++) {
+				this.reach[i] = max = Math.max(max, right(this.edges[i]));
+			}
+		}
+	}
+
+	/**
+	 * This method finds what lies in a rectangle of the grid, bounds included
+	 * 
+	 * @param minX The left of the rectangle
+	 * @param minY The top of the rectangle
+	 * @param maxX The right of the rectangle
+	 * @param maxY The bottom of the rectangle
+	 * @param nodes Emptied then filled with the nodes in the rectangle
+	 * @param edges Emptied then filled with the lower ends of the edges
+	 *        crossing the rectangle
+	 */
+	void query(int minX, int minY, int maxX, int maxY, IntList nodes, IntList edges) {
+		nodes.clear();
+		edges.clear();
+
+		// The nodes can only be in the rows of the rectangle
+		int first = Math.max(minY, 0);
+		int last = Math.min(maxY, this.rows - 1);
+
+		for (int r = first; r <= last; r++) {
+			int end = this.nodeRows[r + 1];
+
+			for (int i = firstNode(r, minX); (i < end) && (this.layout.getX(this.nodes[i]) <= maxX); i++) {
+				nodes.add(this.nodes[i]);
+			}
+		}
+
+		// An edge can come from below the rectangle, as far as the tallest one
+		last = (int) Math.min((long) maxY + this.span, this.rows - 1);
+
+		for (int r = first; r <= last; r++) {
+			int end = this.edgeRows[r + 1];
+
+			for (int i = firstEdge(r, minX); (i < end) && (left(this.edges[i]) <= maxX); i++) {
+				int e = this.edges[i];
+
+				// Does it reach the rectangle?
+				if ((right(e) >= minX) && (this.layout.getY(this.layout.getParent(e)) <= maxY)) {
+					edges.add(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method finds the first node of a row that isn't left of an X
+	 * 
+	 * @param r The row
+	 * @param x The X coordinate
+	 * @return The index of the node, or the end of the row if there is none
+	 */
+	private int firstNode(int r, int x) {
+		int lo = this.nodeRows[r];
+		int hi = this.nodeRows[r + 1];
+
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+
+			if (this.layout.getX(this.nodes[mid]) < x) {
+				lo = mid + 1;
+			}
+			else {
+				hi = mid;
+			}
+		}
+
+		return lo;
+	}
+
+	/**
+	 * This method finds the first edge of a row that could reach an X
+	 * 
+	 * @param r The row
+	 * @param x The X coordinate
+	 * @return The index of the edge, or the end of the row if there is none
+	 */
+	private int firstEdge(int r, int x) {
+		int lo = this.edgeRows[r];
+		int hi = this.edgeRows[r + 1];
+
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+
+			if (this.reach[mid] < x) {
+				lo = mid + 1;
+			}
+			else {
+				hi = mid;
+			}
+		}
+
+		return lo;
+	}
+
+	/**
+	 * This method sorts part of an array of nodes by X, unless it is sorted
+	 * already
+	 * 
+	 * @param a The array
+	 * @param from The first index to sort
+	 * @param to The index after the last one to sort
+	 * @param edges True to sort the edges by their leftmost X rather than the
+	 *        nodes by their own
+	 */
+	private void sortByX(int[] a, int from, int to, boolean edges) {
+		for (int i = from + 1; i < to; i++) {
+			// Is this one out of order?
+			if ((edges ? left(a[i - 1]) : this.layout.getX(a[i - 1])) > (edges ? left(a[i]) : this.layout.getX(a[i]))) {
+				// Pack the X with the node so a primitive sort is enough
+				long[] packed = new long[to - from];
+
+				for (int k = from; k < to; k++) {
+					packed[k - from] = ((long) (edges ? left(a[k]) : this.layout.getX(a[k])) << 32) | a[k];
+				}
+
+				Arrays.sort(packed);
+
+				for (int k = from; k < to; k++) {
+					a[k] = (int) packed[k - from];
+				}
+
+				return;
+			}
+		}
+	}
+
+	/**
+	 * This method finds the leftmost X of an edge
+	 * 
+	 * @param e The lower end of the edge
+	 * @return The smallest X of its ends
+	 */
+	private int left(int e) {
+		return Math.min(this.layout.getX(e), this.layout.getX(this.layout.getParent(e)));
+	}
+
+	/**
+	 * This method finds the rightmost X of an edge
+	 * 
+	 * @param e The lower end of the edge
+	 * @return The largest X of its ends
+	 */
+	private int right(int e) {
+		return Math.max(this.layout.getX(e), this.layout.getX(this.layout.getParent(e)));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,532 @@
+package com.dkhalife.projects;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * This class saves a whole tree as a picture, however large it is, drawn the
+ * way the panel draws it at a given cell size.
+ * 
+ * The PNG is drawn in tiles, one band of rows at a time, and every band is
+ * compressed and written before the next one is drawn, so only a band is ever
+ * held in memory. The SVG and the DOT are written node by node in a single
+ * pass, nothing is built before being written.
+ * 
+ * @author Dany Khalife
+ */
+final class TreeExporter {
+	// The width of a tile in pixels
+	private static final int TILE = 512;
+
+	// The most memory a band of rows can take, in bytes
+	private static final int BAND_BYTES = 32 << 20;
+
+	// The room around the tree, in cells
+	private static final int PAD = 3;
+
+	// The signature every PNG starts with
+	private static final byte[] PNG_SIGNATURE = { (byte) 137, 'P', 'N', 'G', '\r', '\n', 26, '\n' };
+
+	// Where every node is
+	private final TreeLayout layout;
+
+	// The size of a cell in pixels
+	private final int cell;
+	// The stroke of the edges at this size
+	private final BasicStroke edgeStroke;
+	// The font of the labels at this size
+	private final Font labelFont;
+
+	// The width of the picture in pixels
+	private final long width;
+	// The height of the picture in pixels
+	private final long height;
+
+	// Finds what is in a tile, null until the first one
+	private SpatialIndex index = null;
+	// The nodes in a tile
+	private final IntList nodes = new IntList(1024);
+	// The edges in a tile
+	private final IntList edges = new IntList(1024);
+	// The edges of a tile, drawn all at once
+	private final Path2D.Float path = new Path2D.Float();
+
+	/**
+	 * An exporter is created by specifying the tree and how large it is drawn
+	 * 
+	 * @param root The root of the tree, can be null
+	 * @param cell The size of a cell in pixels
+	 */
+	TreeExporter(AvlNode root, int cell) {
+		if (cell < 1) {
+			throw new IllegalArgumentException("The cell size must be positive");
+		}
+
+		this.layout = new TreeLayout(root);
+		this.cell = cell;
+		this.edgeStroke = new BasicStroke(Math.max(1, cell * 3 / 20.0F));
+		this.labelFont = new Font("Verdana", 1, cell * 4 / 5);
+
+		this.width = ((long) this.layout.getMaxX() - this.layout.getMinX() + 2 * PAD) * cell;
+		this.height = ((long) this.layout.getMaxY() + 2 * PAD) * cell;
+	}
+
+	/**
+	 * Getter for the width
+	 * 
+	 * @return The width of the picture in pixels
+	 */
+	long getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * Getter for the height
+	 * 
+	 * @return The height of the picture in pixels
+	 */
+	long getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * This method finds where a node is drawn in X
+	 * 
+	 * @param i The node
+	 * @return The X coordinate of its center in pixels
+	 */
+	private long pixelX(int i) {
+		return ((long) this.layout.getX(i) - this.layout.getMinX() + PAD) * this.cell;
+	}
+
+	/**
+	 * This method finds where a node is drawn in Y
+	 * 
+	 * @param i The node
+	 * @return The Y coordinate of its center in pixels
+	 */
+	private long pixelY(int i) {
+		return ((long) this.layout.getY(i) + PAD) * this.cell;
+	}
+
+	/**
+	 * This method writes the tree as a PNG
+	 * 
+	 * @param out Where to write it, left open
+	 * @throws IOException If it can't be written
+	 * @throws IllegalArgumentException If the picture is too wide to be
+	 *         written, in which case a smaller cell will do
+	 */
+	void writePng(OutputStream out) throws IOException {
+		// A row of RGB pixels, preceded by its filter, has to fit in an array
+		if (this.width * 3 + 1 > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("The picture would be " + this.width + " pixels wide, use a smaller cell");
+		}
+
+		if (this.height > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The picture would be " + this.height + " pixels tall, use a smaller cell");
+		}
+
+		int w = (int) this.width;
+		int h = (int) this.height;
+
+		// Make the bands as tall as the tiles are wide, unless the rows are
+		// too wide for that
+		int rowBytes = w * 3 + 1;
+		int bandHeight = Math.max(1, Math.min(TILE, BAND_BYTES / rowBytes));
+
+		byte[][] band = new byte[bandHeight][rowBytes];
+		BufferedImage tile = new BufferedImage(TILE, bandHeight, BufferedImage.TYPE_INT_RGB);
+		int[] pixels = ((DataBufferInt) tile.getRaster().getDataBuffer()).getData();
+
+		DataOutputStream data = new DataOutputStream(out);
+		data.write(PNG_SIGNATURE);
+
+		// The header: the size, 8 bits per sample, RGB, no interlacing
+		byte[] header = new byte[13];
+		writeInt(header, 0, w);
+		writeInt(header, 4, h);
+		header[8] = 8;
+		header[9] = 2;
+		writeChunk(data, "IHDR", header, header.length);
+
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+		ChunkStream idat = new ChunkStream(data);
+		Graphics2D g = tile.createGraphics();
+
+		try {
+			DeflaterOutputStream z = new DeflaterOutputStream(idat, deflater, 1 << 16);
+
+			for (int top = 0; top < h; top += bandHeight) {
+				int rows = Math.min(bandHeight, h - top);
+
+				// Lets draw the band one tile at a time and copy it over
+				for (int left = 0; left < w; left += TILE) {
+					int cols = Math.min(TILE, w - left);
+
+					paintTile(g, left, top, TILE, bandHeight);
+
+					for (int y = 0; y < rows; y++) {
+						byte[] row = band[y];
+
+						for (int x = 0, k = y * TILE, b = 1 + left * 3; x < cols; x++, k++) {
+							int rgb = pixels[k];
+							row[b++] = (byte) (rgb >> 16);
+							row[b++] = (byte) (rgb >> 8);
+							row[b++] = (byte) rgb;
+						}
+					}
+				}
+
+				// The rows aren't filtered, the first byte of each stays 0
+				for (int y = 0; y < rows; y++) {
+					z.write(band[y], 0, rowBytes);
+				}
+			}
+
+			z.finish();
+			idat.flush();
+		}
+		finally {
+			g.dispose();
+			deflater.end();
+		}
+
+		writeChunk(data, "IEND", new byte[0], 0);
+		data.flush();
+	}
+
+	/**
+	 * This method draws a tile of the picture
+	 * 
+	 * @param g The graphics of the tile
+	 * @param left The left of the tile in the picture, in pixels
+	 * @param top The top of the tile in the picture, in pixels
+	 * @param w The width of the tile in pixels
+	 * @param h The height of the tile in pixels
+	 */
+	private void paintTile(Graphics2D g, int left, int top, int w, int h) {
+		TreeLayout layout = this.layout;
+		int cell = this.cell;
+
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, w, h);
+
+		// Is there anything to draw?
+		if (layout.size() == 0) {
+			return;
+		}
+
+		// Only what is in the tile gets drawn, with enough room around it for
+		// the circles and the labels that stick out
+		int minX = Math.floorDiv(left - Panel.LABEL_PAD, cell) - PAD + layout.getMinX();
+		int minY = Math.floorDiv(top, cell) - PAD - 1;
+		int maxX = Math.floorDiv(left + w + Panel.LABEL_PAD, cell) - PAD + layout.getMinX();
+		int maxY = Math.floorDiv(top + h, cell) - PAD + 1;
+
+		IntList nodes = this.nodes;
+		IntList edges = this.edges;
+		index().query(minX, minY, maxX, maxY, nodes, edges);
+
+		// Draw the edges all at once
+		Path2D.Float path = this.path;
+		path.reset();
+
+		for (int k = 0; k < edges.size(); k++) {
+			int i = edges.get(k);
+			int p = layout.getParent(i);
+
+			path.moveTo(pixelX(i) - left, pixelY(i) - top);
+			path.lineTo(pixelX(p) - left, pixelY(p) - top);
+		}
+
+		g.setStroke(this.edgeStroke);
+		g.setColor(Color.BLUE);
+		g.draw(path);
+
+		// Then the vertices
+		g.setFont(this.labelFont);
+		FontMetrics metrics = g.getFontMetrics();
+
+		for (int k = 0; k < nodes.size(); k++) {
+			int i = nodes.get(k);
+			int px = (int) (pixelX(i) - left);
+			int py = (int) (pixelY(i) - top);
+
+			g.setColor(Color.BLACK);
+			g.fillOval(px - cell, py - cell, 2 * cell, 2 * cell);
+
+			// Would the label be readable?
+			if (cell >= Panel.MIN_LABEL_CELL) {
+				String label = String.valueOf(layout.getKey(i));
+
+				g.setColor(Color.WHITE);
+				g.drawString(label, px - metrics.stringWidth(label) / 2, py + (metrics.getAscent() - metrics.getDescent()) / 2);
+			}
+		}
+	}
+
+	/**
+	 * Getter for the index, it is only built when a PNG is written
+	 * 
+	 * @return The index of the layout
+	 */
+	private SpatialIndex index() {
+		if (this.index == null) {
+			this.index = new SpatialIndex(this.layout);
+		}
+
+		return this.index;
+	}
+
+	/**
+	 * This method writes the tree as an SVG, every node along with the edge to
+	 * its parent in preorder
+	 * 
+	 * The edges stop at the circles so nothing has to be written before them.
+	 * 
+	 * @param out Where to write it, left open
+	 * @throws IOException If it can't be written
+	 */
+	void writeSvg(Writer out) throws IOException {
+		TreeLayout layout = this.layout;
+		int cell = this.cell;
+
+		out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + this.width + "\" height=\"" + this.height + "\">\n");
+		out.write("<style>line{stroke:#00f;stroke-width:" + this.edgeStroke.getLineWidth() + "}circle{fill:#000}text{fill:#fff;font:bold " + (cell * 4 / 5) + "px Verdana;text-anchor:middle;dominant-baseline:central}</style>\n");
+		out.write("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>\n");
+
+		StringBuilder sb = new StringBuilder(256);
+
+		for (int i = 0; i < layout.size(); i++) {
+			long x = pixelX(i);
+			long y = pixelY(i);
+			sb.setLength(0);
+
+			// The edge to the parent, from circle to circle
+			int p = layout.getParent(i);
+
+			if (p >= 0) {
+				double dx = x - pixelX(p);
+				double dy = y - pixelY(p);
+				double r = cell / Math.sqrt(dx * dx + dy * dy);
+
+				sb.append("<line x1=\"");
+				appendDecimal(sb, pixelX(p) + dx * r);
+				sb.append("\" y1=\"");
+				appendDecimal(sb, pixelY(p) + dy * r);
+				sb.append("\" x2=\"");
+				appendDecimal(sb, x - dx * r);
+				sb.append("\" y2=\"");
+				appendDecimal(sb, y - dy * r);
+				sb.append("\"/>\n");
+			}
+
+			sb.append("<circle cx=\"").append(x).append("\" cy=\"").append(y).append("\" r=\"").append(cell).append("\"/>\n");
+			sb.append("<text x=\"").append(x).append("\" y=\"").append(y).append("\">").append(layout.getKey(i)).append("</text>\n");
+
+			out.append(sb);
+		}
+
+		out.write("</svg>\n");
+		out.flush();
+	}
+
+	/**
+	 * This method writes a tree as a DOT graph, walking the tree itself so it
+	 * doesn't need to be laid out. Each edge is labeled L or R, so a node with
+	 * a single child still shows which side it is on
+	 * 
+	 * @param root The root of the tree, can be null
+	 * @param out Where to write it, left open
+	 * @throws IOException If it can't be written
+	 */
+	static void writeDot(AvlNode root, Writer out) throws IOException {
+		out.write("digraph avl {\n");
+		out.write("\tnode [shape=circle];\n");
+
+		if (root != null) {
+			// The nodes left to visit along with the number of their parent
+			// and their side of it, there can't be more pending nodes than
+			// levels in the tree
+			AvlNode[] nodes = new AvlNode[root.height()];
+			int[] from = new int[root.height()];
+			char[] sides = new char[root.height()];
+			int top = 0;
+			int count = 0;
+
+			nodes[top] = root;
+			from[top++] = -1;
+
+			StringBuilder sb = new StringBuilder(64);
+
+			while (top > 0) {
+				AvlNode n = nodes[--top];
+				int parent = from[top];
+				char side = sides[top];
+				int i = count++;
+
+				sb.setLength(0);
+				sb.append("\tn").append(i).append(" [label=\"").append(n.getElem()).append("\"];\n");
+
+				if (parent >= 0) {
+					sb.append("\tn").append(parent).append(" -> n").append(i).append(" [label=\"").append(side).append("\"];\n");
+				}
+
+				out.append(sb);
+
+				// Visit the right side after the left side
+				if (n.getRight() != null) {
+					nodes[top] = n.getRight();
+					sides[top] = 'R';
+					from[top++] = i;
+				}
+
+				// Visit the left side first
+				if (n.getLeft() != null) {
+					nodes[top] = n.getLeft();
+					sides[top] = 'L';
+					from[top++] = i;
+				}
+			}
+		}
+
+		out.write("}\n");
+		out.flush();
+	}
+
+	/**
+	 * This method appends a positive number with a single decimal, never in
+	 * scientific notation
+	 * 
+	 * @param sb Where to append it
+	 * @param v The number
+	 */
+	private static void appendDecimal(StringBuilder sb, double v) {
+		long tenths = Math.round(v * 10);
+		sb.append(tenths / 10).append('.').append(tenths % 10);
+	}
+
+	/**
+	 * This method writes an integer in big endian order
+	 * 
+	 * @param b Where to write it
+	 * @param off Where its first byte goes
+	 * @param v The integer
+	 */
+	private static void writeInt(byte[] b, int off, int v) {
+		b[off] = (byte) (v >>> 24);
+		b[off + 1] = (byte) (v >>> 16);
+		b[off + 2] = (byte) (v >>> 8);
+		b[off + 3] = (byte) v;
+	}
+
+	/**
+	 * This method writes a chunk of a PNG
+	 * 
+	 * @param out Where to write it
+	 * @param type The type of the chunk
+	 * @param b The data of the chunk
+	 * @param len How many bytes of data there are
+	 * @throws IOException If it can't be written
+	 */
+	private static void writeChunk(DataOutputStream out, String type, byte[] b, int len) throws IOException {
+		byte[] t = type.getBytes(StandardCharsets.US_ASCII);
+
+		CRC32 crc = new CRC32();
+		crc.update(t);
+		crc.update(b, 0, len);
+
+		out.writeInt(len);
+		out.write(t);
+		out.write(b, 0, len);
+		out.writeInt((int) crc.getValue());
+	}
+
+	/**
+	 * This class cuts the compressed pixels in IDAT chunks as they come
+	 */
+	private static final class ChunkStream extends OutputStream {
+		// Where the chunks go
+		private final DataOutputStream out;
+
+		// The bytes of the next chunk
+		private final byte[] buffer = new byte[1 << 16];
+		// The number of them
+		private int count = 0;
+
+		/**
+		 * A stream is created by specifying where the chunks go
+		 * 
+		 * @param out The stream of the PNG
+		 */
+		ChunkStream(DataOutputStream out) {
+			this.out = out;
+		}
+
+		/**
+		 * This method overrides the super method to add a byte to the chunk
+		 * 
+		 * @param b The byte
+		 * @throws IOException If a chunk can't be written
+		 */
+		public void write(int b) throws IOException {
+			if (this.count == this.buffer.length) {
+				flush();
+			}
+
+			this.buffer[this.count++] = (byte) b;
+		}
+
+		/**
+		 * This method overrides the super method to add bytes to the chunk
+		 * 
+		 * @param b The bytes
+		 * @param off The first one to add
+		 * @param len The number of them
+		 * @throws IOException If a chunk can't be written
+		 */
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (this.count == this.buffer.length) {
+					flush();
+				}
+
+				int n = Math.min(len, this.buffer.length - this.count);
+				System.arraycopy(b, off, this.buffer, this.count, n);
+
+				this.count += n;
+				off += n;
+				len -= n;
+			}
+		}
+
+		/**
+		 * This method overrides the super method to write the chunk, if there
+		 * is anything in it
+		 * 
+		 * @throws IOException If it can't be written
+		 */
+		public void flush() throws IOException {
+			if (this.count > 0) {
+				writeChunk(this.out, "IDAT", this.buffer, this.count);
+				this.count = 0;
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,434 @@
+package com.dkhalife.projects;
+
+/**
+ * This class places the nodes of a tree on the grid as tightly as possible
+ * without overlapping them.
+ * 
+ * It follows the Reingold-Tilford algorithm: every subtree is laid out on its
+ * own, then the two subtrees of a node are pushed apart until their facing
+ * contours are at least MIN_SEP cells apart on every level, and the node is
+ * centered above them. A contour that ends before the other one is threaded
+ * to it, so no contour is ever walked twice and the whole layout takes linear
+ * time.
+ * 
+ * The nodes are numbered in preorder, the root being 0, so a parent always
+ * comes before its children and a subtree is the range of numbers starting
+ * at its root and as long as its size.
+ * 
+ * @author Dany Khalife
+ */
+final class TreeLayout {
+	// The smallest distance in cells between two nodes of the same level
+	static final int MIN_SEP = 4;
+
+	// The distance in cells between two levels
+	static final int LEVEL_SEP = 2;
+
+	// The number of nodes
+	private final int size;
+
+	// The integer held by each node
+	private final int[] keys;
+	// The parent of each node, -1 for the root
+	private final int[] parents;
+
+	// The X coordinate of each node, the root being at 0
+	private final int[] x;
+	// The Y coordinate of each node, the root being at 0
+	private final int[] y;
+
+	// The number of nodes in the subtree of each node
+	private final int[] sizes;
+	// The height of the subtree of each node, a leaf has a height of 1
+	private final int[] heights;
+	// The smallest X in the subtree of each node
+	private final int[] lows;
+	// The largest X in the subtree of each node
+	private final int[] highs;
+
+	// The smallest X coordinate
+	private int minX = 0;
+	// The largest X coordinate
+	private int maxX = 0;
+	// The largest Y coordinate
+	private int maxY = 0;
+
+	/**
+	 * A layout is computed by specifying the root of the tree
+	 * 
+	 * @param root The root of the tree, can be null
+	 */
+	TreeLayout(AvlNode root) {
+		this.size = (root == null) ? 0 : root.size();
+
+		this.keys = new int[this.size];
+		this.parents = new int[this.size];
+		this.x = new int[this.size];
+		this.y = new int[this.size];
+		this.sizes = new int[this.size];
+		this.heights = new int[this.size];
+		this.lows = new int[this.size];
+		this.highs = new int[this.size];
+
+		// Is there anything to place?
+		if (this.size == 0) {
+			return;
+		}
+
+		int[] left = new int[this.size];
+		int[] right = new int[this.size];
+
+		number(root, left, right);
+		place(left, right);
+	}
+
+	/**
+	 * This method numbers the nodes in preorder and remembers how they are
+	 * linked
+	 * 
+	 * @param root The root of the tree
+	 * @param left Where to save the left child of each node
+	 * @param right Where to save the right child of each node
+	 */
+	private void number(AvlNode root, int[] left, int[] right) {
+		// The nodes left to visit along with the number of their parent,
+		// there can't be more pending nodes than levels in the tree
+		AvlNode[] nodes = new AvlNode[root.height()];
+		int[] from = new int[root.height()];
+		int top = 0;
+		int count = 0;
+
+		nodes[top] = root;
+		from[top++] = -1;
+
+		while (top > 0) {
+			AvlNode n = nodes[--top];
+			int parent = from[top];
+			int i = count++;
+
+			this.keys[i] = n.getElem();
+			this.parents[i] = parent;
+			this.sizes[i] = n.size();
+			this.heights[i] = n.height();
+			left[i] = -1;
+			right[i] = -1;
+
+			if (parent >= 0) {
+				this.y[i] = this.y[parent] + LEVEL_SEP;
+
+				// Is this the left node
+				if (n.getParent().getLeft() == n) {
+					left[parent] = i;
+				}
+				// Or the right node
+				else {
+					right[parent] = i;
+				}
+			}
+
+			// Visit the right side after the left side
+			if (n.getRight() != null) {
+				nodes[top] = n.getRight();
+				from[top++] = i;
+			}
+
+			// Visit the left side first
+			if (n.getLeft() != null) {
+				nodes[top] = n.getLeft();
+				from[top++] = i;
+			}
+		}
+	}
+
+	/**
+	 * This method computes the coordinates of the nodes
+	 * 
+	 * @param left The left child of each node
+	 * @param right The right child of each node
+	 */
+	private void place(int[] left, int[] right) {
+		int n = this.size;
+
+		// The distance from each node to its parent
+		int[] offset = new int[n];
+		// The node that carries on the contour after a leaf, -1 if none
+		int[] thread = new int[n];
+		// The distance from a threaded leaf to the node it is threaded to
+		int[] threadOffset = new int[n];
+
+		// The leftmost and rightmost nodes of the deepest level of each
+		// subtree, along with their distance to the root of the subtree
+		int[] leftmost = new int[n];
+		int[] rightmost = new int[n];
+		int[] leftmostX = new int[n];
+		int[] rightmostX = new int[n];
+
+		// The height of each subtree
+		int[] height = new int[n];
+
+		// Children come after their parent, so going backwards lays out every
+		// subtree before the node above it
+		for (int v = n - 1; v >= 0; v--) {
+			int l = left[v];
+			int r = right[v];
+			thread[v] = -1;
+
+			// Is it a leaf?
+			if ((l < 0) && (r < 0)) {
+				leftmost[v] = rightmost[v] = v;
+				leftmostX[v] = rightmostX[v] = 0;
+				height[v] = 1;
+			}
+			// Or does it only have a left node
+			else if (r < 0) {
+				offset[l] = -MIN_SEP / 2;
+				leftmost[v] = leftmost[l];
+				rightmost[v] = rightmost[l];
+				leftmostX[v] = leftmostX[l] + offset[l];
+				rightmostX[v] = rightmostX[l] + offset[l];
+				height[v] = height[l] + 1;
+			}
+			// Or only a right node
+			else if (l < 0) {
+				offset[r] = MIN_SEP / 2;
+				leftmost[v] = leftmost[r];
+				rightmost[v] = rightmost[r];
+				leftmostX[v] = leftmostX[r] + offset[r];
+				rightmostX[v] = rightmostX[r] + offset[r];
+				height[v] = height[r] + 1;
+			}
+			// Both sides need to be pushed apart
+			else {
+				// Walk down the right contour of the left side and the left
+				// contour of the right side, each relative to its own root
+				int a = l;
+				int b = r;
+				int ax = 0;
+				int bx = 0;
+				int distance = MIN_SEP;
+
+				while (true) {
+					distance = Math.max(distance, ax - bx + MIN_SEP);
+
+					// Next node of the right contour of the left side
+					int na;
+					if (right[a] >= 0) {
+						na = right[a];
+						ax += offset[na];
+					}
+					else if (left[a] >= 0) {
+						na = left[a];
+						ax += offset[na];
+					}
+					else {
+						na = thread[a];
+						ax += threadOffset[a];
+					}
+
+					// Next node of the left contour of the right side
+					int nb;
+					if (left[b] >= 0) {
+						nb = left[b];
+						bx += offset[nb];
+					}
+					else if (right[b] >= 0) {
+						nb = right[b];
+						bx += offset[nb];
+					}
+					else {
+						nb = thread[b];
+						bx += threadOffset[b];
+					}
+
+					// Did one of them end?
+					if ((na < 0) || (nb < 0)) {
+						a = na;
+						b = nb;
+						break;
+					}
+
+					a = na;
+					b = nb;
+				}
+
+				// Keep the node on a whole cell, right in the middle
+				if ((distance & 1) != 0) {
+					distance++;
+				}
+
+				offset[l] = -distance / 2;
+				offset[r] = distance / 2;
+
+				// Is the left side shorter? Its left contour goes on with the
+				// one of the right side
+				if ((a < 0) && (b >= 0)) {
+					int from = leftmost[l];
+					thread[from] = b;
+					threadOffset[from] = (offset[r] + bx) - (offset[l] + leftmostX[l]);
+				}
+				// Or is the right side shorter? Its right contour goes on
+				// with the one of the left side
+				else if ((a >= 0) && (b < 0)) {
+					int from = rightmost[r];
+					thread[from] = a;
+					threadOffset[from] = (offset[l] + ax) - (offset[r] + rightmostX[r]);
+				}
+
+				// The deepest level comes from the taller side
+				if (height[l] >= height[r]) {
+					leftmost[v] = leftmost[l];
+					leftmostX[v] = leftmostX[l] + offset[l];
+				}
+				else {
+					leftmost[v] = leftmost[r];
+					leftmostX[v] = leftmostX[r] + offset[r];
+				}
+
+				if (height[r] >= height[l]) {
+					rightmost[v] = rightmost[r];
+					rightmostX[v] = rightmostX[r] + offset[r];
+				}
+				else {
+					rightmost[v] = rightmost[l];
+					rightmostX[v] = rightmostX[l] + offset[l];
+				}
+
+				height[v] = Math.max(height[l], height[r]) + 1;
+			}
+		}
+
+		// Now that every node knows where it is from its parent, lets place
+		// them from the root down
+		for (int v = 1; v < n; v++) {
+			this.x[v] = this.x[this.parents[v]] + offset[v];
+			this.lows[v] = this.highs[v] = this.x[v];
+
+			this.minX = Math.min(this.minX, this.x[v]);
+			this.maxX = Math.max(this.maxX, this.x[v]);
+			this.maxY = Math.max(this.maxY, this.y[v]);
+		}
+
+		// Then widen every subtree to the nodes below it
+		for (int v = n - 1; v > 0; v--) {
+			int p = this.parents[v];
+			this.lows[p] = Math.min(this.lows[p], this.lows[v]);
+			this.highs[p] = Math.max(this.highs[p], this.highs[v]);
+		}
+	}
+
+	/**
+	 * Getter for the number of nodes
+	 * 
+	 * @return The number of nodes placed
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Getter for the integer of a node
+	 * 
+	 * @param i The number of the node
+	 * @return The integer it holds
+	 */
+	int getKey(int i) {
+		return this.keys[i];
+	}
+
+	/**
+	 * Getter for the parent of a node
+	 * 
+	 * @param i The number of the node
+	 * @return The number of its parent, -1 for the root
+	 */
+	int getParent(int i) {
+		return this.parents[i];
+	}
+
+	/**
+	 * Getter for the X of a node
+	 * 
+	 * @param i The number of the node
+	 * @return Its X coordinate in cells, from the root
+	 */
+	int getX(int i) {
+		return this.x[i];
+	}
+
+	/**
+	 * Getter for the Y of a node
+	 * 
+	 * @param i The number of the node
+	 * @return Its Y coordinate in cells, from the root
+	 */
+	int getY(int i) {
+		return this.y[i];
+	}
+
+	/**
+	 * Getter for the size of a subtree
+	 * 
+	 * @param i The number of the root of the subtree
+	 * @return The number of nodes in it
+	 */
+	int getSize(int i) {
+		return this.sizes[i];
+	}
+
+	/**
+	 * Getter for the height of a subtree
+	 * 
+	 * @param i The number of the root of the subtree
+	 * @return Its height, a leaf has a height of 1
+	 */
+	int getHeight(int i) {
+		return this.heights[i];
+	}
+
+	/**
+	 * Getter for the left of a subtree
+	 * 
+	 * @param i The number of the root of the subtree
+	 * @return The X coordinate of its leftmost node
+	 */
+	int getLow(int i) {
+		return this.lows[i];
+	}
+
+	/**
+	 * Getter for the right of a subtree
+	 * 
+	 * @param i The number of the root of the subtree
+	 * @return The X coordinate of its rightmost node
+	 */
+	int getHigh(int i) {
+		return this.highs[i];
+	}
+
+	/**
+	 * Getter for the smallest X
+	 * 
+	 * @return The X coordinate of the leftmost node, from the root
+	 */
+	int getMinX() {
+		return this.minX;
+	}
+
+	/**
+	 * Getter for the largest X
+	 * 
+	 * @return The X coordinate of the rightmost node, from the root
+	 */
+	int getMaxX() {
+		return this.maxX;
+	}
+
+	/**
+	 * Getter for the largest Y
+	 * 
+	 * @return The Y coordinate of the deepest node, from the root
+	 */
+	int getMaxY() {
+		return this.maxY;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks the generic map and set against java.util.TreeMap and
+ * java.util.TreeSet
+ * 
+ * @author Dany Khalife
+ */
+class AvlMapTest {
+	/**
+	 * This method checks random puts and removals, and the lookups around
+	 * random keys
+	 */
+	@Test
+	void mapMatchesTreeMap() {
+		Random rnd = new Random(13);
+		AvlMap<String, Integer> map = new AvlMap<String, Integer>();
+		TreeMap<String, Integer> expected = new TreeMap<String, Integer>();
+
+		for (int i = 0; i < 20000; i++) {
+			String key = "k" + rnd.nextInt(2000);
+
+			if (rnd.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), map.remove(key));
+			}
+			else {
+				assertEquals(expected.put(key, Integer.valueOf(i)), map.put(key, Integer.valueOf(i)));
+			}
+		}
+
+		assertEquals(expected.size(), map.size());
+		assertEquals(expected, map);
+		assertEquals(new ArrayList<String>(expected.keySet()), new ArrayList<String>(map.keySet()));
+		assertEquals(expected.firstKey(), map.firstKey());
+		assertEquals(expected.lastKey(), map.lastKey());
+
+		for (int i = 0; i < 2000; i++) {
+			String key = "k" + rnd.nextInt(2200);
+
+			assertEquals(expected.get(key), map.get(key));
+			assertEquals(expected.containsKey(key), map.containsKey(key));
+			assertEquals(expected.floorKey(key), map.floorKey(key));
+			assertEquals(expected.ceilingKey(key), map.ceilingKey(key));
+		}
+
+		// Removing through the iterator of the entries
+		Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+		while (it.hasNext()) {
+			if (it.next().getValue().intValue() % 2 == 0) {
+				it.remove();
+			}
+		}
+		expected.values().removeIf(v -> v.intValue() % 2 == 0);
+
+		assertEquals(expected, map);
+	}
+
+	/**
+	 * This method checks the set and its views, in reverse order
+	 */
+	@Test
+	void setMatchesTreeSet() {
+		Random rnd = new Random(14);
+		AvlSet<Integer> set = new AvlSet<Integer>(Comparator.reverseOrder());
+		TreeSet<Integer> expected = new TreeSet<Integer>(Comparator.reverseOrder());
+
+		for (int i = 0; i < 5000; i++) {
+			Integer e = Integer.valueOf(rnd.nextInt(1000));
+
+			if (rnd.nextInt(3) == 0) {
+				assertEquals(expected.remove(e), set.remove(e));
+			}
+			else {
+				assertEquals(expected.add(e), set.add(e));
+			}
+		}
+
+		assertArrayEquals(expected.toArray(), set.toArray());
+		assertArrayEquals(expected.descendingSet().toArray(), set.descendingSet().toArray());
+
+		for (int i = 0; i < 500; i++) {
+			Integer e = Integer.valueOf(rnd.nextInt(1100) - 50);
+			Integer f = Integer.valueOf(e.intValue() - rnd.nextInt(200));
+
+			assertEquals(expected.lower(e), set.lower(e));
+			assertEquals(expected.floor(e), set.floor(e));
+			assertEquals(expected.ceiling(e), set.ceiling(e));
+			assertEquals(expected.higher(e), set.higher(e));
+
+			check(expected.subSet(e, true, f, false), set.subSet(e, true, f, false));
+			check(expected.headSet(e, false), set.headSet(e, false));
+			check(expected.tailSet(e, true), set.tailSet(e, true));
+			check(expected.descendingSet().headSet(f, true), set.descendingSet().headSet(f, true));
+		}
+
+		assertEquals(expected.pollFirst(), set.pollFirst());
+		assertEquals(expected.pollLast(), set.pollLast());
+		assertArrayEquals(expected.toArray(), set.toArray());
+	}
+
+	/**
+	 * This method checks that a view holds what it should
+	 * 
+	 * @param expected The view of the reference set
+	 * @param view The view of the set
+	 */
+	private static void check(NavigableSet<Integer> expected, NavigableSet<Integer> view) {
+		List<Integer> all = new ArrayList<Integer>(view);
+
+		assertEquals(new ArrayList<Integer>(expected), all);
+		assertEquals(expected.size(), view.size());
+		assertEquals(expected.isEmpty() ? null : expected.first(), view.isEmpty() ? null : view.first());
+		assertEquals(expected.isEmpty() ? null : expected.last(), view.isEmpty() ? null : view.last());
+	}
+
+	/**
+	 * This method checks that the views of a set add within their range only,
+	 * like those of java.util.TreeSet, and that the keys of a map can't be
+	 * added to
+	 */
+	@Test
+	void viewsAddWithinTheirRange() {
+		AvlSet<Integer> set = new AvlSet<Integer>();
+		for (int i = 0; i < 100; i += 10) {
+			set.add(Integer.valueOf(i));
+		}
+
+		NavigableSet<Integer> sub = set.subSet(Integer.valueOf(20), true, Integer.valueOf(50), false);
+
+		assertTrue(sub.add(Integer.valueOf(25)));
+		assertFalse(sub.add(Integer.valueOf(30)));
+		assertTrue(sub.headSet(Integer.valueOf(40), false).add(Integer.valueOf(35)));
+		assertTrue(sub.descendingSet().add(Integer.valueOf(45)));
+		assertTrue(set.tailSet(Integer.valueOf(90), true).add(Integer.valueOf(1000)));
+
+		assertThrows(IllegalArgumentException.class, () -> sub.add(Integer.valueOf(50)));
+		assertThrows(IllegalArgumentException.class, () -> sub.add(Integer.valueOf(19)));
+		assertThrows(IllegalArgumentException.class, () -> set.headSet(Integer.valueOf(10)).add(Integer.valueOf(10)));
+		assertThrows(IllegalArgumentException.class, () -> sub.tailSet(Integer.valueOf(40), true).add(Integer.valueOf(39)));
+
+		assertArrayEquals(new Object[] { 20, 25, 30, 35, 40, 45 }, sub.toArray());
+		assertEquals(14, set.size());
+		assertTrue(set.contains(Integer.valueOf(1000)));
+
+		AvlMap<Integer, String> map = new AvlMap<Integer, String>();
+		assertThrows(UnsupportedOperationException.class, () -> map.navigableKeySet().add(Integer.valueOf(1)));
+	}
+}
\ No newline at end of file
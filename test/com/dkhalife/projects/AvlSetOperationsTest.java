@@ -0,0 +1,78 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks the set operations against java.util.TreeSet
+ * 
+ * @author Dany Khalife
+ */
+class AvlSetOperationsTest {
+	/**
+	 * This method checks the operations on random sets, both sequentially and
+	 * in parallel
+	 */
+	@Test
+	void operationsMatchTreeSet() {
+		Random rnd = new Random(8);
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try {
+			for (int round = 0; round < 30; round++) {
+				int[] a = rnd.ints(rnd.nextInt(20000), 0, 30000).sorted().distinct().toArray();
+				int[] b = rnd.ints(rnd.nextInt(20000), 0, 30000).sorted().distinct().toArray();
+
+				TreeSet<Integer> union = set(a);
+				union.addAll(set(b));
+				TreeSet<Integer> intersection = set(a);
+				intersection.retainAll(set(b));
+				TreeSet<Integer> difference = set(a);
+				difference.removeAll(set(b));
+
+				check(union, AvlSetOperations.union(AvlTree.fromSorted(a), AvlTree.fromSorted(b)));
+				check(intersection, AvlSetOperations.intersection(AvlTree.fromSorted(a), AvlTree.fromSorted(b)));
+				check(difference, AvlSetOperations.difference(AvlTree.fromSorted(a), AvlTree.fromSorted(b)));
+
+				check(union, AvlSetOperations.union(AvlTree.fromSorted(a), AvlTree.fromSorted(b), pool));
+				check(intersection, AvlSetOperations.intersection(AvlTree.fromSorted(a), AvlTree.fromSorted(b), pool));
+				check(difference, AvlSetOperations.difference(AvlTree.fromSorted(a), AvlTree.fromSorted(b), pool));
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * This method puts integers in a set
+	 * 
+	 * @param keys The integers
+	 * @return The set
+	 */
+	private static TreeSet<Integer> set(int[] keys) {
+		TreeSet<Integer> set = new TreeSet<Integer>();
+		for (int k : keys) {
+			set.add(Integer.valueOf(k));
+		}
+
+		return set;
+	}
+
+	/**
+	 * This method checks a result
+	 * 
+	 * @param expected The expected elements
+	 * @param tree The tree computed
+	 */
+	private static void check(TreeSet<Integer> expected, AvlTree tree) {
+		assertEquals(expected.size(), AvlTreeTest.checkInvariants(tree.getRoot()));
+		assertArrayEquals(AvlTreeTest.toArray(expected), tree.toArray());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks that each hot path of the tree is counted under its own
+ * metrics
+ * 
+ * @author Dany Khalife
+ */
+class AvlTreeMetricsTest {
+	/**
+	 * This method adds up a histogram
+	 * 
+	 * @param histogram The count of each bucket
+	 * @return The total count
+	 */
+	private static long total(long[] histogram) {
+		return LongStream.of(histogram).sum();
+	}
+
+	/**
+	 * This method checks that inserts and removes are counted apart from the
+	 * searches
+	 */
+	@Test
+	void insertsAndRemovesAreNotSearches() {
+		AvlTree tree = new AvlTree();
+		AvlTreeMetrics metrics = tree.enableMetrics();
+
+		for (int i = 0; i < 100; i++) {
+			tree.insert(Integer.valueOf(i));
+		}
+		// The duplicates don't add anything
+		tree.insert(Integer.valueOf(5));
+
+		for (int i = 0; i < 100; i += 2) {
+			tree.remove(Integer.valueOf(i));
+		}
+		// Neither do the integers that aren't there
+		tree.remove(Integer.valueOf(1000));
+
+		assertEquals(100, total(metrics.getInsertDepths()));
+		assertEquals(50, total(metrics.getRemoveDepths()));
+		assertEquals(0, total(metrics.getSearchDepths()));
+
+		for (int i = 0; i < 10; i++) {
+			tree.find(Integer.valueOf(i));
+		}
+
+		assertEquals(10, total(metrics.getSearchDepths()));
+		assertEquals(100, total(metrics.getInsertDepths()));
+		assertEquals(50, total(metrics.getRemoveDepths()));
+
+		metrics.reset();
+		assertEquals(0, total(metrics.getInsertDepths()) + total(metrics.getRemoveDepths()) + total(metrics.getSearchDepths()));
+	}
+
+	/**
+	 * This method checks that a remove visits as many nodes as a search for
+	 * the same integer
+	 */
+	@Test
+	void removeDepthMatchesSearchDepth() {
+		AvlTree tree = AvlTree.fromSorted(IntStream.range(0, 1000).toArray());
+		AvlTreeMetrics metrics = tree.enableMetrics();
+
+		int leaf = tree.select(0).getElem().intValue();
+
+		tree.find(Integer.valueOf(leaf));
+		tree.remove(Integer.valueOf(leaf));
+
+		assertEquals(metrics.getMeanSearchDepth(), metrics.getMeanRemoveDepth());
+	}
+}
\ No newline at end of file
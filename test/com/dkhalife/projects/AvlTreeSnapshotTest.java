@@ -0,0 +1,95 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * This class checks that snapshots read back the tree they were written from,
+ * and that damaged ones are refused
+ * 
+ * @author Dany Khalife
+ */
+class AvlTreeSnapshotTest {
+	// Where the snapshots are written
+	@TempDir
+	Path dir;
+
+	/**
+	 * This method writes then reads trees of many sizes
+	 * 
+	 * @throws IOException If a snapshot can't be written or read
+	 */
+	@Test
+	void roundTrip() throws IOException {
+		Random rnd = new Random(9);
+		Path file = this.dir.resolve("tree.avl");
+
+		for (int n : new int[] { 0, 1, 2, 100, 100000 }) {
+			int[] keys = rnd.ints(n, Integer.MIN_VALUE, Integer.MAX_VALUE).sorted().distinct().toArray();
+
+			AvlTreeSnapshot.write(AvlTree.fromSorted(keys), file);
+			AvlTree tree = AvlTreeSnapshot.read(file);
+
+			assertEquals(keys.length, AvlTreeTest.checkInvariants(tree.getRoot()));
+			assertArrayEquals(keys, tree.toArray());
+		}
+
+		// Nothing is left behind next to it
+		assertEquals(1, Files.list(this.dir).count());
+	}
+
+	/**
+	 * This method checks that a flipped byte or a missing tail is noticed
+	 * 
+	 * @throws IOException If a snapshot can't be written
+	 */
+	@Test
+	void damageIsDetected() throws IOException {
+		Path file = this.dir.resolve("tree.avl");
+		AvlTreeSnapshot.write(AvlTree.fromSorted(new int[] { 1, 2, 3, 4, 5 }), file);
+
+		byte[] bytes = Files.readAllBytes(file);
+
+		// Every byte matters, from the magic number to the checksum
+		for (int i = 0; i < bytes.length; i++) {
+			byte[] damaged = bytes.clone();
+			damaged[i] ^= 0x10;
+			Files.write(file, damaged);
+
+			assertThrows(IOException.class, () -> AvlTreeSnapshot.read(file), "Byte " + i);
+		}
+
+		for (int length = 0; length < bytes.length; length++) {
+			Files.write(file, Arrays.copyOf(bytes, length));
+
+			assertThrows(IOException.class, () -> AvlTreeSnapshot.read(file), "Length " + length);
+		}
+	}
+
+	/**
+	 * This method checks that a snapshot that can't be moved in place doesn't
+	 * leave its temporary file behind
+	 * 
+	 * @throws IOException If the directories can't be made
+	 */
+	@Test
+	void failedWriteLeavesNothingBehind() throws IOException {
+		// A directory that isn't empty can't be replaced
+		Path file = this.dir.resolve("tree.avl");
+		Files.createDirectories(file.resolve("taken"));
+
+		assertThrows(IOException.class, () -> AvlTreeSnapshot.write(AvlTree.fromSorted(new int[] { 1, 2, 3 }), file));
+		assertFalse(Files.exists(this.dir.resolve("tree.avl.tmp")));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,322 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks the boxed tree against java.util.TreeSet on random
+ * operations, along with the shape of the tree after each of them
+ * 
+ * @author Dany Khalife
+ */
+class AvlTreeTest {
+	/**
+	 * This method checks that a tree is a valid AVL tree: the elements are in
+	 * order, the links go both ways, and the cached heights and sizes are right
+	 * 
+	 * @param root The root of the tree
+	 * @return The number of nodes
+	 */
+	static int checkInvariants(AvlNode root) {
+		if (root == null) {
+			return 0;
+		}
+
+		assertNull(root.getParent(), "The root has a parent");
+		return check(root, Long.MIN_VALUE, Long.MAX_VALUE)[1];
+	}
+
+	/**
+	 * This method checks a subtree
+	 * 
+	 * @param n The root of the subtree
+	 * @param lo The elements have to be larger than this
+	 * @param hi The elements have to be smaller than this
+	 * @return The height and the size of the subtree
+	 */
+	private static int[] check(AvlNode n, long lo, long hi) {
+		if (n == null) {
+			return new int[] { 0, 0 };
+		}
+
+		int e = n.getElem().intValue();
+		assertTrue((e > lo) && (e < hi), "Out of order: " + e);
+
+		if (n.getLeft() != null) {
+			assertSame(n, n.getLeft().getParent(), "Broken parent link");
+		}
+		if (n.getRight() != null) {
+			assertSame(n, n.getRight().getParent(), "Broken parent link");
+		}
+
+		int[] l = check(n.getLeft(), lo, e);
+		int[] r = check(n.getRight(), e, hi);
+
+		assertTrue(Math.abs(l[0] - r[0]) <= 1, "Unbalanced at " + e);
+		assertEquals(Math.max(l[0], r[0]) + 1, n.height(), "Wrong height at " + e);
+		assertEquals(l[1] + r[1] + 1, n.size(), "Wrong size at " + e);
+
+		return new int[] { n.height(), n.size() };
+	}
+
+	/**
+	 * This method lists the elements of a set
+	 * 
+	 * @param set The set
+	 * @return The integers in increasing order
+	 */
+	static int[] toArray(TreeSet<Integer> set) {
+		return set.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * This method lists what an iterator walks through
+	 * 
+	 * @param it The iterator
+	 * @return The integers in the order they came
+	 */
+	static int[] drain(PrimitiveIterator.OfInt it) {
+		List<Integer> all = new ArrayList<Integer>();
+		while (it.hasNext()) {
+			all.add(Integer.valueOf(it.nextInt()));
+		}
+
+		return all.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * This method checks random inserts and removals
+	 */
+	@Test
+	void randomOperationsMatchTreeSet() {
+		Random rnd = new Random(1);
+
+		for (int round = 0; round < 20; round++) {
+			AvlTree tree = new AvlTree();
+			TreeSet<Integer> expected = new TreeSet<Integer>();
+
+			for (int i = 0; i < 2000; i++) {
+				Integer e = Integer.valueOf(rnd.nextInt(500));
+
+				if (rnd.nextInt(3) == 0) {
+					tree.remove(e);
+					expected.remove(e);
+				}
+				else {
+					tree.insert(e);
+					expected.add(e);
+				}
+
+				if (i % 100 == 0) {
+					checkInvariants(tree.getRoot());
+				}
+			}
+
+			assertEquals(expected.size(), checkInvariants(tree.getRoot()));
+			assertEquals(expected.size(), tree.size());
+			assertArrayEquals(toArray(expected), tree.toArray());
+
+			for (int k = 0; k < 500; k++) {
+				assertEquals(expected.contains(Integer.valueOf(k)), tree.find(Integer.valueOf(k)) != null);
+			}
+		}
+	}
+
+	/**
+	 * This method checks building from sorted integers and merging many at
+	 * once
+	 */
+	@Test
+	void bulkOperationsMatchTreeSet() {
+		Random rnd = new Random(3);
+
+		for (int n : new int[] { 0, 1, 2, 3, 7, 8, 1000, 4097 }) {
+			int[] keys = rnd.ints(n, -5000, 5000).sorted().distinct().toArray();
+
+			AvlTree tree = AvlTree.fromSorted(keys);
+			assertEquals(keys.length, checkInvariants(tree.getRoot()));
+			assertArrayEquals(keys, tree.toArray());
+
+			int[] added = rnd.ints(500, -6000, 6000).toArray();
+			int[] removed = rnd.ints(500, -6000, 6000).toArray();
+
+			TreeSet<Integer> expected = new TreeSet<Integer>();
+			for (int k : keys) {
+				expected.add(Integer.valueOf(k));
+			}
+			for (int k : added) {
+				expected.add(Integer.valueOf(k));
+			}
+
+			tree.addAll(added);
+			checkInvariants(tree.getRoot());
+			assertArrayEquals(toArray(expected), tree.toArray());
+
+			for (int k : removed) {
+				expected.remove(Integer.valueOf(k));
+			}
+
+			tree.removeAll(removed);
+			checkInvariants(tree.getRoot());
+			assertArrayEquals(toArray(expected), tree.toArray());
+		}
+	}
+
+	/**
+	 * This method checks that a stream with more integers than announced is
+	 * refused
+	 */
+	@Test
+	void fromSortedStreamRejectsExtraKeys() {
+		try {
+			AvlTree.fromSortedStream(IntStream.range(0, 10), 5);
+			fail("The extra keys went unnoticed");
+		}
+		catch (IllegalArgumentException expected) {
+		}
+	}
+
+	/**
+	 * This method checks that integers out of order are refused
+	 */
+	@Test
+	void fromSortedRejectsUnsortedKeys() {
+		for (int[] keys : new int[][] { { 2, 1 }, { 1, 1 }, { 1, 2, 3, 3 } }) {
+			try {
+				AvlTree.fromSorted(keys);
+				fail("The keys were taken out of order");
+			}
+			catch (IllegalArgumentException expected) {
+			}
+		}
+	}
+
+	/**
+	 * This method checks splitting, joining and removing ranges
+	 */
+	@Test
+	void splitJoinAndRemoveRange() {
+		Random rnd = new Random(4);
+
+		for (int round = 0; round < 200; round++) {
+			TreeSet<Integer> expected = new TreeSet<Integer>();
+			AvlTree tree = new AvlTree();
+
+			for (int i = rnd.nextInt(300); i > 0; i--) {
+				int e = rnd.nextInt(1000);
+				expected.add(Integer.valueOf(e));
+				tree.insert(Integer.valueOf(e));
+			}
+
+			int pivot = rnd.nextInt(1100) - 50;
+			AvlTree[] parts = tree.split(pivot);
+
+			assertEquals(0, tree.size());
+			checkInvariants(parts[0].getRoot());
+			checkInvariants(parts[1].getRoot());
+			assertArrayEquals(toArray(new TreeSet<Integer>(expected.headSet(Integer.valueOf(pivot)))), parts[0].toArray());
+			assertArrayEquals(toArray(new TreeSet<Integer>(expected.tailSet(Integer.valueOf(pivot)))), parts[1].toArray());
+
+			// Join them back around a new integer between both sides
+			AvlTree left = parts[0];
+			AvlTree right = AvlTree.fromSorted(toArray(new TreeSet<Integer>(expected.tailSet(Integer.valueOf(pivot), false))));
+			parts[1] = null;
+
+			AvlTree joined = AvlTree.join(left, pivot, right);
+			expected.add(Integer.valueOf(pivot));
+
+			assertEquals(expected.size(), checkInvariants(joined.getRoot()));
+			assertArrayEquals(toArray(expected), joined.toArray());
+
+			int lo = rnd.nextInt(1000);
+			int hi = lo + rnd.nextInt(300);
+
+			joined.removeRange(lo, hi);
+			expected.subSet(Integer.valueOf(lo), true, Integer.valueOf(hi), true).clear();
+
+			checkInvariants(joined.getRoot());
+			assertArrayEquals(toArray(expected), joined.toArray());
+		}
+	}
+
+	/**
+	 * This method checks the order statistics and the neighbours of random
+	 * integers
+	 */
+	@Test
+	void orderStatisticsMatchTreeSet() {
+		Random rnd = new Random(2);
+		AvlTree tree = new AvlTree();
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+
+		for (int i = 0; i < 3000; i++) {
+			int e = rnd.nextInt(10000);
+			tree.insert(Integer.valueOf(e));
+			expected.add(Integer.valueOf(e));
+		}
+
+		int[] sorted = toArray(expected);
+
+		for (int k = 0; k < sorted.length; k++) {
+			assertEquals(sorted[k], tree.select(k).getElem().intValue());
+		}
+		assertNull(tree.select(sorted.length));
+
+		for (int i = 0; i < 1000; i++) {
+			int e = rnd.nextInt(10200) - 100;
+			int f = e + rnd.nextInt(500);
+
+			assertEquals(expected.headSet(Integer.valueOf(e)).size(), tree.rank(e));
+			assertEquals(expected.subSet(Integer.valueOf(e), true, Integer.valueOf(f), true).size(), tree.countRange(e, f));
+
+			Integer ceiling = expected.ceiling(Integer.valueOf(e));
+			Integer floor = expected.floor(Integer.valueOf(e));
+			assertEquals(ceiling, (tree.ceiling(e) == null) ? null : tree.ceiling(e).getElem());
+			assertEquals(floor, (tree.floor(e) == null) ? null : tree.floor(e).getElem());
+		}
+	}
+
+	/**
+	 * This method checks the range iterators in both directions and the
+	 * streams, sequential and parallel
+	 */
+	@Test
+	void iteratorsMatchTreeSet() {
+		Random rnd = new Random(2);
+		AvlTree tree = new AvlTree();
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+
+		for (int i = 0; i < 3000; i++) {
+			int e = rnd.nextInt(10000);
+			tree.insert(Integer.valueOf(e));
+			expected.add(Integer.valueOf(e));
+		}
+
+		for (int i = 0; i < 1000; i++) {
+			int e = rnd.nextInt(10200) - 100;
+			int f = e + rnd.nextInt(500);
+
+			NavigableSet<Integer> range = expected.subSet(Integer.valueOf(e), true, Integer.valueOf(f), true);
+			assertArrayEquals(toArray(new TreeSet<Integer>(range)), drain(tree.iterator(e, f)));
+			assertArrayEquals(range.descendingSet().stream().mapToInt(Integer::intValue).toArray(), drain(tree.descendingIterator(f, e)));
+		}
+
+		int[] sorted = toArray(expected);
+		assertArrayEquals(sorted, tree.stream().toArray());
+		assertArrayEquals(sorted, tree.stream().parallel().toArray());
+	}
+}
\ No newline at end of file
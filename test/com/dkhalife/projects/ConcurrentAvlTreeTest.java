@@ -0,0 +1,73 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks that no update is lost when many threads change the tree
+ * at once
+ * 
+ * @author Dany Khalife
+ */
+class ConcurrentAvlTreeTest {
+	/**
+	 * This method lets every thread insert a range of its own, then remove
+	 * every other integer of it
+	 * 
+	 * @throws Exception If a thread fails
+	 */
+	@Test
+	void concurrentUpdatesAreAllApplied() throws Exception {
+		final ConcurrentAvlTree tree = new ConcurrentAvlTree();
+		final int threads = 8;
+		final int perThread = 5000;
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		try {
+			List<Future<?>> done = new ArrayList<Future<?>>();
+
+			for (int t = 0; t < threads; t++) {
+				final int base = t * perThread;
+
+				done.add(executor.submit(() -> {
+					for (int i = 0; i < perThread; i++) {
+						assertTrue(tree.insert(base + i));
+					}
+					for (int i = 0; i < perThread; i += 2) {
+						assertTrue(tree.remove(base + i));
+					}
+				}));
+			}
+
+			for (Future<?> f : done) {
+				f.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		assertEquals(threads * perThread / 2, tree.size());
+
+		for (int e = 0; e < threads * perThread; e++) {
+			assertEquals(e % 2 == 1, tree.contains(e));
+		}
+
+		// A snapshot doesn't follow the tree
+		PersistentAvlTree snapshot = tree.snapshot();
+		tree.insert(0);
+
+		assertFalse(snapshot.contains(0));
+		assertEquals(threads * perThread / 2, snapshot.size());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * This class checks that a durable tree comes back as it was, from its log,
+ * its snapshot or both
+ * 
+ * @author Dany Khalife
+ */
+class DurableAvlTreeTest {
+	// The directory of the tree
+	@TempDir
+	Path dir;
+
+	/**
+	 * This method checks that reopening a closed tree replays its log
+	 * 
+	 * @throws IOException If the tree can't be written or read
+	 */
+	@Test
+	void recoversFromTheLog() throws IOException {
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+
+		int changes;
+
+		try (DurableAvlTree tree = new DurableAvlTree(this.dir, 16, OperationLog.FsyncPolicy.NEVER, 0)) {
+			changes = apply(tree, expected, new Random(10), 1000);
+		}
+
+		try (DurableAvlTree tree = new DurableAvlTree(this.dir, 16, OperationLog.FsyncPolicy.NEVER, 0)) {
+			assertEquals(changes, tree.getReplayedOperations());
+			check(tree, expected);
+		}
+	}
+
+	/**
+	 * This method checks that a checkpoint empties the log and that the
+	 * changes after it are replayed on the snapshot
+	 * 
+	 * @throws IOException If the tree can't be written or read
+	 */
+	@Test
+	void recoversFromTheSnapshotAndTheLog() throws IOException {
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		Random rnd = new Random(11);
+
+		int changes;
+
+		try (DurableAvlTree tree = new DurableAvlTree(this.dir, 16, OperationLog.FsyncPolicy.ALWAYS, 0)) {
+			apply(tree, expected, rnd, 1000);
+			tree.checkpoint();
+			changes = apply(tree, expected, rnd, 100);
+		}
+
+		try (DurableAvlTree tree = new DurableAvlTree(this.dir, 16, OperationLog.FsyncPolicy.ALWAYS, 0)) {
+			assertEquals(changes, tree.getReplayedOperations());
+			check(tree, expected);
+
+			tree.checkpoint();
+		}
+
+		try (DurableAvlTree tree = new DurableAvlTree(this.dir, 16, OperationLog.FsyncPolicy.ALWAYS, 0)) {
+			assertEquals(0, tree.getReplayedOperations());
+			check(tree, expected);
+		}
+	}
+
+	/**
+	 * This method leaves a tree open, as a crash would, and checks that what
+	 * was committed is there when it is opened again
+	 * 
+	 * @throws IOException If the tree can't be written or read
+	 */
+	@Test
+	void committedChangesSurviveACrash() throws IOException {
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+
+		DurableAvlTree crashed = new DurableAvlTree(this.dir, 1000, OperationLog.FsyncPolicy.ALWAYS, 0);
+		apply(crashed, expected, new Random(12), 500);
+		crashed.commit();
+
+		// This one never makes it out of the batch
+		assertTrue(crashed.insert(-1));
+
+		try (DurableAvlTree tree = new DurableAvlTree(this.dir, 1000, OperationLog.FsyncPolicy.ALWAYS, 0)) {
+			assertFalse(tree.contains(-1));
+			check(tree, expected);
+		}
+	}
+
+	/**
+	 * This method makes random changes to a tree and to a set
+	 * 
+	 * @param tree The tree
+	 * @param expected The set
+	 * @param rnd The source of randomness
+	 * @param count The number of changes tried
+	 * @return The number of changes that changed something, which are the
+	 *         ones logged
+	 * @throws IOException If the log can't be written
+	 */
+	private static int apply(DurableAvlTree tree, TreeSet<Integer> expected, Random rnd, int count) throws IOException {
+		int changes = 0;
+
+		for (int i = 0; i < count; i++) {
+			int e = rnd.nextInt(300);
+
+			if (rnd.nextInt(3) == 0) {
+				boolean removed = expected.remove(Integer.valueOf(e));
+				assertEquals(removed, tree.remove(e));
+
+				changes += removed ? 1 : 0;
+			}
+			else {
+				boolean added = expected.add(Integer.valueOf(e));
+				assertEquals(added, tree.insert(e));
+
+				changes += added ? 1 : 0;
+			}
+		}
+
+		return changes;
+	}
+
+	/**
+	 * This method checks that a tree holds the elements of a set
+	 * 
+	 * @param tree The tree
+	 * @param expected The set
+	 */
+	private static void check(DurableAvlTree tree, TreeSet<Integer> expected) {
+		assertEquals(expected.size(), tree.size());
+
+		for (int e = 0; e < 300; e++) {
+			assertEquals(expected.contains(Integer.valueOf(e)), tree.contains(e));
+		}
+	}
+}
\ No newline at end of file
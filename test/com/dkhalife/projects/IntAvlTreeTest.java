@@ -0,0 +1,82 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks the unboxed tree against java.util.TreeSet
+ * 
+ * @author Dany Khalife
+ */
+class IntAvlTreeTest {
+	/**
+	 * This method checks random inserts and removals
+	 */
+	@Test
+	void randomOperationsMatchTreeSet() {
+		Random rnd = new Random(5);
+		IntAvlTree tree = new IntAvlTree();
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+
+		for (int i = 0; i < 20000; i++) {
+			int e = rnd.nextInt(2000) - 1000;
+
+			if (rnd.nextInt(3) == 0) {
+				tree.remove(e);
+				expected.remove(Integer.valueOf(e));
+			}
+			else {
+				tree.insert(e);
+				expected.add(Integer.valueOf(e));
+			}
+		}
+
+		assertEquals(expected.size(), check(tree.getRoot(), Long.MIN_VALUE, Long.MAX_VALUE)[1]);
+
+		for (int e = -1000; e < 1000; e++) {
+			assertEquals(expected.contains(Integer.valueOf(e)), tree.find(e) != null);
+		}
+
+		if (!expected.isEmpty()) {
+			assertEquals(expected.first().intValue(), tree.findMin(tree.getRoot()).getElem());
+			assertEquals(expected.last().intValue(), tree.findMax(tree.getRoot()).getElem());
+		}
+	}
+
+	/**
+	 * This method checks the order, the links and the heights of a subtree
+	 * 
+	 * @param n The root of the subtree
+	 * @param lo The elements have to be larger than this
+	 * @param hi The elements have to be smaller than this
+	 * @return The height and the size of the subtree
+	 */
+	private static int[] check(IntAvlNode n, long lo, long hi) {
+		if (n == null) {
+			return new int[] { 0, 0 };
+		}
+
+		assertTrue((n.getElem() > lo) && (n.getElem() < hi), "Out of order: " + n.getElem());
+
+		if (n.getLeft() != null) {
+			assertSame(n, n.getLeft().getParent());
+		}
+		if (n.getRight() != null) {
+			assertSame(n, n.getRight().getParent());
+		}
+
+		int[] l = check(n.getLeft(), lo, n.getElem());
+		int[] r = check(n.getRight(), n.getElem(), hi);
+
+		assertTrue(Math.abs(l[0] - r[0]) <= 1, "Unbalanced at " + n.getElem());
+		assertEquals(Math.max(l[0], r[0]) + 1, n.height());
+
+		return new int[] { n.height(), l[1] + r[1] + 1 };
+	}
+}
\ No newline at end of file
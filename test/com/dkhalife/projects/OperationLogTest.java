@@ -0,0 +1,154 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * This class checks that the log replays what was committed, and only that
+ * 
+ * @author Dany Khalife
+ */
+class OperationLogTest {
+	// Where the logs are written
+	@TempDir
+	Path dir;
+
+	/**
+	 * This method checks that the last operation on an integer wins
+	 * 
+	 * @throws IOException If the log can't be written or read
+	 */
+	@Test
+	void replayAppliesTheLastOperation() throws IOException {
+		Path file = this.dir.resolve("tree.log");
+
+		try (OperationLog log = new OperationLog(file, 3, OperationLog.FsyncPolicy.NEVER, 0)) {
+			log.insert(5);
+			log.insert(7);
+			log.remove(5);
+			log.insert(9);
+			log.remove(1);
+			log.insert(5);
+			log.remove(7);
+		}
+
+		AvlTree tree = AvlTree.fromSorted(new int[] { 1, 2 });
+		assertEquals(7, OperationLog.replay(file, tree));
+		assertArrayEquals(new int[] { 2, 5, 9 }, tree.toArray());
+	}
+
+	/**
+	 * This method cuts the last frame short, as a crash in the middle of a
+	 * write would, and checks that it is dropped then overwritten
+	 * 
+	 * @throws IOException If the log can't be written or read
+	 */
+	@Test
+	void tornFrameIsDropped() throws IOException {
+		Path file = this.dir.resolve("tree.log");
+
+		try (OperationLog log = new OperationLog(file, 2, OperationLog.FsyncPolicy.ALWAYS, 0)) {
+			log.insert(1);
+			log.insert(2);
+			log.insert(3);
+			log.insert(4);
+		}
+
+		byte[] bytes = Files.readAllBytes(file);
+
+		for (int cut = 1; cut < bytes.length / 2; cut++) {
+			Files.write(file, Arrays.copyOf(bytes, bytes.length - cut));
+
+			AvlTree tree = new AvlTree();
+			assertEquals(2, OperationLog.replay(file, tree));
+			assertArrayEquals(new int[] { 1, 2 }, tree.toArray());
+		}
+
+		// Opening the log cuts it back to the last whole frame, so what comes
+		// next isn't lost behind the torn one
+		Files.write(file, new byte[] { 0, 0, 0, 1, 1 }, StandardOpenOption.APPEND);
+
+		try (OperationLog log = new OperationLog(file, 1, OperationLog.FsyncPolicy.ALWAYS, 0)) {
+			log.insert(8);
+		}
+
+		AvlTree tree = new AvlTree();
+		assertEquals(3, OperationLog.replay(file, tree));
+		assertArrayEquals(new int[] { 1, 2, 8 }, tree.toArray());
+	}
+
+	/**
+	 * This method checks that the interval policy forces an idle log on its
+	 * own thread, and that the thread is gone once the log is closed
+	 * 
+	 * @throws Exception If the log can't be written or the wait is interrupted
+	 */
+	@Test
+	void intervalThreadStopsOnClose() throws Exception {
+		Path file = this.dir.resolve("tree.log");
+		String name = "OperationLog sync " + file.getFileName();
+
+		OperationLog log = new OperationLog(file, 1, OperationLog.FsyncPolicy.INTERVAL, 10);
+		log.insert(1);
+		assertTrue(syncThreads(name) > 0);
+
+		// Lets give it a few intervals to force the idle log
+		Thread.sleep(50);
+		log.commit();
+
+		log.close();
+
+		// It was interrupted, give it a moment to wind down
+		for (int i = 0; (i < 100) && (syncThreads(name) > 0); i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, syncThreads(name));
+	}
+
+	/**
+	 * This method checks that a failure of the interval thread is reported by
+	 * close, after the records gathered since are written
+	 * 
+	 * @throws IOException If the log can't be written or read
+	 */
+	@Test
+	void syncFailureIsReportedAfterTheLastBatch() throws IOException {
+		Path file = this.dir.resolve("tree.log");
+
+		// The interval is long enough for the thread to stay out of the way
+		OperationLog log = new OperationLog(file, 10, OperationLog.FsyncPolicy.INTERVAL, 60000);
+		log.insert(1);
+		log.insert(2);
+
+		log.syncFailed(new IOException("The disk went away"));
+		log.remove(1);
+
+		IOException e = assertThrows(IOException.class, () -> log.close());
+		assertEquals("The disk went away", e.getMessage());
+
+		AvlTree tree = new AvlTree();
+		assertEquals(3, OperationLog.replay(file, tree));
+		assertArrayEquals(new int[] { 2 }, tree.toArray());
+	}
+
+	/**
+	 * This method counts the live threads with a given name
+	 * 
+	 * @param name The name of the threads
+	 * @return The number of them
+	 */
+	private static long syncThreads(String name) {
+		return Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().equals(name) && t.isAlive()).count();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.swing.JPanel;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks that a panel doesn't leave its writer behind
+ * 
+ * @author Dany Khalife
+ */
+class PanelTest {
+	/**
+	 * This method checks that closing a panel stops its writer once the
+	 * changes are laid out
+	 * 
+	 * @throws InterruptedException If the wait is interrupted
+	 */
+	@Test
+	void closeStopsTheWriter() throws InterruptedException {
+		long before = writers();
+
+		try (Panel panel = new Panel(50, 20)) {
+			panel.setTree(AvlTree.fromSorted(new int[] { 1, 2, 3 }));
+			panel.sync();
+
+			assertTrue(writers() > before);
+		}
+
+		// Give it a moment to wind down
+		for (int i = 0; (i < 100) && (writers() > before); i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(before, writers());
+	}
+
+	/**
+	 * This method counts the live writers of every panel
+	 * 
+	 * @return The number of them
+	 */
+	private static long writers() {
+		return Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().equals("Panel writer") && t.isAlive()).count();
+	}
+	/**
+	 * This method checks that a panel taken out of its parent and put back
+	 * still changes its tree
+	 */
+	@Test
+	void panelWorksAfterBeingAddedBack() {
+		AvlTree tree = new AvlTree();
+		JPanel parent = new JPanel();
+
+		try (Panel panel = new Panel(50, 20)) {
+			panel.setTree(tree);
+
+			parent.add(panel);
+			parent.addNotify();
+
+			// Lets take it out and put it back, as moving it to another
+			// window would
+			parent.remove(panel);
+			parent.add(panel);
+			parent.removeNotify();
+			parent.addNotify();
+
+			panel.addVertex(5);
+			panel.deleteVertex(5);
+			panel.addVertex(7);
+			panel.sync();
+
+			assertArrayEquals(new int[] { 7 }, tree.toArray());
+		}
+	}
+}
\ No newline at end of file
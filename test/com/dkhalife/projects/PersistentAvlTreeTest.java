@@ -0,0 +1,76 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks that every version of a persistent tree stays as it was
+ * made, whatever happens to the later ones
+ * 
+ * @author Dany Khalife
+ */
+class PersistentAvlTreeTest {
+	/**
+	 * This method checks every version against a copy taken when it was made
+	 */
+	@Test
+	void versionsNeverChange() {
+		Random rnd = new Random(7);
+
+		List<PersistentAvlTree> versions = new ArrayList<PersistentAvlTree>();
+		List<int[]> expected = new ArrayList<int[]>();
+
+		PersistentAvlTree tree = PersistentAvlTree.EMPTY;
+		TreeSet<Integer> set = new TreeSet<Integer>();
+
+		for (int i = 0; i < 3000; i++) {
+			int e = rnd.nextInt(800);
+
+			if (rnd.nextInt(3) == 0) {
+				tree = tree.remove(e);
+				set.remove(Integer.valueOf(e));
+			}
+			else {
+				tree = tree.insert(e);
+				set.add(Integer.valueOf(e));
+			}
+
+			if (i % 50 == 0) {
+				versions.add(tree);
+				expected.add(AvlTreeTest.toArray(set));
+			}
+		}
+
+		for (int v = 0; v < versions.size(); v++) {
+			PersistentAvlTree version = versions.get(v);
+
+			assertArrayEquals(expected.get(v), version.toArray());
+			assertArrayEquals(expected.get(v), AvlTreeTest.drain(version.iterator()));
+			assertEquals(expected.get(v).length, version.size());
+
+			AvlTree copy = version.toAvlTree();
+			assertEquals(expected.get(v).length, AvlTreeTest.checkInvariants(copy.getRoot()));
+		}
+	}
+
+	/**
+	 * This method checks that changes that don't change anything keep the
+	 * same version
+	 */
+	@Test
+	void noOpChangesKeepTheVersion() {
+		PersistentAvlTree tree = PersistentAvlTree.EMPTY.insert(1).insert(2);
+
+		assertSame(tree, tree.insert(1));
+		assertSame(tree, tree.remove(3));
+		assertSame(PersistentAvlTree.EMPTY, PersistentAvlTree.EMPTY.remove(1));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks the pooled tree against java.util.TreeSet, with its nodes
+ * on the heap and off it
+ * 
+ * @author Dany Khalife
+ */
+class PooledAvlTreeTest {
+	/**
+	 * This method checks random inserts and removals on the heap
+	 */
+	@Test
+	void heapPoolMatchesTreeSet() {
+		check(new PooledAvlTree(new HeapNodePool()));
+	}
+
+	/**
+	 * This method checks random inserts and removals off the heap
+	 */
+	@Test
+	void directPoolMatchesTreeSet() {
+		check(new PooledAvlTree(new DirectNodePool()));
+	}
+
+	/**
+	 * This method runs random inserts and removals on a tree
+	 * 
+	 * @param tree The empty tree
+	 */
+	private static void check(PooledAvlTree tree) {
+		Random rnd = new Random(6);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+
+		for (int i = 0; i < 50000; i++) {
+			int e = rnd.nextInt(5000);
+
+			if (rnd.nextInt(3) == 0) {
+				tree.remove(e);
+				expected.remove(Integer.valueOf(e));
+			}
+			else {
+				tree.insert(e);
+				expected.add(Integer.valueOf(e));
+			}
+		}
+
+		assertEquals(expected.size(), tree.size());
+
+		for (int e = 0; e < 5000; e++) {
+			assertEquals(expected.contains(Integer.valueOf(e)), tree.contains(e));
+		}
+
+		// An AVL tree is never taller than about 1.44 log2(n)
+		assertTrue(tree.height() <= 1.45 * (Math.log(expected.size() + 2) / Math.log(2)));
+	}
+}
\ No newline at end of file
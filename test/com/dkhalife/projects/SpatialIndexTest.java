@@ -0,0 +1,87 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks the queries of the index against a scan of every node
+ * 
+ * @author Dany Khalife
+ */
+class SpatialIndexTest {
+	/**
+	 * This method runs random queries over random trees
+	 */
+	@Test
+	void queriesMatchABruteForceScan() {
+		Random rnd = new Random(16);
+		IntList nodes = new IntList(16);
+		IntList edges = new IntList(16);
+
+		for (int round = 0; round < 30; round++) {
+			AvlTree tree = new AvlTree();
+			for (int i = rnd.nextInt(3000); i > 0; i--) {
+				tree.insert(Integer.valueOf(rnd.nextInt(100000)));
+			}
+
+			TreeLayout layout = new TreeLayout(tree.getRoot());
+			SpatialIndex index = new SpatialIndex(layout);
+
+			int width = layout.getMaxX() - layout.getMinX() + 1;
+
+			for (int q = 0; q < 200; q++) {
+				int minX = layout.getMinX() - 10 + rnd.nextInt(width + 20);
+				int minY = rnd.nextInt(layout.getMaxY() + 5) - 3;
+				int maxX = minX + rnd.nextInt(Math.max(width / 4, 1));
+				int maxY = minY + rnd.nextInt(8);
+
+				index.query(minX, minY, maxX, maxY, nodes, edges);
+
+				IntList expectedNodes = new IntList(16);
+				IntList expectedEdges = new IntList(16);
+
+				for (int i = 0; i < layout.size(); i++) {
+					int x = layout.getX(i);
+					int y = layout.getY(i);
+
+					if ((x >= minX) && (x <= maxX) && (y >= minY) && (y <= maxY)) {
+						expectedNodes.add(i);
+					}
+
+					// An edge is found when its bounding box meets the
+					// rectangle
+					if (i > 0) {
+						int p = layout.getParent(i);
+
+						if ((Math.max(x, layout.getX(p)) >= minX) && (Math.min(x, layout.getX(p)) <= maxX) && (y >= minY) && (layout.getY(p) <= maxY)) {
+							expectedEdges.add(i);
+						}
+					}
+				}
+
+				assertArrayEquals(sorted(expectedNodes), sorted(nodes));
+				assertArrayEquals(sorted(expectedEdges), sorted(edges));
+			}
+		}
+	}
+
+	/**
+	 * This method sorts the integers of a list
+	 * 
+	 * @param list The list
+	 * @return The integers in increasing order
+	 */
+	private static int[] sorted(IntList list) {
+		int[] all = new int[list.size()];
+		for (int i = 0; i < all.length; i++) {
+			all[i] = list.get(i);
+		}
+
+		Arrays.sort(all);
+		return all;
+	}
+}
\ No newline at end of file
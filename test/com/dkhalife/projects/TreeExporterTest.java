@@ -0,0 +1,121 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.stream.IntStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks that the exported files can be read back and hold the
+ * whole tree
+ * 
+ * @author Dany Khalife
+ */
+class TreeExporterTest {
+	/**
+	 * This method checks that the PNG decodes to a picture of the announced
+	 * size with something drawn on it
+	 * 
+	 * @throws IOException If the picture can't be written or read
+	 */
+	@Test
+	void pngDecodes() throws IOException {
+		// Wide enough to be cut into many tiles
+		AvlTree tree = AvlTree.fromSorted(IntStream.range(0, 3000).toArray());
+		TreeExporter exporter = new TreeExporter(tree.getRoot(), 4);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exporter.writePng(out);
+
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals(exporter.getWidth(), image.getWidth());
+		assertEquals(exporter.getHeight(), image.getHeight());
+
+		int dark = 0;
+		for (int y = 0; y < image.getHeight(); y++) {
+			for (int x = 0; x < image.getWidth(); x++) {
+				if ((image.getRGB(x, y) & 0xffffff) != 0xffffff) {
+					dark++;
+				}
+			}
+		}
+		assertNotEquals(0, dark);
+	}
+
+	/**
+	 * This method checks that the SVG and the DOT graph hold every node and
+	 * every edge
+	 * 
+	 * @throws IOException If they can't be written
+	 */
+	@Test
+	void vectorFormatsHoldEveryNode() throws IOException {
+		AvlTree tree = new AvlTree();
+		for (int k = 0; k < 1000; k += 3) {
+			tree.insert(Integer.valueOf(k));
+		}
+
+		StringWriter svg = new StringWriter();
+		new TreeExporter(tree.getRoot(), 20).writeSvg(svg);
+
+		assertEquals(tree.size(), count(svg.toString(), "<circle "));
+		assertEquals(tree.size() - 1, count(svg.toString(), "<line "));
+
+		StringWriter dot = new StringWriter();
+		TreeExporter.writeDot(tree.getRoot(), dot);
+
+		// Every node and every edge has a label, the edges tell the sides
+		// apart
+		assertEquals(tree.size() - 1, count(dot.toString(), " -> "));
+		assertEquals(tree.size() + tree.size() - 1, count(dot.toString(), " [label=\""));
+		assertEquals(children(tree.getRoot(), true), count(dot.toString(), " [label=\"L\"]"));
+		assertEquals(children(tree.getRoot(), false), count(dot.toString(), " [label=\"R\"]"));
+
+		StringWriter empty = new StringWriter();
+		TreeExporter.writeDot(null, empty);
+		assertEquals(0, count(empty.toString(), " -> "));
+	}
+
+	/**
+	 * This method counts the left or the right children of a subtree
+	 * 
+	 * @param n The root of the subtree
+	 * @param left Are we counting the left children?
+	 * @return The number of them
+	 */
+	private static int children(AvlNode n, boolean left) {
+		if (n == null) {
+			return 0;
+		}
+
+		int own = ((left ? n.getLeft() : n.getRight()) != null) ? 1 : 0;
+
+		return own + children(n.getLeft(), left) + children(n.getRight(), left);
+	}
+
+	/**
+	 * This method counts the times a string shows up in another
+	 * 
+	 * @param text The text to look in
+	 * @param what The string to look for
+	 * @return The number of times it shows up
+	 */
+	private static int count(String text, String what) {
+		int count = 0;
+		for (int i = text.indexOf(what); i >= 0; i = text.indexOf(what, i + what.length())) {
+			count++;
+		}
+
+		return count;
+	}
+}
\ No newline at end of file
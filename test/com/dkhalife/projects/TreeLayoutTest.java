@@ -0,0 +1,65 @@
+package com.dkhalife.projects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks that laid out trees don't overlap and keep their order
+ * 
+ * @author Dany Khalife
+ */
+class TreeLayoutTest {
+	/**
+	 * This method lays out random trees and checks where their nodes land
+	 */
+	@Test
+	void nodesAreSeparatedAndInOrder() {
+		Random rnd = new Random(15);
+
+		for (int round = 0; round < 50; round++) {
+			AvlTree tree = new AvlTree();
+			for (int i = rnd.nextInt(2000); i > 0; i--) {
+				tree.insert(Integer.valueOf(rnd.nextInt(5000)));
+			}
+
+			TreeLayout layout = new TreeLayout(tree.getRoot());
+			int n = layout.size();
+
+			assertEquals(tree.size(), n);
+
+			// An inorder walk goes from left to right, so no node is closer
+			// than the separation to the one before it on its level
+			int[] lastX = new int[(n == 0) ? 0 : layout.getMaxY() + 1];
+			Arrays.fill(lastX, Integer.MIN_VALUE / 2);
+
+			int[] order = tree.toArray();
+			int[] byKey = new int[5000];
+			for (int i = 0; i < n; i++) {
+				byKey[layout.getKey(i)] = i;
+			}
+
+			for (int k : order) {
+				int i = byKey[k];
+				int y = layout.getY(i);
+
+				assertTrue(layout.getX(i) - lastX[y] >= TreeLayout.MIN_SEP, "Too close at " + k);
+				lastX[y] = layout.getX(i);
+
+				assertTrue((layout.getX(i) >= layout.getMinX()) && (layout.getX(i) <= layout.getMaxX()));
+				assertTrue(y <= layout.getMaxY());
+			}
+
+			for (int i = 1; i < n; i++) {
+				int p = layout.getParent(i);
+
+				assertEquals(layout.getY(p) + TreeLayout.LEVEL_SEP, layout.getY(i));
+				assertTrue((layout.getX(i) < layout.getX(p)) == (layout.getKey(i) < layout.getKey(p)));
+			}
+		}
+	}
+}
\ No newline at end of file